@@ -0,0 +1,89 @@
+package benchmarks;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import model.BufferedImageAdapter;
+import model.RasterImageImpl;
+
+/**
+ * This class creates the input images of the benchmarks. An input is either synthetic (a smooth
+ * gradient with noise, so that neither flat areas nor pure noise dominate) or one of the images in
+ * the res directory of the repository tiled to the requested size. The directory is taken from the
+ * system property benchmark.res, which defaults to res in the working directory.
+ */
+public final class BenchmarkImages {
+  /**
+   * Name of the source parameter value that selects a synthetic image.
+   */
+  public static final String SYNTHETIC = "synthetic";
+
+  private BenchmarkImages() {
+  }
+
+  /**
+   * Returns the width of an image of the specified number of megapixels in 4:3 proportions.
+   *
+   * @param megapixels number of megapixels of the image
+   * @return width of the image
+   */
+  public static int widthOf(int megapixels) {
+    return (int) Math.round(Math.sqrt(megapixels * 1e6 * 4 / 3));
+  }
+
+  /**
+   * Returns the height of an image of the specified number of megapixels in 4:3 proportions.
+   *
+   * @param megapixels number of megapixels of the image
+   * @return height of the image
+   */
+  public static int heightOf(int megapixels) {
+    return (int) Math.round(megapixels * 1e6 / widthOf(megapixels));
+  }
+
+  /**
+   * Creates an input image of the specified size.
+   *
+   * @param source     {@link #SYNTHETIC} or the name of an image in the res directory
+   * @param megapixels number of megapixels of the image
+   * @return the image
+   * @throws IOException when the image of the res directory cannot be read
+   */
+  public static RasterImageImpl create(String source, int megapixels) throws IOException {
+    int width = widthOf(megapixels);
+    int height = heightOf(megapixels);
+    int[] pixels = new int[width * height];
+    if (SYNTHETIC.equals(source)) {
+      Random random = new Random(42);
+      for (int y = 0; y < height; y++) {
+        for (int x = 0; x < width; x++) {
+          int red = Math.min(255, 255 * x / width + random.nextInt(32));
+          int green = Math.min(255, 255 * y / height + random.nextInt(32));
+          int blue = Math.min(255, 255 * (x + y) / (width + height) + random.nextInt(32));
+          pixels[y * width + x] = 0xff000000 | (red << 16) | (green << 8) | blue;
+        }
+      }
+    } else {
+      File file = new File(System.getProperty("benchmark.res", "res"), source);
+      BufferedImage tile = ImageIO.read(file);
+      if (tile == null) {
+        throw new IOException("Cannot read " + file + ".");
+      }
+      int[] tilePixels = BufferedImageAdapter.toRasterImage(tile).getRaster();
+      int tileWidth = tile.getWidth();
+      int tileHeight = tile.getHeight();
+      for (int y = 0; y < height; y++) {
+        int tileRow = (y % tileHeight) * tileWidth;
+        for (int x = 0; x < width; x += tileWidth) {
+          System.arraycopy(tilePixels, tileRow, pixels, y * width + x,
+                  Math.min(tileWidth, width - x));
+        }
+      }
+    }
+    return new RasterImageImpl(width, height, pixels);
+  }
+}
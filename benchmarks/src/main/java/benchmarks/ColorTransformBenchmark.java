@@ -0,0 +1,79 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.ColorTransformer;
+import model.Image;
+import model.ImageTransformerFactory;
+import model.RasterImageImpl;
+
+/**
+ * This class measures ColorTransformer with a single transformation and with a chain of two
+ * transformations applied in one pass.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class ColorTransformBenchmark {
+  @Param({"1", "12", "48"})
+  public int megapixels;
+
+  @Param({"sepia", "greyscale", "sepia+greyscale"})
+  public String transformation;
+
+  @Param({BenchmarkImages.SYNTHETIC, "kitten.jpg"})
+  public String source;
+
+  private RasterImageImpl image;
+  private ColorTransformer transformer;
+
+  /**
+   * Creates the input image and the transformer.
+   *
+   * @throws IOException when the input image cannot be read
+   */
+  @Setup
+  public void setUp() throws IOException {
+    image = BenchmarkImages.create(source, megapixels);
+    switch (transformation) {
+      case "sepia":
+        transformer = ImageTransformerFactory.createSepiaFilter();
+        break;
+      case "greyscale":
+        transformer = ImageTransformerFactory.createGreyScaleFilter();
+        break;
+      default:
+        transformer = ImageTransformerFactory.createSepiaFilter()
+                .andThen(ImageTransformerFactory.createGreyScaleFilter());
+        break;
+    }
+  }
+
+  /**
+   * Transforms the colors of the image.
+   *
+   * @param counter counter of the processed megapixels
+   * @return the transformed image
+   */
+  @Benchmark
+  public Image transform(MegapixelCounter counter) {
+    counter.add(image.getWidth(), image.getHeight());
+    return transformer.applyOn(image);
+  }
+}
@@ -0,0 +1,92 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.ConvolutionFilter;
+import model.Image;
+import model.RasterImageImpl;
+
+/**
+ * This class measures ConvolutionFilter with kernels of increasing size. The kernels are
+ * binomial, hence separable like the blur of the application, unless a non-separable kernel is
+ * requested, in which case the center of the kernel is sharpened.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class ConvolutionBenchmark {
+  @Param({"1", "12", "48"})
+  public int megapixels;
+
+  @Param({"3", "7", "15"})
+  public int kernelSize;
+
+  @Param({"true", "false"})
+  public boolean separable;
+
+  @Param({BenchmarkImages.SYNTHETIC, "kitten.jpg"})
+  public String source;
+
+  private RasterImageImpl image;
+  private ConvolutionFilter filter;
+
+  /**
+   * Creates the input image and the filter.
+   *
+   * @throws IOException when the input image cannot be read
+   */
+  @Setup
+  public void setUp() throws IOException {
+    image = BenchmarkImages.create(source, megapixels);
+    float[] binomial = new float[kernelSize];
+    binomial[0] = 1;
+    for (int i = 1; i < kernelSize; i++) {
+      for (int j = i; j > 0; j--) {
+        binomial[j] += binomial[j - 1];
+      }
+    }
+    float sum = 0;
+    for (float value : binomial) {
+      sum += value;
+    }
+    float[][] kernel = new float[kernelSize][kernelSize];
+    for (int i = 0; i < kernelSize; i++) {
+      for (int j = 0; j < kernelSize; j++) {
+        kernel[i][j] = binomial[i] * binomial[j] / (sum * sum);
+      }
+    }
+    if (!separable) {
+      kernel[kernelSize / 2][kernelSize / 2] += 1;
+      kernel[0][0] -= 1;
+    }
+    filter = new ConvolutionFilter(kernel);
+  }
+
+  /**
+   * Convolves the image.
+   *
+   * @param counter counter of the processed megapixels
+   * @return the filtered image
+   */
+  @Benchmark
+  public Image convolve(MegapixelCounter counter) {
+    counter.add(image.getWidth(), image.getHeight());
+    return filter.applyOn(image);
+  }
+}
@@ -0,0 +1,81 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.Image;
+import model.ImageTransformer;
+import model.ImageTransformerFactory;
+import model.RasterImageImpl;
+
+/**
+ * This class measures the reduction of the colors of an image: error diffusion by
+ * IndexedColorTransformer, ordered dithering and the quantization to a palette.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class DitherBenchmark {
+  @Param({"1", "12", "48"})
+  public int megapixels;
+
+  @Param({"floyd-steinberg", "bayer8", "bluenoise", "palette256"})
+  public String algorithm;
+
+  @Param({BenchmarkImages.SYNTHETIC, "kitten.jpg"})
+  public String source;
+
+  private RasterImageImpl image;
+  private ImageTransformer transformer;
+
+  /**
+   * Creates the input image and the transformer.
+   *
+   * @throws IOException when the input image cannot be read
+   */
+  @Setup
+  public void setUp() throws IOException {
+    image = BenchmarkImages.create(source, megapixels);
+    switch (algorithm) {
+      case "floyd-steinberg":
+        transformer = ImageTransformerFactory.createDitherTransformer();
+        break;
+      case "bayer8":
+        transformer = ImageTransformerFactory.createBayerDitherTransformer(8);
+        break;
+      case "bluenoise":
+        transformer = ImageTransformerFactory.createBlueNoiseDitherTransformer();
+        break;
+      default:
+        transformer = ImageTransformerFactory.createPaletteTransformer(256, false);
+        break;
+    }
+  }
+
+  /**
+   * Reduces the colors of the image.
+   *
+   * @param counter counter of the processed megapixels
+   * @return the transformed image
+   */
+  @Benchmark
+  public Image dither(MegapixelCounter counter) {
+    counter.add(image.getWidth(), image.getHeight());
+    return transformer.applyOn(image);
+  }
+}
@@ -0,0 +1,119 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.Country;
+import model.Image;
+import model.ImageGenerator;
+import model.ImageGeneratorImpl;
+
+/**
+ * This class measures ImageGeneratorImpl. Generated images are run-length encoded, so the
+ * generation alone hardly depends on the size; the expanded variants also produce every pixel,
+ * which is what operations working on the ARGB raster pay for.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class GeneratorBenchmark {
+  @Param({"1", "12", "48"})
+  public int megapixels;
+
+  private final ImageGenerator generator = new ImageGeneratorImpl();
+  private int side;
+  private int flagHeight;
+  private int stripe;
+
+  /**
+   * Computes the dimensions of the generated images from the number of megapixels.
+   */
+  @Setup
+  public void setUp() {
+    side = (int) Math.round(Math.sqrt(megapixels * 1e6 / 64));
+    flagHeight = BenchmarkImages.heightOf(megapixels);
+    stripe = BenchmarkImages.heightOf(megapixels) / 7;
+  }
+
+  /**
+   * Generates a checkerboard.
+   *
+   * @param counter counter of the generated megapixels
+   * @return the checkerboard
+   */
+  @Benchmark
+  public Image checkerboard(MegapixelCounter counter) {
+    return count(counter, generator.generateCheckerboard(side));
+  }
+
+  /**
+   * Generates a checkerboard and expands its pixels.
+   *
+   * @param counter counter of the generated megapixels
+   * @return the pixels of the checkerboard
+   */
+  @Benchmark
+  public int[] checkerboardExpanded(MegapixelCounter counter) {
+    return count(counter, generator.generateCheckerboard(side)).getPixelArray();
+  }
+
+  /**
+   * Generates a horizontal rainbow.
+   *
+   * @param counter counter of the generated megapixels
+   * @return the rainbow
+   */
+  @Benchmark
+  public Image rainbow(MegapixelCounter counter) {
+    return count(counter, generator.generateRainbow(stripe, BenchmarkImages.widthOf(megapixels),
+            true));
+  }
+
+  /**
+   * Generates the flag of Greece, the flag with the most shapes.
+   *
+   * @param counter counter of the generated megapixels
+   * @return the flag
+   */
+  @Benchmark
+  public Image flag(MegapixelCounter counter) {
+    return count(counter, generator.generateFlag(flagHeight, Country.GREECE));
+  }
+
+  /**
+   * Generates the flag of Greece and expands its pixels.
+   *
+   * @param counter counter of the generated megapixels
+   * @return the pixels of the flag
+   */
+  @Benchmark
+  public int[] flagExpanded(MegapixelCounter counter) {
+    return count(counter, generator.generateFlag(flagHeight, Country.GREECE)).getPixelArray();
+  }
+
+  /**
+   * Private helper that records the size of a generated image.
+   *
+   * @param counter counter of the generated megapixels
+   * @param image   generated image
+   * @return the generated image
+   */
+  private static Image count(MegapixelCounter counter, Image image) {
+    counter.add(image.getWidth(), image.getHeight());
+    return image;
+  }
+}
@@ -0,0 +1,107 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.annotations.TearDown;
+
+import controller.AbstractController;
+import model.Image;
+import model.RasterImageImpl;
+
+/**
+ * This class measures AbstractController.loadImage and AbstractController.saveImage for the
+ * formats that the application writes. The image is loaded from a file written during the setup
+ * and saved to a temporary directory.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class IoBenchmark {
+  @Param({"1", "12", "48"})
+  public int megapixels;
+
+  @Param({"png", "jpg", "bmp"})
+  public String format;
+
+  @Param({BenchmarkImages.SYNTHETIC, "kitten.jpg"})
+  public String source;
+
+  private final AbstractController controller = new AbstractController() {
+    @Override
+    public void execute() {
+      // only the loading and saving of the controller are measured
+    }
+  };
+  private RasterImageImpl image;
+  private File directory;
+  private String inputPath;
+
+  /**
+   * Creates the input image and writes it to a temporary directory.
+   *
+   * @throws IOException when the image cannot be created or written
+   */
+  @Setup
+  public void setUp() throws IOException {
+    image = BenchmarkImages.create(source, megapixels);
+    directory = Files.createTempDirectory("io-benchmark").toFile();
+    controller.saveImage(image, directory.getPath(), "input", format);
+    inputPath = new File(directory, "input." + format).getPath();
+  }
+
+  /**
+   * Deletes the temporary directory.
+   */
+  @TearDown
+  public void tearDown() {
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    directory.delete();
+  }
+
+  /**
+   * Loads the image from its file.
+   *
+   * @param counter counter of the processed megapixels
+   * @return the loaded image
+   * @throws IOException when the file cannot be read
+   */
+  @Benchmark
+  public Image load(MegapixelCounter counter) throws IOException {
+    counter.add(image.getWidth(), image.getHeight());
+    return controller.loadImage(inputPath);
+  }
+
+  /**
+   * Saves the image to a file.
+   *
+   * @param counter counter of the processed megapixels
+   * @throws IOException when the file cannot be written
+   */
+  @Benchmark
+  public void save(MegapixelCounter counter) throws IOException {
+    counter.add(image.getWidth(), image.getHeight());
+    controller.saveImage(image, directory.getPath(), "output", format);
+  }
+}
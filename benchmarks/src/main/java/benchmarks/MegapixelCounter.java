@@ -0,0 +1,39 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * This class counts the megapixels processed by a benchmark. JMH reports the counter as a
+ * throughput next to the operations per second, which gives the throughput of the benchmark in
+ * megapixels per second independently of the size of its input.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class MegapixelCounter {
+  /**
+   * Megapixels processed during the current iteration.
+   */
+  public double megapixels;
+
+  /**
+   * Resets the counter before every iteration.
+   */
+  @Setup(Level.Iteration)
+  public void reset() {
+    megapixels = 0;
+  }
+
+  /**
+   * Records the processing of an image.
+   *
+   * @param width  width of the image
+   * @param height height of the image
+   */
+  public void add(int width, int height) {
+    megapixels += (double) width * height / 1e6;
+  }
+}
@@ -0,0 +1,72 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import model.Image;
+import model.MosaicMode;
+import model.MosaicTransformer;
+import model.RasterImageImpl;
+
+/**
+ * This class measures MosaicTransformer over the number of seeds and the engine that assigns the
+ * pixels to the seeds. The seeds are placed with a fixed random seed, so every run clusters the
+ * same way.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@State(Scope.Benchmark)
+public class MosaicBenchmark {
+  @Param({"1", "12", "48"})
+  public int megapixels;
+
+  @Param({"1000", "10000", "100000"})
+  public int seeds;
+
+  @Param({"nearest", "jfa"})
+  public String mode;
+
+  @Param({BenchmarkImages.SYNTHETIC, "kitten.jpg"})
+  public String source;
+
+  private RasterImageImpl image;
+  private MosaicTransformer transformer;
+
+  /**
+   * Creates the input image and the transformer.
+   *
+   * @throws IOException when the input image cannot be read
+   */
+  @Setup
+  public void setUp() throws IOException {
+    image = BenchmarkImages.create(source, megapixels);
+    transformer = new MosaicTransformer(seeds, MosaicMode.valueOf(mode.toUpperCase()), 7);
+  }
+
+  /**
+   * Creates the mosaic of the image.
+   *
+   * @param counter counter of the processed megapixels
+   * @return the mosaic
+   */
+  @Benchmark
+  public Image mosaic(MegapixelCounter counter) {
+    counter.add(image.getWidth(), image.getHeight());
+    return transformer.applyOn(image);
+  }
+}
@@ -1,6 +1,7 @@
 package controller;
 
 import java.awt.image.BufferedImage;
+import java.awt.image.RenderedImage;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
@@ -8,61 +9,83 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
 
-import model.Color;
+import model.BufferedImageAdapter;
 import model.Image;
-import model.ImageImpl;
-import model.Pixel;
-import model.PixelImpl;
 
 /**
  * This class represents the abstraction of the controllers for the image processing application. It
  * abstracts out the methods common to all the different controllers.
+ *
+ * <p>Every image decoded or encoded by ImageIO is recorded as an {@link ImageIoEvent} when a flight
+ * recording is running.
  */
 public abstract class AbstractController implements ImageProcessingController {
 
   @Override
   public Image loadImage(String pathName) throws IOException {
-    BufferedImage image = ImageIO.read(new File(pathName));
-    int width = image.getWidth();
-    int height = image.getHeight();
-    Pixel[][] pixels = new PixelImpl[width][height];
-    boolean hasAlpha = image.getColorModel().hasAlpha();
-    for (int i = 0; i < width; i++) {
-      for (int j = 0; j < height; j++) {
-        int rgb = image.getRGB(i, j);
-        int red = (rgb >> 16) & 0xff;
-        int green = (rgb >> 8) & 0xff;
-        int blue = (rgb) & 0xff;
-        Color color;
-        if (hasAlpha) {
-          int alpha = (rgb >> 24) & 0xff;
-          color = Color.getBuilder().red(red).green(green).blue(blue).transparency(alpha).build();
-        } else {
-          color = Color.getBuilder().red(red).green(green).blue(blue).build();
-        }
-        Pixel pixel = new PixelImpl(color, j, i);
-        pixels[i][j] = pixel;
+    ImageIoEvent event = new ImageIoEvent();
+    event.begin();
+    File file = new File(pathName);
+    BufferedImage image = ImageIO.read(file);
+    event.end();
+    if (event.shouldCommit()) {
+      event.operation = "decode";
+      event.path = pathName;
+      event.format = pathName.substring(pathName.lastIndexOf('.') + 1);
+      if (image != null) {
+        event.width = image.getWidth();
+        event.height = image.getHeight();
       }
+      event.fileSize = file.length();
+      event.commit();
     }
-    return new ImageImpl(pixels);
+    return BufferedImageAdapter.toImage(image);
   }
 
   @Override
   public void saveImage(Image image, String directory,
                         String filename, String format) throws IOException {
-    int[] pixels = image.getPixelArray();
+    // generated images are handed to the writer as strips produced on demand, so they are
+    // streamed to the file instead of being expanded first
+    RenderedImage writeImage = BufferedImageAdapter.toRenderedImage(image);
+    if (!ImageIO.getImageWriters(ImageTypeSpecifier.createFromRenderedImage(writeImage), format)
+            .hasNext()) {
+      // the format cannot store a compact image as it is (e.g. a palette in JPEG), so the colors
+      // are written instead
+      writeImage = BufferedImageAdapter.toRgbRenderedImage(image);
+    }
+    File file = outputFile(directory, filename, format);
+    this.createDirectoryIfNotExists(file.getParent());
+    ImageIoEvent event = new ImageIoEvent();
+    event.begin();
+    ImageIO.write(writeImage, format, file);
+    event.end();
+    if (event.shouldCommit()) {
+      event.operation = "encode";
+      event.path = file.getPath();
+      event.format = format;
+      event.width = image.getWidth();
+      event.height = image.getHeight();
+      event.fileSize = file.length();
+      event.commit();
+    }
+  }
 
-    BufferedImage writeImage = new BufferedImage(image.getWidth(),
-            image.getHeight(), BufferedImage.TYPE_3BYTE_BGR);
-    writeImage.setRGB(0, 0, image.getWidth(), image.getHeight(),
-            pixels, 0, image.getWidth());
+  /**
+   * Returns the file to which {@link #saveImage(Image, String, String, String)} writes an image.
+   *
+   * @param directory path to the destination
+   * @param filename  name of the image file (excluding the format)
+   * @param format    format of the image
+   * @return the file of the image
+   */
+  static File outputFile(String directory, String filename, String format) {
     if (!((directory.endsWith("/") && (directory.endsWith("\\"))))) {
       directory = directory.concat("/");
     }
-    this.createDirectoryIfNotExists(directory);
-    ImageIO.write(writeImage, format, new File(directory.concat(filename)
-            .concat(".").concat(format)));
+    return new File(directory.concat(filename).concat(".").concat(format));
   }
 
   /**
@@ -0,0 +1,197 @@
+package controller;
+
+import java.util.List;
+
+import controller.command.ColorCommand;
+import controller.command.ConvolutionCommand;
+import controller.command.GeneratorCommand;
+import controller.command.TransformerCommand;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import model.Image;
+import model.ImageTransformer;
+import model.OperationContext;
+
+/**
+ * This class represents the Java Flight Recorder event emitted for every execution of a
+ * transformation or generator command, or of a group of transformations combined by the script
+ * controller. It records the dimensions of the input and output images, the type of the
+ * transformer and the size of its kernel, so that the garbage collections and the CPU samples of a
+ * recording can be attributed to the stages of a script. Every execution runs in its own
+ * {@link OperationContext}, whose id links the tiles processed by the parallel engines to the
+ * command they belong to. The event costs nothing when no recording is running.
+ *
+ * <p>The executions are also recorded by the {@link PipelineStatistics} exposed over JMX.
+ */
+@Name("imageprocessing.Command")
+@Label("Image Command")
+@Category({"Image Processing", "Commands"})
+@Description("Execution of a transformation or generator command")
+class CommandEvent extends jdk.jfr.Event {
+
+  @Label("Command Id")
+  @Description("Id of the command, shared with the tiles processed on its behalf")
+  long commandId;
+
+  @Label("Command")
+  String command;
+
+  @Label("Transformer")
+  @Description("Class of the transformer when the command exposes it, else class of the command")
+  String transformer;
+
+  @Label("Kernel Size")
+  @Description("Size of the largest convolution kernel, 0 when no kernel is applied")
+  int kernelSize;
+
+  @Label("Input Width")
+  int inputWidth;
+
+  @Label("Input Height")
+  int inputHeight;
+
+  @Label("Width")
+  int width;
+
+  @Label("Height")
+  int height;
+
+  /**
+   * Executes a transformation command on an image and records it.
+   *
+   * @param command command to be executed
+   * @param image   image to be transformed
+   * @return the transformed image
+   */
+  static Image execute(TransformerCommand command, Image image) {
+    String transformer = transformerOf(command);
+    try (OperationContext context = OperationContext.open(transformer, image.getWidth(),
+            image.getHeight())) {
+      CommandEvent event = new CommandEvent();
+      event.begin();
+      long start = System.nanoTime();
+      Image result = command.execute(image);
+      long nanos = System.nanoTime() - start;
+      event.end();
+      PipelineStatistics.getInstance().record(transformer, nanos, image);
+      if (event.shouldCommit()) {
+        event.describe(context, command.toString(), kernelSizeOf(command), image, result);
+        event.commit();
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Executes a generator command and records it.
+   *
+   * @param command command to be executed
+   * @return the generated image
+   */
+  static Image execute(GeneratorCommand command) {
+    String transformer = command.getClass().getSimpleName();
+    try (OperationContext context = OperationContext.open(transformer, 0, 0)) {
+      CommandEvent event = new CommandEvent();
+      event.begin();
+      long start = System.nanoTime();
+      Image result = command.execute();
+      long nanos = System.nanoTime() - start;
+      event.end();
+      PipelineStatistics.getInstance().record(transformer, nanos, result);
+      if (event.shouldCommit()) {
+        event.describe(context, command.toString(), 0, null, result);
+        event.commit();
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Applies a transformer that combines a group of transformation commands on an image and
+   * records it as a single execution.
+   *
+   * @param commands    commands combined by the transformer
+   * @param transformer transformer applying all the commands
+   * @param image       image to be transformed
+   * @return the transformed image
+   */
+  static Image execute(List<? extends TransformerCommand> commands, ImageTransformer transformer,
+                       Image image) {
+    String type = transformer.getClass().getSimpleName();
+    try (OperationContext context = OperationContext.open(type, image.getWidth(),
+            image.getHeight())) {
+      CommandEvent event = new CommandEvent();
+      event.begin();
+      long start = System.nanoTime();
+      Image result = image.transform(transformer);
+      long nanos = System.nanoTime() - start;
+      event.end();
+      PipelineStatistics.getInstance().record(type, nanos, image);
+      if (event.shouldCommit()) {
+        int kernelSize = 0;
+        for (TransformerCommand command : commands) {
+          kernelSize = Math.max(kernelSize, kernelSizeOf(command));
+        }
+        event.describe(context, commands.toString(), kernelSize, image, result);
+        event.commit();
+      }
+      return result;
+    }
+  }
+
+  /**
+   * Private helper that fills in the fields of the event.
+   *
+   * @param context    context in which the command was executed
+   * @param command    description of the command
+   * @param kernelSize size of the kernel, 0 when there is none
+   * @param input      image passed to the command, null for a generator
+   * @param output     image returned by the command
+   */
+  private void describe(OperationContext context, String command, int kernelSize, Image input,
+                        Image output) {
+    this.commandId = context.getId();
+    this.command = command;
+    this.transformer = context.getTransformer();
+    this.kernelSize = kernelSize;
+    if (input != null) {
+      this.inputWidth = input.getWidth();
+      this.inputHeight = input.getHeight();
+    }
+    if (output != null) {
+      this.width = output.getWidth();
+      this.height = output.getHeight();
+    }
+  }
+
+  /**
+   * Private helper that returns the type of the transformer applied by a command.
+   *
+   * @param command transformation command
+   * @return simple name of the class of the transformer, or of the command when it does not
+   *         expose its transformer
+   */
+  private static String transformerOf(TransformerCommand command) {
+    if (command instanceof ColorCommand) {
+      return ((ColorCommand) command).getTransformer().getClass().getSimpleName();
+    } else if (command instanceof ConvolutionCommand) {
+      return ((ConvolutionCommand) command).getFilter().getClass().getSimpleName();
+    }
+    return command.getClass().getSimpleName();
+  }
+
+  /**
+   * Private helper that returns the size of the kernel applied by a command.
+   *
+   * @param command transformation command
+   * @return size of the convolution kernel, 0 when the command does not apply one
+   */
+  private static int kernelSizeOf(TransformerCommand command) {
+    if (command instanceof ConvolutionCommand) {
+      return ((ConvolutionCommand) command).getFilter().getKernelSize();
+    }
+    return 0;
+  }
+}
@@ -0,0 +1,413 @@
+package controller;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import model.Image;
+
+/**
+ * This class records the cost of every command executed by a controller: the wall time, the CPU
+ * time of the process, the megapixels processed, the bytes allocated by all threads and the peak
+ * heap usage. The records can be written as a JSON or CSV report once the script has run, and can
+ * also be written as they are taken, one JSON object per line.
+ *
+ * <p>The CPU time is the CPU time of the whole process, so it includes the worker threads of the
+ * parallel engines as well as the garbage collector. The allocated bytes are summed over the live
+ * threads, and the peak heap is the sum of the peak usages of the heap memory pools, which are
+ * reset when a command starts. Measurements that the JVM does not support are reported as -1.
+ *
+ * <p>When the segments of a script run at the same time, these measurements are shared by the
+ * commands that overlap: each of them includes the CPU time and allocations of the others. The
+ * peaks of the heap pools are only reset when no other command is being measured, so the peak heap
+ * of a command covers the whole command but may start before it. Commands are measured in
+ * isolation when the segments run one after the other.
+ */
+public class CommandMetrics {
+  private final Appendable lineOutput;
+  private final List<Record> records;
+  private final ThreadMXBean threads;
+  private final java.lang.management.OperatingSystemMXBean os;
+  private final List<MemoryPoolMXBean> heapPools;
+  private final boolean allocationSupported;
+  private int activeMeasurements;
+
+  /**
+   * Constructs a recorder that keeps the records for the report only.
+   */
+  public CommandMetrics() {
+    this(null);
+  }
+
+  /**
+   * Constructs a recorder that also writes every record to the specified output as soon as it is
+   * taken, as a JSON object on a line of its own.
+   *
+   * @param lineOutput output to which the records are written, null to only keep them
+   */
+  public CommandMetrics(Appendable lineOutput) {
+    this.lineOutput = lineOutput;
+    this.records = new ArrayList<>();
+    this.threads = ManagementFactory.getThreadMXBean();
+    this.os = ManagementFactory.getOperatingSystemMXBean();
+    this.heapPools = new ArrayList<>();
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+        heapPools.add(pool);
+      }
+    }
+    boolean supported = false;
+    if (threads instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean allocation = (com.sun.management.ThreadMXBean) threads;
+      if (allocation.isThreadAllocatedMemorySupported()) {
+        allocation.setThreadAllocatedMemoryEnabled(true);
+        supported = true;
+      }
+    }
+    this.allocationSupported = supported;
+  }
+
+  /**
+   * Starts the measurement of a command.
+   *
+   * @param command description of the command
+   * @param line    line of the script on which the command appears
+   * @return the measurement in progress
+   */
+  Measurement start(String command, int line) {
+    synchronized (heapPools) {
+      if (activeMeasurements++ == 0) {
+        for (MemoryPoolMXBean pool : heapPools) {
+          pool.resetPeakUsage();
+        }
+      }
+    }
+    return new Measurement(command, line, System.nanoTime(), processCpuTime(),
+            allocatedBytes());
+  }
+
+  /**
+   * Completes the measurement of a command and records it.
+   *
+   * @param measurement the measurement started for the command
+   * @param image       image processed by the command, whose size is recorded
+   * @return the record of the command
+   * @throws IOException when the record cannot be written to the output of the records
+   */
+  Record stop(Measurement measurement, Image image) throws IOException {
+    long wallNanos = System.nanoTime() - measurement.wallStart;
+    long cpuEnd = processCpuTime();
+    long cpuNanos = cpuEnd < 0 || measurement.cpuStart < 0 ? -1 : cpuEnd - measurement.cpuStart;
+    long allocated = -1;
+    Map<Long, Long> allocatedEnd = allocatedBytes();
+    if (allocatedEnd != null) {
+      allocated = 0;
+      for (Map.Entry<Long, Long> thread : allocatedEnd.entrySet()) {
+        allocated += thread.getValue()
+                - measurement.allocatedStart.getOrDefault(thread.getKey(), 0L);
+      }
+    }
+    long peakHeap = heapPools.isEmpty() ? -1 : 0;
+    synchronized (heapPools) {
+      for (MemoryPoolMXBean pool : heapPools) {
+        peakHeap += pool.getPeakUsage().getUsed();
+      }
+      activeMeasurements--;
+    }
+    double megapixels = image == null ? 0
+            : (double) image.getWidth() * image.getHeight() / 1e6;
+    Record record = new Record(measurement.command, measurement.line, wallNanos, cpuNanos,
+            megapixels, allocated, peakHeap);
+    synchronized (records) {
+      records.add(record);
+    }
+    if (lineOutput != null) {
+      synchronized (lineOutput) {
+        lineOutput.append(record.toJson()).append(System.lineSeparator());
+      }
+    }
+    return record;
+  }
+
+  /**
+   * Abandons the measurement of a command that failed, without recording it.
+   *
+   * @param measurement the measurement started for the command
+   */
+  void cancel(Measurement measurement) {
+    synchronized (heapPools) {
+      activeMeasurements--;
+    }
+  }
+
+  /**
+   * Returns the records taken so far, in the order in which the commands completed.
+   *
+   * @return the records
+   */
+  public List<Record> getRecords() {
+    synchronized (records) {
+      return Collections.unmodifiableList(new ArrayList<>(records));
+    }
+  }
+
+  /**
+   * Writes the report of all commands as a JSON object holding the records and their totals.
+   *
+   * @param out output to which the report is written
+   * @throws IOException when the report cannot be written
+   */
+  public void writeJson(Appendable out) throws IOException {
+    List<Record> all = getRecords();
+    out.append("{\"commands\": [");
+    for (int i = 0; i < all.size(); i++) {
+      out.append(i == 0 ? "" : ",").append(System.lineSeparator()).append("  ")
+              .append(all.get(i).toJson());
+    }
+    out.append(System.lineSeparator()).append("], \"total\": ").append(total(all).toJson())
+            .append("}").append(System.lineSeparator());
+  }
+
+  /**
+   * Writes the report of all commands as CSV, with a header, a row per command and a last row
+   * with the totals.
+   *
+   * @param out output to which the report is written
+   * @throws IOException when the report cannot be written
+   */
+  public void writeCsv(Appendable out) throws IOException {
+    List<Record> all = getRecords();
+    out.append("command,line,wall_ms,cpu_ms,megapixels,allocated_bytes,peak_heap_bytes")
+            .append(System.lineSeparator());
+    for (Record record : all) {
+      out.append(record.toCsv()).append(System.lineSeparator());
+    }
+    out.append(total(all).toCsv()).append(System.lineSeparator());
+  }
+
+  /**
+   * Private helper that returns the totals of the records. Times, megapixels and allocations add
+   * up, the peak heap is the highest peak of all commands.
+   *
+   * @param all records to be totalled
+   * @return record of the totals
+   */
+  private static Record total(List<Record> all) {
+    long wall = 0;
+    long cpu = 0;
+    double megapixels = 0;
+    long allocated = 0;
+    long peakHeap = -1;
+    for (Record record : all) {
+      wall += record.wallNanos;
+      cpu = cpu < 0 || record.cpuNanos < 0 ? -1 : cpu + record.cpuNanos;
+      megapixels += record.megapixels;
+      allocated = allocated < 0 || record.allocatedBytes < 0 ? -1
+              : allocated + record.allocatedBytes;
+      peakHeap = Math.max(peakHeap, record.peakHeapBytes);
+    }
+    return new Record("total", 0, wall, cpu, megapixels, allocated, peakHeap);
+  }
+
+  /**
+   * Private helper that returns the CPU time consumed by the process so far.
+   *
+   * @return CPU time in nanoseconds, -1 when it is not available
+   */
+  private long processCpuTime() {
+    if (os instanceof com.sun.management.OperatingSystemMXBean) {
+      return ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuTime();
+    }
+    return -1;
+  }
+
+  /**
+   * Private helper that returns the bytes allocated so far by every live thread.
+   *
+   * @return allocated bytes by thread id, null when they are not available
+   */
+  private Map<Long, Long> allocatedBytes() {
+    if (!allocationSupported) {
+      return null;
+    }
+    long[] ids = threads.getAllThreadIds();
+    long[] bytes = ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(ids);
+    Map<Long, Long> allocated = new HashMap<>();
+    for (int i = 0; i < ids.length; i++) {
+      if (bytes[i] >= 0) {
+        allocated.put(ids[i], bytes[i]);
+      }
+    }
+    return allocated;
+  }
+
+  /**
+   * This class holds the state of a measurement in progress.
+   */
+  static final class Measurement {
+    private final String command;
+    private final int line;
+    private final long wallStart;
+    private final long cpuStart;
+    private final Map<Long, Long> allocatedStart;
+
+    /**
+     * Constructs the measurement of a command from the counters at its start.
+     *
+     * @param command        description of the command
+     * @param line           line of the script on which the command appears
+     * @param wallStart      value of the nanosecond timer
+     * @param cpuStart       CPU time of the process, -1 when it is not available
+     * @param allocatedStart allocated bytes by thread id, null when they are not available
+     */
+    private Measurement(String command, int line, long wallStart, long cpuStart,
+                        Map<Long, Long> allocatedStart) {
+      this.command = command;
+      this.line = line;
+      this.wallStart = wallStart;
+      this.cpuStart = cpuStart;
+      this.allocatedStart = allocatedStart == null ? new HashMap<>() : allocatedStart;
+    }
+  }
+
+  /**
+   * This class represents the metrics recorded for a command.
+   */
+  public static final class Record {
+    private final String command;
+    private final int line;
+    private final long wallNanos;
+    private final long cpuNanos;
+    private final double megapixels;
+    private final long allocatedBytes;
+    private final long peakHeapBytes;
+
+    /**
+     * Constructs the record of a command.
+     *
+     * @param command        description of the command
+     * @param line           line of the script on which the command appears
+     * @param wallNanos      wall time in nanoseconds
+     * @param cpuNanos       CPU time of the process in nanoseconds
+     * @param megapixels     megapixels processed
+     * @param allocatedBytes bytes allocated by all threads
+     * @param peakHeapBytes  peak heap usage in bytes
+     */
+    private Record(String command, int line, long wallNanos, long cpuNanos, double megapixels,
+                   long allocatedBytes, long peakHeapBytes) {
+      this.command = command;
+      this.line = line;
+      this.wallNanos = wallNanos;
+      this.cpuNanos = cpuNanos;
+      this.megapixels = megapixels;
+      this.allocatedBytes = allocatedBytes;
+      this.peakHeapBytes = peakHeapBytes;
+    }
+
+    /**
+     * Returns the description of the command.
+     *
+     * @return description of the command
+     */
+    public String getCommand() {
+      return command;
+    }
+
+    /**
+     * Returns the line of the script on which the command appears.
+     *
+     * @return line of the command, starting at 1
+     */
+    public int getLine() {
+      return line;
+    }
+
+    /**
+     * Returns the wall time of the command.
+     *
+     * @return wall time in nanoseconds
+     */
+    public long getWallNanos() {
+      return wallNanos;
+    }
+
+    /**
+     * Returns the CPU time of the process during the command.
+     *
+     * @return CPU time in nanoseconds, -1 when it is not available
+     */
+    public long getCpuNanos() {
+      return cpuNanos;
+    }
+
+    /**
+     * Returns the size of the image processed by the command: the input of a transformation or a
+     * save, the output of a load or a generation.
+     *
+     * @return megapixels processed
+     */
+    public double getMegapixels() {
+      return megapixels;
+    }
+
+    /**
+     * Returns the bytes allocated by all threads during the command.
+     *
+     * @return allocated bytes, -1 when they are not available
+     */
+    public long getAllocatedBytes() {
+      return allocatedBytes;
+    }
+
+    /**
+     * Returns the peak heap usage during the command.
+     *
+     * @return peak heap usage in bytes, -1 when it is not available
+     */
+    public long getPeakHeapBytes() {
+      return peakHeapBytes;
+    }
+
+    /**
+     * Returns the record as a JSON object.
+     *
+     * @return the JSON object
+     */
+    public String toJson() {
+      return String.format(Locale.ROOT, "{\"command\": \"%s\", \"line\": %d, \"wallMs\": %.3f,"
+                      + " \"cpuMs\": %.3f, \"megapixels\": %.3f, \"allocatedBytes\": %d,"
+                      + " \"peakHeapBytes\": %d}", command.replace("\\", "\\\\")
+                      .replace("\"", "\\\""), line, wallNanos / 1e6, millis(cpuNanos), megapixels,
+              allocatedBytes, peakHeapBytes);
+    }
+
+    /**
+     * Returns the record as a line of CSV.
+     *
+     * @return the CSV line
+     */
+    public String toCsv() {
+      return String.format(Locale.ROOT, "\"%s\",%d,%.3f,%.3f,%.3f,%d,%d",
+              command.replace("\"", "\"\""), line, wallNanos / 1e6, millis(cpuNanos),
+              megapixels, allocatedBytes, peakHeapBytes);
+    }
+
+    /**
+     * Private helper that converts a time that may be unavailable to milliseconds.
+     *
+     * @param nanos time in nanoseconds, -1 when it is not available
+     * @return time in milliseconds, -1 when it is not available
+     */
+    private static double millis(long nanos) {
+      return nanos < 0 ? -1 : nanos / 1e6;
+    }
+  }
+}
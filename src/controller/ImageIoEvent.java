@@ -0,0 +1,39 @@
+package controller;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * This class represents the Java Flight Recorder event emitted for every image decoded from or
+ * encoded to a file by ImageIO. It records the file, its format and size and the dimensions of
+ * the image. The event costs nothing when no recording is running.
+ */
+@Name("imageprocessing.ImageIO")
+@Label("Image Decode/Encode")
+@Category({"Image Processing", "ImageIO"})
+@Description("Image decoded from or encoded to a file by ImageIO")
+class ImageIoEvent extends jdk.jfr.Event {
+
+  @Label("Operation")
+  @Description("decode or encode")
+  String operation;
+
+  @Label("Path")
+  String path;
+
+  @Label("Format")
+  String format;
+
+  @Label("Width")
+  int width;
+
+  @Label("Height")
+  int height;
+
+  @Label("File Size")
+  @DataAmount
+  long fileSize;
+}
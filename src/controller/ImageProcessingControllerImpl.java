@@ -4,22 +4,42 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Function;
 
 import controller.command.Blur;
 import controller.command.Checkerboard;
+import controller.command.ColorCommand;
+import controller.command.ConvolutionCommand;
 import controller.command.Dither;
 import controller.command.Flag;
+import controller.command.GaussianBlur;
 import controller.command.GeneratorCommand;
 import controller.command.Greyscale;
 import controller.command.Mosaic;
+import controller.command.OrderedDither;
+import controller.command.Quantize;
 import controller.command.Rainbow;
 import controller.command.Sepia;
 import controller.command.Sharpen;
 import controller.command.TransformerCommand;
+import controller.command.Unsharp;
+import model.ColorTransformer;
+import model.ConvolutionFilter;
+import model.ConvolutionPipeline;
 import model.Image;
 
 /**
@@ -27,13 +47,37 @@ import model.Image;
  * implementation of the controller deals with a command based input. Based on the command, the
  * controller signals the model to perform the associated task. The model returns the resultant
  * image to the controller which then waits for the next command on the image object.
+ *
+ * <p>Consecutive color transformations (sepia, greyscale) are not applied one by one. They are
+ * combined into a single transformer that makes one pass over the image and gives the same result
+ * as applying them one after the other. Likewise, consecutive convolution filters (blur, sharpen)
+ * are streamed through a band pipeline that never creates the intermediate images. The script
+ * directive "fuse on" additionally allows the matrices of consecutive color transformations and
+ * the kernels of consecutive convolution filters to be composed wherever no clamping takes place
+ * in between, which can differ from the sequential result by rounding; "fuse off" restores the
+ * default. Every combined group and the strategy chosen for it is reported on the output of the
+ * controller.
+ *
+ * <p>The script is split into segments, a new segment starting at every load and generator
+ * command, and each segment works on an image of its own. The segments can therefore be run at the
+ * same time on a pool of a configurable number of threads (one by default, which runs them one
+ * after the other). A segment that reads or writes a file written by an earlier segment, or writes
+ * a file read by an earlier segment, waits for that segment, so the files are the same as if the
+ * script was run from top to bottom. A segment that fails does not stop the other segments; the
+ * reports and errors of the segments are written in the order of the script.
+ *
+ * <p>When the controller is given a {@link CommandMetrics} recorder, every load, save, generation
+ * and transformation (or combined group of transformations) is measured and recorded with the line
+ * of the script it comes from.
  */
 public class ImageProcessingControllerImpl extends AbstractController {
 
-  private Image image;
   private final Map<String, Function<Scanner, TransformerCommand>> transformCommands;
   private final Map<String, Function<Scanner, GeneratorCommand>> generatorCommands;
   private final FileReader reader;
+  private final Appendable out;
+  private final CommandMetrics metrics;
+  private final int threads;
 
   /**
    * Construct the controller object. The commands supported by the application are also defined.
@@ -45,29 +89,83 @@ public class ImageProcessingControllerImpl extends AbstractController {
    *   <li>greyscale</li>
    *   <li>sharpen</li>
    *   <li>blur</li>
+   *   <li>unsharp</li>
    *   <li>mosaic</li>
    *   <li>dither</li>
+   *   <li>quantize</li>
    *   <li>checkerboard</li>
    *   <li>rainbow</li>
    *   <li>flag</li>
+   *   <li>fuse</li>
    * </ul>
+   * The report of the combined transformations is written to the standard output.
    *
    * @param filePath path to the script
    */
   public ImageProcessingControllerImpl(String filePath) throws IllegalArgumentException {
+    this(filePath, System.out);
+  }
+
+  /**
+   * Construct the controller object that writes the report of the combined transformations to the
+   * specified output.
+   *
+   * @param filePath path to the script
+   * @param out      output to which the report is written
+   */
+  public ImageProcessingControllerImpl(String filePath, Appendable out)
+          throws IllegalArgumentException {
+    this(filePath, out, null);
+  }
+
+  /**
+   * Construct the controller object that writes the report of the combined transformations to the
+   * specified output and records the metrics of every command.
+   *
+   * @param filePath path to the script
+   * @param out      output to which the report is written
+   * @param metrics  recorder of the metrics of the commands, null to not record them
+   */
+  public ImageProcessingControllerImpl(String filePath, Appendable out, CommandMetrics metrics)
+          throws IllegalArgumentException {
+    this(filePath, out, metrics, 1);
+  }
+
+  /**
+   * Construct the controller object that runs up to the specified number of segments of the script
+   * at the same time, writes the report of the combined transformations to the specified output
+   * and records the metrics of every command.
+   *
+   * @param filePath path to the script
+   * @param out      output to which the report is written
+   * @param metrics  recorder of the metrics of the commands, null to not record them
+   * @param threads  number of segments of the script that are run at the same time
+   * @throws IllegalArgumentException when the script does not exist or the number of threads is
+   *                                  not a positive value
+   */
+  public ImageProcessingControllerImpl(String filePath, Appendable out, CommandMetrics metrics,
+                                       int threads) throws IllegalArgumentException {
+    if (threads < 1) {
+      throw new IllegalArgumentException("Number of threads must be a positive value.");
+    }
     try {
       this.reader = new FileReader(new File(filePath));
     } catch (FileNotFoundException e) {
       throw new IllegalArgumentException("The passed script file does not exist.");
     }
-    this.image = null;
+    this.out = out;
+    this.metrics = metrics;
+    this.threads = threads;
     transformCommands = new HashMap<>();
     transformCommands.put("sepia", s -> new Sepia());
     transformCommands.put("greyscale", s -> new Greyscale());
     transformCommands.put("sharpen", s -> new Sharpen());
-    transformCommands.put("blur", s -> new Blur());
-    transformCommands.put("mosaic", s -> new Mosaic(s.nextInt()));
-    transformCommands.put("dither", s -> new Dither());
+    transformCommands.put("blur", s -> s.hasNextDouble() ? new GaussianBlur(s.nextDouble())
+            : new Blur());
+    transformCommands.put("unsharp", s -> new Unsharp(s.nextDouble(), s.nextDouble()));
+    transformCommands.put("mosaic", ImageProcessingControllerImpl::parseMosaic);
+    transformCommands.put("dither", ImageProcessingControllerImpl::parseDither);
+    transformCommands.put("quantize", ImageProcessingControllerImpl::parseQuantize);
 
     generatorCommands = new HashMap<>();
     generatorCommands.put("checkerboard", s -> new Checkerboard(s.nextInt()));
@@ -75,47 +173,534 @@ public class ImageProcessingControllerImpl extends AbstractController {
     generatorCommands.put("flag", s -> new Flag(s.nextInt(), s.next()));
   }
 
+  /**
+   * Runs the script. The segments of the script are run on a pool of the configured number of
+   * threads, each as soon as the segments that it depends on have completed. The report of every
+   * segment is written to the output in the order of the script, followed by the error of the
+   * segment if it failed. Once all segments have completed, the error of the first segment that
+   * failed is thrown, the errors of the other segments being attached to it as suppressed
+   * exceptions.
+   *
+   * @throws IOException when a segment fails to read or write a file, or the report cannot be
+   *                     written
+   */
   @Override
   public void execute() throws IOException {
+    List<Segment> segments = parseScript();
+    ExecutorService pool = threads == 1 ? null : Executors.newFixedThreadPool(threads);
+    Executor executor = pool == null ? Runnable::run : pool;
+    Exception firstFailure = null;
+    try {
+      List<CompletableFuture<Void>> completions = new ArrayList<>();
+      for (int i = 0; i < segments.size(); i++) {
+        Segment segment = segments.get(i);
+        List<Segment> dependencies = new ArrayList<>();
+        List<CompletableFuture<Void>> waits = new ArrayList<>();
+        for (int j = 0; j < i; j++) {
+          if (segment.dependsOn(segments.get(j))) {
+            dependencies.add(segments.get(j));
+            waits.add(completions.get(j));
+          }
+        }
+        completions.add(CompletableFuture.allOf(waits.toArray(new CompletableFuture<?>[0]))
+                .thenRunAsync(() -> segment.run(dependencies), executor));
+      }
+      for (int i = 0; i < segments.size(); i++) {
+        try {
+          completions.get(i).join();
+        } catch (CompletionException e) {
+          // segments record their exceptions, so only errors complete them exceptionally
+          throw (Error) e.getCause();
+        }
+        Segment segment = segments.get(i);
+        out.append(segment.report);
+        if (segment.failure != null) {
+          out.append(String.format("Segment starting at line %d failed: %s%n", segment.firstLine,
+                  segment.failure.getMessage()));
+          if (firstFailure == null) {
+            firstFailure = segment.failure;
+          } else {
+            firstFailure.addSuppressed(segment.failure);
+          }
+        }
+      }
+    } finally {
+      if (pool != null) {
+        pool.shutdown();
+      }
+    }
+    if (firstFailure instanceof IOException) {
+      throw (IOException) firstFailure;
+    } else if (firstFailure != null) {
+      throw (RuntimeException) firstFailure;
+    }
+  }
+
+  /**
+   * Private helper that reads the script and splits it into segments, a new segment starting at
+   * every load and generator command. Commands that appear before the first of these form a
+   * segment of their own. A command that cannot be parsed fails its segment when the segment
+   * reaches it, and the rest of its line is ignored.
+   *
+   * @return the segments of the script, in order
+   */
+  private List<Segment> parseScript() {
+    List<Segment> segments = new ArrayList<>();
+    Segment segment = null;
+    boolean fuse = false;
     Scanner fileScanner = new Scanner(reader);
+    int line = 0;
     while (fileScanner.hasNext()) {
       String commandLine = fileScanner.nextLine();
-      TransformerCommand cmd;
+      line++;
       Scanner scanner = new Scanner(commandLine);
-      while (scanner.hasNext()) {
-        String commandString = scanner.next();
-        Function<Scanner, TransformerCommand> command = transformCommands
-                .getOrDefault(commandString, null);
-        if (command == null) {
-          GeneratorCommand genCmd;
-          Function<Scanner, GeneratorCommand> generatorCommand = generatorCommands
-                  .getOrDefault(commandString, null);
-          if (generatorCommand == null) {
-            if (commandString.equalsIgnoreCase("load")) {
-              image = this.loadImage(scanner.next());
-            } else if (commandString.equalsIgnoreCase("save")) {
-              if (image == null) {
-                throw new IllegalStateException("Attempted to create an image that has not been"
-                        + " loaded/created yet.");
-              }
-              this.saveImage(image, scanner.next(), scanner.next(), scanner.next());
-            } else {
-              throw new IllegalArgumentException("The passed command is either invalid or not"
-                      + " supported.");
-            }
-          } else {
-            if (image == null) {
-              throw new IllegalStateException("An image needs to be created or loaded before" +
-                      " applying transformations on it.");
+      try {
+        while (scanner.hasNext()) {
+          String commandString = scanner.next();
+          if (commandString.equalsIgnoreCase("fuse")) {
+            boolean value = parseSwitch(scanner.next());
+            fuse = value;
+            if (segment != null) {
+              Segment current = segment;
+              segment.actions.add(() -> current.setFuse(value));
             }
-            genCmd = generatorCommand.apply(scanner);
-            image = genCmd.execute();
+            continue;
           }
-        } else {
-          cmd = command.apply(scanner);
-          image = cmd.execute(image);
+          if (segment == null || commandString.equalsIgnoreCase("load")
+                  || generatorCommands.containsKey(commandString)) {
+            segment = new Segment(line, fuse);
+            segments.add(segment);
+          }
+          parseCommand(segment, commandString, scanner, line);
+        }
+      } catch (RuntimeException e) {
+        if (segment == null) {
+          segment = new Segment(line, fuse);
+          segments.add(segment);
+        }
+        segment.actions.add(() -> {
+          throw e;
+        });
+      }
+    }
+    return segments;
+  }
+
+  /**
+   * Private helper that parses a command of the script and adds it to its segment.
+   *
+   * @param segment       segment to which the command belongs
+   * @param commandString name of the command
+   * @param scanner       scanner positioned after the name of the command
+   * @param line          line of the script on which the command appears
+   * @throws IllegalArgumentException when the command is invalid or not supported
+   */
+  private void parseCommand(Segment segment, String commandString, Scanner scanner, int line)
+          throws IllegalArgumentException {
+    Function<Scanner, TransformerCommand> command = transformCommands
+            .getOrDefault(commandString, null);
+    Function<Scanner, GeneratorCommand> generatorCommand = generatorCommands
+            .getOrDefault(commandString, null);
+    if (command != null) {
+      TransformerCommand cmd = command.apply(scanner);
+      segment.actions.add(() -> segment.transform(cmd, line));
+    } else if (generatorCommand != null) {
+      GeneratorCommand genCmd = generatorCommand.apply(scanner);
+      segment.actions.add(() -> segment.generate(genCmd, line));
+    } else if (commandString.equalsIgnoreCase("load")) {
+      String path = scanner.next();
+      segment.reads.add(Paths.get(path).toAbsolutePath().normalize());
+      segment.actions.add(() -> segment.load(path, line));
+    } else if (commandString.equalsIgnoreCase("save")) {
+      String directory = scanner.next();
+      String filename = scanner.next();
+      String format = scanner.next();
+      segment.writes.add(outputFile(directory, filename, format).toPath().toAbsolutePath()
+              .normalize());
+      segment.actions.add(() -> segment.save(directory, filename, format, line));
+    } else {
+      throw new IllegalArgumentException("The passed command is either invalid or not"
+              + " supported.");
+    }
+  }
+
+  /**
+   * Private helper that runs a step of the script and records its metrics if a recorder was
+   * passed to the controller. A step that fails is not recorded.
+   *
+   * @param command description of the step
+   * @param line    line of the script on which the step appears
+   * @param input   image read by the step, null if the step creates an image
+   * @param step    the step to be run
+   * @return the image resulting from the step
+   * @throws IOException when the step fails to read or write a file
+   */
+  private Image measure(String command, int line, Image input, Step step) throws IOException {
+    if (metrics == null) {
+      return step.run();
+    }
+    CommandMetrics.Measurement measurement = metrics.start(command, line);
+    Image result;
+    try {
+      result = step.run();
+    } catch (IOException | RuntimeException e) {
+      metrics.cancel(measurement);
+      throw e;
+    }
+    metrics.stop(measurement, input == null ? result : input);
+    return result;
+  }
+
+  /**
+   * This interface represents a step of the script that produces an image.
+   */
+  private interface Step {
+    /**
+     * Runs the step.
+     *
+     * @return the image resulting from the step
+     * @throws IOException when the step fails to read or write a file
+     */
+    Image run() throws IOException;
+  }
+
+  /**
+   * This interface represents a command of a segment of the script, ready to be run.
+   */
+  private interface Action {
+    /**
+     * Runs the command on its segment.
+     *
+     * @throws IOException when the command fails to read or write a file
+     */
+    void run() throws IOException;
+  }
+
+  /**
+   * This class represents a segment of the script: a load or generator command and the commands
+   * that follow it up to the next load or generator command. A segment works on an image of its
+   * own, so segments only depend on one another through the files that they read and write.
+   */
+  private final class Segment {
+    private final int firstLine;
+    private final List<Action> actions;
+    private final Set<Path> reads;
+    private final Set<Path> writes;
+    private final StringBuilder report;
+    private final List<TransformerCommand> pendingCommands;
+    private Image image;
+    private boolean fuse;
+    private int pendingLine;
+    private Exception failure;
+
+    /**
+     * Constructs an empty segment.
+     *
+     * @param firstLine line of the script on which the segment starts
+     * @param fuse      whether composition is allowed at the start of the segment
+     */
+    private Segment(int firstLine, boolean fuse) {
+      this.firstLine = firstLine;
+      this.actions = new ArrayList<>();
+      this.reads = new HashSet<>();
+      this.writes = new HashSet<>();
+      this.report = new StringBuilder();
+      this.pendingCommands = new ArrayList<>();
+      this.image = null;
+      this.fuse = fuse;
+    }
+
+    /**
+     * Determines whether this segment has to run after an earlier segment of the script, because
+     * one of them writes a file that the other reads or writes.
+     *
+     * @param earlier segment that appears earlier in the script
+     * @return true if this segment has to wait for the earlier segment, else false
+     */
+    private boolean dependsOn(Segment earlier) {
+      for (Path path : earlier.writes) {
+        if (reads.contains(path) || writes.contains(path)) {
+          return true;
+        }
+      }
+      for (Path path : earlier.reads) {
+        if (writes.contains(path)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Determines whether this segment reads a file that an earlier segment of the script writes,
+     * i.e. whether it uses the result of the earlier segment and not only runs after it.
+     *
+     * @param earlier segment that appears earlier in the script
+     * @return true if this segment reads a file written by the earlier segment, else false
+     */
+    private boolean readsFrom(Segment earlier) {
+      for (Path path : earlier.writes) {
+        if (reads.contains(path)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Runs the commands of the segment and records the exception of the command that fails. The
+     * segment does not run when it reads a file written by one of the segments that it depends on
+     * and that segment failed. Segments that only have to run after a segment that failed, because
+     * they write a file that it reads or writes, still run.
+     *
+     * @param dependencies segments that have to complete before this segment
+     */
+    private void run(List<Segment> dependencies) {
+      for (Segment dependency : dependencies) {
+        if (dependency.failure != null && readsFrom(dependency)) {
+          failure = new IllegalStateException("The segment depends on the segment starting at"
+                  + " line " + dependency.firstLine + ", which failed.");
+          return;
+        }
+      }
+      try {
+        for (Action action : actions) {
+          action.run();
+        }
+        applyPendingCommands();
+      } catch (IOException | RuntimeException e) {
+        failure = e;
+      }
+    }
+
+    /**
+     * Loads the image of the segment.
+     *
+     * @param path path of the image
+     * @param line line of the script on which the command appears
+     * @throws IOException when the image cannot be read
+     */
+    private void load(String path, int line) throws IOException {
+      applyPendingCommands();
+      image = measure("load " + path, line, null, () -> loadImage(path));
+    }
+
+    /**
+     * Saves the image of the segment.
+     *
+     * @param directory directory of the file
+     * @param filename  name of the file without the format
+     * @param format    format of the file
+     * @param line      line of the script on which the command appears
+     * @throws IOException when the image cannot be written
+     */
+    private void save(String directory, String filename, String format, int line)
+            throws IOException {
+      applyPendingCommands();
+      if (image == null) {
+        throw new IllegalStateException("Attempted to create an image that has not been"
+                + " loaded/created yet.");
+      }
+      Image saved = image;
+      measure(String.join(" ", "save", directory, filename, format), line, saved, () -> {
+        saveImage(saved, directory, filename, format);
+        return saved;
+      });
+    }
+
+    /**
+     * Generates the image of the segment.
+     *
+     * @param command generator command
+     * @param line    line of the script on which the command appears
+     * @throws IOException when the report cannot be written
+     */
+    private void generate(GeneratorCommand command, int line) throws IOException {
+      applyPendingCommands();
+      image = measure(command.toString(), line, null, () -> CommandEvent.execute(command));
+    }
+
+    /**
+     * Applies a transformation on the image of the segment. Color transformations and convolution
+     * filters are collected into a group that is applied when a command of another kind follows.
+     *
+     * @param command transformation command
+     * @param line    line of the script on which the command appears
+     * @throws IOException when the report cannot be written
+     */
+    private void transform(TransformerCommand command, int line) throws IOException {
+      if (command instanceof ColorCommand || command instanceof ConvolutionCommand) {
+        if (!pendingCommands.isEmpty() && !canCombine(pendingCommands.get(0), command)) {
+          applyPendingCommands();
         }
+        if (pendingCommands.isEmpty()) {
+          pendingLine = line;
+        }
+        pendingCommands.add(command);
+      } else {
+        applyPendingCommands();
+        checkImage();
+        Image input = image;
+        image = measure(command.toString(), line, input,
+                () -> CommandEvent.execute(command, input));
       }
     }
+
+    /**
+     * Applies the collected transformations and sets whether composition is allowed.
+     *
+     * @param fuse true to allow composition, else false
+     * @throws IOException when the report cannot be written
+     */
+    private void setFuse(boolean fuse) throws IOException {
+      applyPendingCommands();
+      this.fuse = fuse;
+    }
+
+    /**
+     * Applies the transformations that have been collected since the last command of a different
+     * kind. A group of several color transformations is combined into a single transformer, a
+     * group of several convolution filters into a single pipeline, and the group is reported on
+     * the report of the segment.
+     *
+     * @throws IOException when the report cannot be written
+     */
+    private void applyPendingCommands() throws IOException {
+      if (pendingCommands.isEmpty()) {
+        return;
+      }
+      checkImage();
+      image = measure(pendingCommands.size() == 1 ? pendingCommands.get(0).toString()
+              : pendingCommands.toString(), pendingLine, image, this::combinePendingCommands);
+      pendingCommands.clear();
+    }
+
+    /**
+     * Applies the collected transformations as one group and returns the result.
+     *
+     * @return the transformed image
+     */
+    private Image combinePendingCommands() {
+      if (pendingCommands.size() == 1) {
+        return CommandEvent.execute(pendingCommands.get(0), image);
+      } else if (pendingCommands.get(0) instanceof ColorCommand) {
+        ColorTransformer transformer = ((ColorCommand) pendingCommands.get(0)).getTransformer();
+        for (int i = 1; i < pendingCommands.size(); i++) {
+          ColorTransformer next = ((ColorCommand) pendingCommands.get(i)).getTransformer();
+          transformer = fuse ? transformer.fuse(next) : transformer.andThen(next);
+        }
+        int stages = transformer.getStageCount();
+        report.append(String.format("%s: %s into one pass with %d stage%s%n", pendingCommands,
+                fuse ? "fused" : "chained", stages, stages == 1 ? "" : "s"));
+        return CommandEvent.execute(pendingCommands, transformer, image);
+      } else {
+        List<ConvolutionFilter> filters = new ArrayList<>();
+        for (TransformerCommand command : pendingCommands) {
+          filters.add(((ConvolutionCommand) command).getFilter());
+        }
+        ConvolutionPipeline pipeline = new ConvolutionPipeline(filters, fuse);
+        report.append(String.format("%s: %s%n", pendingCommands, pipeline));
+        return CommandEvent.execute(pendingCommands, pipeline, image);
+      }
+    }
+
+    /**
+     * Verifies that the segment has an image to be transformed.
+     *
+     * @throws IllegalStateException when no image has been loaded or generated
+     */
+    private void checkImage() throws IllegalStateException {
+      if (image == null) {
+        throw new IllegalStateException("An image needs to be created or loaded before"
+                + " applying transformations on it.");
+      }
+    }
+  }
+
+  /**
+   * Private helper that determines whether two transformations can be applied as one group.
+   *
+   * @param first transformation that starts the group
+   * @param next  transformation to be added to the group
+   * @return true if both are color transformations or both are convolution filters, else false
+   */
+  private static boolean canCombine(TransformerCommand first, TransformerCommand next) {
+    return first instanceof ColorCommand && next instanceof ColorCommand
+            || first instanceof ConvolutionCommand && next instanceof ConvolutionCommand;
+  }
+
+  /**
+   * Private helper that parses the arguments of the mosaic command: the number of seeds, followed
+   * by an optional mode ("nearest" or "jfa") and an optional "seed" with the initial value of the
+   * random generator, e.g. "mosaic 1000 jfa seed 42".
+   *
+   * @param scanner scanner positioned after the name of the command
+   * @return the mosaic command
+   */
+  private static Mosaic parseMosaic(Scanner scanner) {
+    int noOfSeeds = scanner.nextInt();
+    String mode = "nearest";
+    Long randomSeed = null;
+    while (scanner.hasNext("(?i)nearest|jfa|seed")) {
+      String option = scanner.next();
+      if (option.equalsIgnoreCase("seed")) {
+        randomSeed = scanner.nextLong();
+      } else {
+        mode = option;
+      }
+    }
+    return randomSeed == null ? new Mosaic(noOfSeeds, mode)
+            : new Mosaic(noOfSeeds, mode, randomSeed);
+  }
+
+  /**
+   * Private helper that parses the arguments of the dither command. Without arguments the image is
+   * dithered by error diffusion, "bayer" followed by the size of the matrix (e.g. "dither bayer 8")
+   * and "bluenoise" select ordered dithering.
+   *
+   * @param scanner scanner positioned after the name of the command
+   * @return the dither command
+   */
+  private static TransformerCommand parseDither(Scanner scanner) {
+    if (scanner.hasNext("(?i)bayer")) {
+      scanner.next();
+      return new OrderedDither(scanner.nextInt());
+    } else if (scanner.hasNext("(?i)bluenoise")) {
+      scanner.next();
+      return new OrderedDither();
+    }
+    return new Dither();
+  }
+
+  /**
+   * Private helper that parses the arguments of the quantize command: the number of colors,
+   * followed by an optional "dither", e.g. "quantize 16 dither".
+   *
+   * @param scanner scanner positioned after the name of the command
+   * @return the quantize command
+   */
+  private static Quantize parseQuantize(Scanner scanner) {
+    int colors = scanner.nextInt();
+    boolean dither = scanner.hasNext("(?i)dither");
+    if (dither) {
+      scanner.next();
+    }
+    return new Quantize(colors, dither);
+  }
+
+  /**
+   * Private helper that parses the value of an on/off directive.
+   *
+   * @param value value of the directive
+   * @return true if the value is "on", false if it is "off"
+   * @throws IllegalArgumentException when the value is neither "on" nor "off"
+   */
+  private static boolean parseSwitch(String value) throws IllegalArgumentException {
+    if (value.equalsIgnoreCase("on")) {
+      return true;
+    } else if (value.equalsIgnoreCase("off")) {
+      return false;
+    }
+    throw new IllegalArgumentException("Expected on or off, but found " + value + ".");
   }
 }
\ No newline at end of file
@@ -16,12 +16,14 @@ import controller.command.Flag;
 import controller.command.GeneratorCommand;
 import controller.command.Greyscale;
 import controller.command.Mosaic;
+import controller.command.OrderedDither;
 import controller.command.Rainbow;
 import controller.command.Sepia;
 import controller.command.Sharpen;
 import controller.command.TransformerCommand;
 import model.ExtendedImage;
 import model.ExtendedImageImpl;
+import model.Image;
 import view.FlagGenerationPanel;
 import view.FlagGenerationPanelImpl;
 import view.IView;
@@ -47,7 +49,7 @@ public class InteractiveAppControllerImpl extends AbstractController implements
   /**
    * Construct the controller for the interactive image processing by initializing the model and
    * view. Also sets this controller as the listener of the actions on the view and initializes the
-   * undo and redo stacks.
+   * undo and redo stacks, whose images are reported by the {@link PipelineStatistics}.
    *
    * @param view view in which the result of model operations is displayed to the user, also the
    *             interface from which user input is received
@@ -58,6 +60,22 @@ public class InteractiveAppControllerImpl extends AbstractController implements
     this.view.setListeners(this);
     undoStack = new Stack<>();
     redoStack = new Stack<>();
+    PipelineStatistics.getInstance().setHistory(new PipelineStatistics.History() {
+      @Override
+      public Image[] getImages() {
+        Object[] undoImages = undoStack.toArray();
+        Object[] redoImages = redoStack.toArray();
+        Image[] images = new Image[undoImages.length + redoImages.length];
+        System.arraycopy(undoImages, 0, images, 0, undoImages.length);
+        System.arraycopy(redoImages, 0, images, undoImages.length, redoImages.length);
+        return images;
+      }
+
+      @Override
+      public void clear() {
+        clearStacks();
+      }
+    });
   }
 
   /**
@@ -117,6 +135,9 @@ public class InteractiveAppControllerImpl extends AbstractController implements
       case "dither":
         dither();
         break;
+      case "ordered dither":
+        orderedDither();
+        break;
       case "rainbow":
         rainbow();
         break;
@@ -216,6 +237,40 @@ public class InteractiveAppControllerImpl extends AbstractController implements
     executeCommand(dither);
   }
 
+  /**
+   * Opens a dialog for asking the user about the threshold matrix to be used for ordered dithering
+   * and based on the selection, signals the model to transform the image to its corresponding
+   * dithered form and renders the resultant image on the view.
+   */
+  private void orderedDither() {
+    String[] matrices = {"Bayer 2x2", "Bayer 4x4", "Bayer 8x8", "Bayer 16x16", "Blue noise"};
+    Object matrix = JOptionPane.showInputDialog(null, "Select threshold matrix:",
+            "Ordered Dither", JOptionPane.PLAIN_MESSAGE, null, matrices, matrices[2]);
+    if (matrix == null) {
+      return;
+    }
+    undoStack.push(model);
+    TransformerCommand dither;
+    switch ((String) matrix) {
+      case "Bayer 2x2":
+        dither = new OrderedDither(2);
+        break;
+      case "Bayer 4x4":
+        dither = new OrderedDither(4);
+        break;
+      case "Bayer 8x8":
+        dither = new OrderedDither(8);
+        break;
+      case "Bayer 16x16":
+        dither = new OrderedDither(16);
+        break;
+      default:
+        dither = new OrderedDither();
+        break;
+    }
+    executeCommand(dither);
+  }
+
   /**
    * Execute the color transformation or filter command.
    *
@@ -227,7 +282,7 @@ public class InteractiveAppControllerImpl extends AbstractController implements
     SwingWorker worker = new SwingWorker() {
       @Override
       protected Void doInBackground() {
-        model = new ExtendedImageImpl(command.execute(model));
+        model = new ExtendedImageImpl(CommandEvent.execute(command, model));
         return null;
       }
     };
@@ -286,7 +341,7 @@ public class InteractiveAppControllerImpl extends AbstractController implements
    * resultant image on the view.
    */
   private void flags() {
-    String[] countries = {"France", "Greece", "Switzerland"};
+    String[] countries = {"France", "Germany", "Greece", "Italy", "Sweden", "Switzerland"};
     FlagGenerationPanel flagPanel = new FlagGenerationPanelImpl(countries);
     int result = JOptionPane.showConfirmDialog(null, flagPanel,
             "Flag Generator", JOptionPane.OK_CANCEL_OPTION, JOptionPane.PLAIN_MESSAGE);
@@ -378,7 +433,7 @@ public class InteractiveAppControllerImpl extends AbstractController implements
     SwingWorker worker = new SwingWorker() {
       @Override
       protected Void doInBackground() {
-        model = new ExtendedImageImpl(command.execute());
+        model = new ExtendedImageImpl(CommandEvent.execute(command));
         clearStacks();
         renderImage();
         return null;
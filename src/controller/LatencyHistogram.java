@@ -0,0 +1,214 @@
+package controller;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class represents a histogram of latencies kept in an array of counters, in the manner of
+ * HdrHistogram. Latencies are counted in microseconds: values below 8 have a bucket each, larger
+ * values fall into 8 buckets per power of two. Every recorded latency is therefore known to within
+ * 12.5%, with a fixed number of buckets whatever the range of the latencies, and recording a
+ * latency is a few arithmetic operations and an atomic increment.
+ *
+ * <p>The statistics are read from the counters as they are, so a histogram can be read while
+ * latencies are being recorded.
+ */
+public final class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = SUB_BUCKETS
+          + (Long.SIZE - 1 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final AtomicLong totalMicros = new AtomicLong();
+  private final AtomicLong maxMicros = new AtomicLong();
+
+  /**
+   * Records a latency.
+   *
+   * @param nanos latency in nanoseconds
+   */
+  public void record(long nanos) {
+    long micros = Math.max(0, nanos / 1000);
+    counts.incrementAndGet(bucketOf(micros));
+    totalMicros.addAndGet(micros);
+    maxMicros.accumulateAndGet(micros, Math::max);
+  }
+
+  /**
+   * Returns the number of recorded latencies.
+   *
+   * @return number of latencies
+   */
+  public long getCount() {
+    long count = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      count += counts.get(i);
+    }
+    return count;
+  }
+
+  /**
+   * Returns the mean of the recorded latencies.
+   *
+   * @return mean latency in milliseconds, 0 when no latency is recorded
+   */
+  public double getMeanMillis() {
+    long count = getCount();
+    return count == 0 ? 0 : totalMicros.get() / 1e3 / count;
+  }
+
+  /**
+   * Returns the largest recorded latency.
+   *
+   * @return largest latency in milliseconds
+   */
+  public double getMaxMillis() {
+    return maxMicros.get() / 1e3;
+  }
+
+  /**
+   * Returns the median of the recorded latencies.
+   *
+   * @return upper bound of the bucket of the median in milliseconds
+   */
+  public double getP50Millis() {
+    return percentileMillis(0.50);
+  }
+
+  /**
+   * Returns the 90th percentile of the recorded latencies.
+   *
+   * @return upper bound of the bucket of the percentile in milliseconds
+   */
+  public double getP90Millis() {
+    return percentileMillis(0.90);
+  }
+
+  /**
+   * Returns the 99th percentile of the recorded latencies.
+   *
+   * @return upper bound of the bucket of the percentile in milliseconds
+   */
+  public double getP99Millis() {
+    return percentileMillis(0.99);
+  }
+
+  /**
+   * Returns the upper bounds of the buckets that hold at least one latency, in increasing order.
+   * The counts of these buckets are returned by {@link #getBucketCounts()}.
+   *
+   * @return upper bounds of the buckets in microseconds
+   */
+  public long[] getBucketUpperBoundsMicros() {
+    long[] snapshot = snapshot();
+    long[] bounds = new long[nonEmpty(snapshot)];
+    for (int i = 0, k = 0; i < BUCKETS; i++) {
+      if (snapshot[i] > 0) {
+        bounds[k++] = upperBound(i);
+      }
+    }
+    return bounds;
+  }
+
+  /**
+   * Returns the counts of the buckets that hold at least one latency, in increasing order of their
+   * upper bounds, as returned by {@link #getBucketUpperBoundsMicros()}.
+   *
+   * @return counts of the buckets
+   */
+  public long[] getBucketCounts() {
+    long[] snapshot = snapshot();
+    long[] nonEmptyCounts = new long[nonEmpty(snapshot)];
+    for (int i = 0, k = 0; i < BUCKETS; i++) {
+      if (snapshot[i] > 0) {
+        nonEmptyCounts[k++] = snapshot[i];
+      }
+    }
+    return nonEmptyCounts;
+  }
+
+  /**
+   * Private helper that returns the latency below which the specified fraction of the recorded
+   * latencies lie.
+   *
+   * @param fraction fraction of the latencies
+   * @return upper bound of the bucket of the percentile in milliseconds, 0 when no latency is
+   *         recorded
+   */
+  private double percentileMillis(double fraction) {
+    long[] snapshot = snapshot();
+    long count = 0;
+    for (long bucketCount : snapshot) {
+      count += bucketCount;
+    }
+    long rank = Math.max(1, (long) Math.ceil(fraction * count));
+    long cumulative = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      cumulative += snapshot[i];
+      if (cumulative >= rank) {
+        return Math.min(upperBound(i), maxMicros.get()) / 1e3;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Private helper that copies the counters of the buckets.
+   *
+   * @return counts of all buckets
+   */
+  private long[] snapshot() {
+    long[] snapshot = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      snapshot[i] = counts.get(i);
+    }
+    return snapshot;
+  }
+
+  /**
+   * Private helper that returns the number of buckets holding at least one latency.
+   *
+   * @param snapshot counts of all buckets
+   * @return number of non empty buckets
+   */
+  private static int nonEmpty(long[] snapshot) {
+    int nonEmpty = 0;
+    for (long count : snapshot) {
+      if (count > 0) {
+        nonEmpty++;
+      }
+    }
+    return nonEmpty;
+  }
+
+  /**
+   * Private helper that returns the bucket of a latency.
+   *
+   * @param micros latency in microseconds, not negative
+   * @return index of the bucket
+   */
+  private static int bucketOf(long micros) {
+    if (micros < SUB_BUCKETS) {
+      return (int) micros;
+    }
+    int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(micros);
+    int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * SUB_BUCKETS + subBucket;
+  }
+
+  /**
+   * Private helper that returns the largest latency that falls into a bucket.
+   *
+   * @param bucket index of the bucket
+   * @return largest latency of the bucket in microseconds
+   */
+  private static long upperBound(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int shift = (bucket - SUB_BUCKETS) / SUB_BUCKETS;
+    long subBucket = SUB_BUCKETS + (bucket - SUB_BUCKETS) % SUB_BUCKETS;
+    return ((subBucket + 1) << shift) - 1;
+  }
+}
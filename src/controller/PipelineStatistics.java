@@ -0,0 +1,206 @@
+package controller;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+import model.Image;
+import model.Parallelism;
+
+/**
+ * This class keeps the live statistics of the image processing pipeline of the application and
+ * exposes them over JMX, together with the state of the worker pool of {@link Parallelism}. Every
+ * transformation and generator command executed by a controller is recorded: the number of images
+ * processed, their megapixels, a moving average of the throughput and a latency histogram per type
+ * of transformer. The interactive controller also reports the images on its undo and redo stacks.
+ *
+ * <p>There is a single instance for the application, which is registered with the platform MBean
+ * server under the name {@value #OBJECT_NAME} by {@link #register()}. Recording a command costs a
+ * few atomic operations, so the statistics are always kept.
+ */
+public final class PipelineStatistics implements PipelineStatisticsMXBean {
+  /**
+   * Name under which the statistics are registered with the platform MBean server.
+   */
+  public static final String OBJECT_NAME = "imageprocessing:type=PipelineStatistics";
+
+  private static final double THROUGHPUT_SMOOTHING = 0.2;
+  private static final PipelineStatistics INSTANCE = new PipelineStatistics();
+
+  private final ConcurrentMap<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+  private final Object lock = new Object();
+  private long imagesProcessed;
+  private double megapixelsProcessed;
+  private double megapixelsPerSecond;
+  private volatile History history;
+
+  /**
+   * Constructs the statistics with all counters at zero.
+   */
+  private PipelineStatistics() {
+  }
+
+  /**
+   * Returns the statistics of the application.
+   *
+   * @return the statistics
+   */
+  public static PipelineStatistics getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Registers the statistics of the application with the platform MBean server. Registering them
+   * again has no effect.
+   *
+   * @throws IllegalStateException when the statistics cannot be registered
+   */
+  public static void register() throws IllegalStateException {
+    try {
+      ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE,
+              new ObjectName(OBJECT_NAME));
+    } catch (InstanceAlreadyExistsException e) {
+      // already registered
+    } catch (JMException e) {
+      throw new IllegalStateException("Pipeline statistics cannot be registered.", e);
+    }
+  }
+
+  /**
+   * Records the execution of a command.
+   *
+   * @param transformer type of the transformer applied by the command
+   * @param nanos       wall time of the command in nanoseconds
+   * @param image       image processed by the command: the input of a transformation, the output
+   *                    of a generator
+   */
+  void record(String transformer, long nanos, Image image) {
+    histograms.computeIfAbsent(transformer, type -> new LatencyHistogram()).record(nanos);
+    double megapixels = (double) image.getWidth() * image.getHeight() / 1e6;
+    double throughput = megapixels / Math.max(nanos, 1) * 1e9;
+    synchronized (lock) {
+      megapixelsPerSecond = imagesProcessed == 0 ? throughput
+              : megapixelsPerSecond + THROUGHPUT_SMOOTHING * (throughput - megapixelsPerSecond);
+      imagesProcessed++;
+      megapixelsProcessed += megapixels;
+    }
+  }
+
+  /**
+   * Sets the history of the interactive session whose memory is reported and dropped.
+   *
+   * @param history history of the session, null when there is none
+   */
+  void setHistory(History history) {
+    this.history = history;
+  }
+
+  @Override
+  public long getImagesProcessed() {
+    synchronized (lock) {
+      return imagesProcessed;
+    }
+  }
+
+  @Override
+  public double getMegapixelsProcessed() {
+    synchronized (lock) {
+      return megapixelsProcessed;
+    }
+  }
+
+  @Override
+  public double getMegapixelsPerSecond() {
+    synchronized (lock) {
+      return megapixelsPerSecond;
+    }
+  }
+
+  @Override
+  public Map<String, LatencyHistogram> getLatencyHistograms() {
+    return Collections.unmodifiableMap(new TreeMap<>(histograms));
+  }
+
+  @Override
+  public long getQueueDepth() {
+    ForkJoinPool pool = Parallelism.getPool();
+    return pool.getQueuedSubmissionCount() + pool.getQueuedTaskCount();
+  }
+
+  @Override
+  public int getActiveWorkers() {
+    return Parallelism.getPool().getActiveThreadCount();
+  }
+
+  @Override
+  public int getParallelism() {
+    return Parallelism.getParallelism();
+  }
+
+  @Override
+  public void setParallelism(int parallelism) throws IllegalArgumentException {
+    Parallelism.setParallelism(parallelism);
+  }
+
+  @Override
+  public int getUndoStackImages() {
+    History current = history;
+    return current == null ? 0 : current.getImages().length;
+  }
+
+  @Override
+  public long getUndoStackBytes() {
+    History current = history;
+    long bytes = 0;
+    if (current != null) {
+      for (Image image : current.getImages()) {
+        bytes += image.getRetainedBytes();
+      }
+    }
+    return bytes;
+  }
+
+  @Override
+  public void dropCaches() {
+    History current = history;
+    if (current != null) {
+      current.clear();
+    }
+  }
+
+  @Override
+  public void resetStatistics() {
+    histograms.clear();
+    synchronized (lock) {
+      imagesProcessed = 0;
+      megapixelsProcessed = 0;
+      megapixelsPerSecond = 0;
+    }
+  }
+
+  /**
+   * This interface represents the images that an interactive session keeps to undo and redo its
+   * commands.
+   */
+  interface History {
+    /**
+     * Returns the images on the undo and redo stacks.
+     *
+     * @return images of the history
+     */
+    Image[] getImages();
+
+    /**
+     * Removes all images from the undo and redo stacks.
+     */
+    void clear();
+  }
+}
@@ -0,0 +1,98 @@
+package controller;
+
+import java.util.Map;
+
+/**
+ * This interface defines the management interface through which the statistics of the image
+ * processing pipeline and the state of its worker pool are monitored over JMX, together with the
+ * operations that tune the pipeline while it runs.
+ */
+public interface PipelineStatisticsMXBean {
+
+  /**
+   * Returns the number of images produced by transformation and generator commands, a group of
+   * transformations combined by the script controller counting as one image.
+   *
+   * @return number of images processed
+   */
+  long getImagesProcessed();
+
+  /**
+   * Returns the megapixels processed by all commands.
+   *
+   * @return megapixels processed
+   */
+  double getMegapixelsProcessed();
+
+  /**
+   * Returns the exponential moving average of the throughput of the recent commands.
+   *
+   * @return throughput in megapixels per second
+   */
+  double getMegapixelsPerSecond();
+
+  /**
+   * Returns the histograms of the latencies of the commands by type of transformer.
+   *
+   * @return histogram of the latencies of every type of transformer
+   */
+  Map<String, LatencyHistogram> getLatencyHistograms();
+
+  /**
+   * Returns the number of tasks waiting in the queues of the worker pool.
+   *
+   * @return number of queued tasks
+   */
+  long getQueueDepth();
+
+  /**
+   * Returns the number of workers of the pool that are running or stealing tasks.
+   *
+   * @return number of active workers
+   */
+  int getActiveWorkers();
+
+  /**
+   * Returns the number of worker threads of the pool used for image processing.
+   *
+   * @return parallelism of the pool
+   */
+  int getParallelism();
+
+  /**
+   * Replaces the pool used for image processing by a new pool with the specified number of worker
+   * threads. Commands that are running keep using the pool they were started on.
+   *
+   * @param parallelism number of worker threads
+   * @throws IllegalArgumentException when the number of threads is not a positive value
+   */
+  void setParallelism(int parallelism) throws IllegalArgumentException;
+
+  /**
+   * Returns the number of images kept to undo and redo the commands of the interactive session.
+   *
+   * @return number of images on the undo and redo stacks
+   */
+  int getUndoStackImages();
+
+  /**
+   * Returns an estimate of the memory held by the images kept to undo and redo the commands of the
+   * interactive session. The memory of every image depends on how it is stored, e.g. 4 bytes per
+   * pixel for a raster, a byte per pixel for greyscale and indexed images, a bit per pixel for
+   * black and white images, and only the runs of a run-length image.
+   *
+   * @return estimated memory of the undo and redo stacks in bytes
+   */
+  long getUndoStackBytes();
+
+  /**
+   * Releases the memory that the application keeps to speed up or undo later work, i.e. the
+   * images on the undo and redo stacks of the interactive session.
+   */
+  void dropCaches();
+
+  /**
+   * Resets the counters, the throughput and the latency histograms.
+   */
+  void resetStatistics();
+}
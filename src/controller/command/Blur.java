@@ -1,17 +1,22 @@
 package controller.command;
 
+import model.ConvolutionFilter;
 import model.Image;
 import model.ImageTransformerFactory;
 
 /**
- * This class implements the TransformerCommand interface and represents the "blur" command. The
+ * This class implements the ConvolutionCommand interface and represents the "blur" command. The
  * blur command obscures the image i.e. it makes the image less clear.
  */
-public class Blur implements TransformerCommand {
-
+public class Blur implements ConvolutionCommand {
   @Override
   public Image execute(Image image) {
-    return image.transform(ImageTransformerFactory.createBlurFilter());
+    return image.transform(getFilter());
+  }
+
+  @Override
+  public ConvolutionFilter getFilter() {
+    return ImageTransformerFactory.createBlurFilter();
   }
 
   @Override
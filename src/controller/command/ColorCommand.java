@@ -0,0 +1,18 @@
+package controller.command;
+
+import model.ColorTransformer;
+
+/**
+ * This interface represents an image transformation command that changes the color of every pixel
+ * based on its own color only. Exposing the underlying color transformer allows consecutive
+ * commands of this kind to be combined and applied in a single pass over the image.
+ */
+public interface ColorCommand extends TransformerCommand {
+
+  /**
+   * Returns the color transformer that is applied by the command.
+   *
+   * @return color transformer of the command
+   */
+  ColorTransformer getTransformer();
+}
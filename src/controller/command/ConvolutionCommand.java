@@ -0,0 +1,18 @@
+package controller.command;
+
+import model.ConvolutionFilter;
+
+/**
+ * This interface represents an image transformation command that applies a convolution filter.
+ * Exposing the underlying filter allows consecutive commands of this kind to be applied without
+ * creating the intermediate images.
+ */
+public interface ConvolutionCommand extends TransformerCommand {
+
+  /**
+   * Returns the convolution filter that is applied by the command.
+   *
+   * @return convolution filter of the command
+   */
+  ConvolutionFilter getFilter();
+}
@@ -0,0 +1,32 @@
+package controller.command;
+
+import model.Image;
+import model.ImageTransformerFactory;
+
+/**
+ * This class implements the TransformerCommand interface and represents the "blur" command with a
+ * parameter. The command execution results in an image blurred by a Gaussian with the specified
+ * standard deviation.
+ */
+public class GaussianBlur implements TransformerCommand {
+  private final double sigma;
+
+  /**
+   * Creates the command that applies a Gaussian blur with the specified standard deviation.
+   *
+   * @param sigma standard deviation of the Gaussian in pixels
+   */
+  public GaussianBlur(double sigma) {
+    this.sigma = sigma;
+  }
+
+  @Override
+  public Image execute(Image image) {
+    return image.transform(ImageTransformerFactory.createGaussianBlurFilter(sigma));
+  }
+
+  @Override
+  public String toString() {
+    return "blur " + sigma;
+  }
+}
@@ -2,6 +2,7 @@ package controller.command;
 
 import model.Image;
 import model.ImageTransformerFactory;
+import model.MosaicMode;
 
 /**
  * This class implements the TransformerCommand interface and represents the "mosaic" command. The
@@ -10,6 +11,8 @@ import model.ImageTransformerFactory;
  */
 public class Mosaic implements TransformerCommand {
   private final int noOfSeeds;
+  private final MosaicMode mode;
+  private final Long randomSeed;
 
   /**
    * Creates the command by configuring the number of seeds provided considered while transforming
@@ -19,15 +22,50 @@ public class Mosaic implements TransformerCommand {
    */
   public Mosaic(int noOfSeeds) {
     this.noOfSeeds = noOfSeeds;
+    this.mode = MosaicMode.NEAREST;
+    this.randomSeed = null;
+  }
+
+  /**
+   * Creates the command by configuring the number of seeds and the mode that assigns the pixels
+   * to the seeds ("nearest" or "jfa").
+   *
+   * @param noOfSeeds number of seeds selected for the mosaic transformer
+   * @param mode      name of the mode of the mosaic transformer
+   */
+  public Mosaic(int noOfSeeds, String mode) {
+    this.noOfSeeds = noOfSeeds;
+    this.mode = MosaicMode.valueOf(mode.toUpperCase());
+    this.randomSeed = null;
+  }
+
+  /**
+   * Creates the command by configuring the number of seeds, the mode that assigns the pixels to
+   * the seeds ("nearest" or "jfa") and the initial value of the random generator that chooses the
+   * seeds, which makes the result reproducible.
+   *
+   * @param noOfSeeds  number of seeds selected for the mosaic transformer
+   * @param mode       name of the mode of the mosaic transformer
+   * @param randomSeed initial value of the random generator that chooses the seeds
+   */
+  public Mosaic(int noOfSeeds, String mode, long randomSeed) {
+    this.noOfSeeds = noOfSeeds;
+    this.mode = MosaicMode.valueOf(mode.toUpperCase());
+    this.randomSeed = randomSeed;
   }
 
   @Override
   public Image execute(Image image) {
-    return image.transform(ImageTransformerFactory.createMosaicTransformer(noOfSeeds));
+    if (randomSeed == null) {
+      return image.transform(ImageTransformerFactory.createMosaicTransformer(noOfSeeds, mode));
+    }
+    return image.transform(ImageTransformerFactory.createMosaicTransformer(noOfSeeds, mode,
+            randomSeed));
   }
 
   @Override
   public String toString() {
-    return "mosaic";
+    String command = "mosaic " + noOfSeeds + " " + mode;
+    return randomSeed == null ? command : command + " seed " + randomSeed;
   }
-}
\ No newline at end of file
+}
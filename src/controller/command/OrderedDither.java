@@ -0,0 +1,43 @@
+package controller.command;
+
+import model.Image;
+import model.ImageTransformerFactory;
+
+/**
+ * This class implements the TransformerCommand interface and represents the "dither bayer" and
+ * "dither bluenoise" commands. Ordered dithering compares every pixel of the greyscale image with
+ * the threshold of its position in a small matrix repeated over the image. It does not diffuse any
+ * error between the pixels, which makes it much faster than the "dither" command.
+ */
+public class OrderedDither implements TransformerCommand {
+  private final int bayerSize;
+
+  /**
+   * Creates the command that dithers with a blue noise matrix.
+   */
+  public OrderedDither() {
+    this.bayerSize = 0;
+  }
+
+  /**
+   * Creates the command that dithers with the Bayer matrix of the specified size.
+   *
+   * @param bayerSize number of rows and columns of the Bayer matrix: 2, 4, 8 or 16
+   */
+  public OrderedDither(int bayerSize) {
+    this.bayerSize = bayerSize;
+  }
+
+  @Override
+  public Image execute(Image image) {
+    if (bayerSize == 0) {
+      return image.transform(ImageTransformerFactory.createBlueNoiseDitherTransformer());
+    }
+    return image.transform(ImageTransformerFactory.createBayerDitherTransformer(bayerSize));
+  }
+
+  @Override
+  public String toString() {
+    return bayerSize == 0 ? "dither bluenoise" : "dither bayer " + bayerSize;
+  }
+}
@@ -0,0 +1,37 @@
+package controller.command;
+
+import model.Image;
+import model.ImageTransformerFactory;
+
+/**
+ * This class implements the TransformerCommand interface and represents the "quantize" command.
+ * The command reduces the colors of the image to a palette of at most the specified number of
+ * colors that is built from the colors of the image, optionally dithering the image to hide the
+ * banding. The resulting image is saved with its palette in formats that support one, such as PNG.
+ */
+public class Quantize implements TransformerCommand {
+  private final int colors;
+  private final boolean dither;
+
+  /**
+   * Creates the command by configuring the number of colors of the palette and whether the image
+   * is dithered.
+   *
+   * @param colors maximum number of colors of the palette, between 2 and 256
+   * @param dither true if the image is dithered, else false
+   */
+  public Quantize(int colors, boolean dither) {
+    this.colors = colors;
+    this.dither = dither;
+  }
+
+  @Override
+  public Image execute(Image image) {
+    return image.transform(ImageTransformerFactory.createPaletteTransformer(colors, dither));
+  }
+
+  @Override
+  public String toString() {
+    return "quantize " + colors + (dither ? " dither" : "");
+  }
+}
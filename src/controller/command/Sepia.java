@@ -1,16 +1,22 @@
 package controller.command;
 
+import model.ColorTransformer;
 import model.Image;
 import model.ImageTransformerFactory;
 
 /**
- * This class implements the TransformerCommand interface and represents the "sepia" command. The
+ * This class implements the ColorCommand interface and represents the "sepia" command. The
  * command execution results in an image that has a reddish brown tinge to it.
  */
-public class Sepia implements TransformerCommand {
+public class Sepia implements ColorCommand {
   @Override
   public Image execute(Image image) {
-    return image.transform(ImageTransformerFactory.createSepiaFilter());
+    return image.transform(getTransformer());
+  }
+
+  @Override
+  public ColorTransformer getTransformer() {
+    return ImageTransformerFactory.createSepiaFilter();
   }
 
   @Override
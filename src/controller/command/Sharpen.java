@@ -1,16 +1,22 @@
 package controller.command;
 
+import model.ConvolutionFilter;
 import model.Image;
 import model.ImageTransformerFactory;
 
 /**
- * This class implements the TransformerCommand interface and represents the "sharpen" command. The
+ * This class implements the ConvolutionCommand interface and represents the "sharpen" command. The
  * command execution results in an image with accentuated edges.
  */
-public class Sharpen implements TransformerCommand {
+public class Sharpen implements ConvolutionCommand {
   @Override
   public Image execute(Image image) {
-    return image.transform(ImageTransformerFactory.createSharpenFilter());
+    return image.transform(getFilter());
+  }
+
+  @Override
+  public ConvolutionFilter getFilter() {
+    return ImageTransformerFactory.createSharpenFilter();
   }
 
   @Override
@@ -0,0 +1,36 @@
+package controller.command;
+
+import model.Image;
+import model.ImageTransformerFactory;
+
+/**
+ * This class implements the TransformerCommand interface and represents the "unsharp" command. The
+ * command execution results in an image whose details, as removed by a Gaussian blur of the
+ * configured standard deviation, are amplified by the configured amount.
+ */
+public class Unsharp implements TransformerCommand {
+  private final double sigma;
+  private final double amount;
+
+  /**
+   * Creates the command by configuring the standard deviation of the Gaussian and the amount by
+   * which the details are amplified.
+   *
+   * @param sigma  standard deviation of the Gaussian in pixels
+   * @param amount factor by which the details are amplified
+   */
+  public Unsharp(double sigma, double amount) {
+    this.sigma = sigma;
+    this.amount = amount;
+  }
+
+  @Override
+  public Image execute(Image image) {
+    return image.transform(ImageTransformerFactory.createUnsharpMaskFilter(sigma, amount));
+  }
+
+  @Override
+  public String toString() {
+    return "unsharp " + sigma + " " + amount;
+  }
+}
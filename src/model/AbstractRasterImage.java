@@ -0,0 +1,108 @@
+package model;
+
+/**
+ * This class represents the abstraction of the compact images, whose pixels are stored in fewer
+ * than four bytes each (e.g. a palette index, a luminance or a single bit). The packed ARGB values
+ * required by the RasterImage interface are computed from the stored representation on demand, a
+ * row at a time, so an image is only widened to a full ARGB raster by the operations that need
+ * one. Compact images are always opaque.
+ */
+public abstract class AbstractRasterImage implements RasterImage {
+  protected final int width;
+  protected final int height;
+
+  /**
+   * Constructs an image of the specified dimensions.
+   *
+   * @param width  width of the image
+   * @param height height of the image
+   * @throws IllegalArgumentException when the dimensions are not positive values
+   */
+  protected AbstractRasterImage(int width, int height) throws IllegalArgumentException {
+    if (width < 1 || height < 1) {
+      throw new IllegalArgumentException("Dimensions must be positive values.");
+    }
+    this.width = width;
+    this.height = height;
+  }
+
+  /**
+   * Copies the packed ARGB values of a part of a row of the image into the destination array. The
+   * part is known to lie within the image.
+   *
+   * @param x           column of the first pixel
+   * @param y           row of the pixels
+   * @param length      number of pixels
+   * @param destination array receiving the packed ARGB values
+   * @param offset      index in the destination array of the first pixel
+   */
+  protected abstract void copyRow(int x, int y, int length, int[] destination, int offset);
+
+  @Override
+  public int getRGB(int x, int y) throws IndexOutOfBoundsException {
+    checkRegion(x, y, 1, 1);
+    int[] pixel = new int[1];
+    copyRow(x, y, 1, pixel, 0);
+    return pixel[0];
+  }
+
+  @Override
+  public void getRow(int y, int[] destination, int offset) throws IndexOutOfBoundsException {
+    checkRegion(0, y, width, 1);
+    copyRow(0, y, width, destination, offset);
+  }
+
+  @Override
+  public int[] getRGB(int x, int y, int width, int height, int[] destination, int offset,
+                      int scansize) throws IndexOutOfBoundsException {
+    checkRegion(x, y, width, height);
+    if (destination == null) {
+      destination = new int[offset + height * scansize];
+    }
+    for (int j = 0; j < height; j++) {
+      copyRow(x, y + j, width, destination, offset + j * scansize);
+    }
+    return destination;
+  }
+
+  @Override
+  public int[] getPixelArray() {
+    return getRGB(0, 0, width, height, null, 0, width);
+  }
+
+  @Override
+  public int getWidth() {
+    return width;
+  }
+
+  @Override
+  public int getHeight() {
+    return height;
+  }
+
+  @Override
+  public Pixel[][] getPixels() {
+    return RasterImageImpl.of(this).getPixels();
+  }
+
+  @Override
+  public Image transform(ImageTransformer transformer) {
+    return transformer.applyOn(this);
+  }
+
+  /**
+   * Verifies that the specified region lies within the image.
+   *
+   * @param x      column of the top left corner of the region
+   * @param y      row of the top left corner of the region
+   * @param width  width of the region
+   * @param height height of the region
+   * @throws IndexOutOfBoundsException when the region lies outside the image
+   */
+  protected void checkRegion(int x, int y, int width, int height) {
+    if (x < 0 || y < 0 || width < 0 || height < 0
+            || x + width > this.width || y + height > this.height) {
+      throw new IndexOutOfBoundsException("Region lies outside the bounds of the image.");
+    }
+  }
+}
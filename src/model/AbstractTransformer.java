@@ -22,6 +22,15 @@ public abstract class AbstractTransformer implements ImageTransformer {
     this.kernel = kernel;
   }
 
+  /**
+   * Returns the size of the kernel of the transformer, i.e. the number of rows of the kernel.
+   *
+   * @return size of the kernel
+   */
+  public int getKernelSize() {
+    return kernel.length;
+  }
+
   /**
    * Prints the kernel of the transformer.
    *
@@ -0,0 +1,91 @@
+package model;
+
+/**
+ * This class represents a black and white image that stores a single bit per pixel, set for white
+ * pixels. The bits are packed into 64 bit words, starting with the most significant bit, and every
+ * row starts with a new word, so rows can be written concurrently. The image needs 1/32 of the
+ * memory of the equivalent ARGB raster. Dithering produces such images.
+ *
+ * <p>Since the first pixel of a word is its most significant bit, the bytes of the words in
+ * big-endian order are the rows of a BufferedImage of type TYPE_BYTE_BINARY, so it is saved as a
+ * black and white image without being expanded.
+ */
+public class BinaryImage extends AbstractRasterImage {
+  private static final int BLACK = 0xff000000;
+  private static final int WHITE = 0xffffffff;
+
+  private final int wordsPerRow;
+  private final long[] words;
+
+  /**
+   * Construct an image of the specified dimensions in which all pixels are black.
+   *
+   * @param width  width of the image
+   * @param height height of the image
+   * @throws IllegalArgumentException when the dimensions are not positive values
+   */
+  public BinaryImage(int width, int height) throws IllegalArgumentException {
+    super(width, height);
+    this.wordsPerRow = wordsPerRow(width);
+    this.words = new long[wordsPerRow * height];
+  }
+
+  /**
+   * Returns the number of words that hold a row of an image of the specified width.
+   *
+   * @param width width of the image
+   * @return number of words per row
+   */
+  public static int wordsPerRow(int width) {
+    return (width + 63) >>> 6;
+  }
+
+  /**
+   * Returns the words backing this image. The array is shared with the image and not copied. The
+   * pixel at column x and row y is the bit 63 - (x % 64) of the word at index y * wordsPerRow +
+   * x / 64, and the unused bits at the end of a row are clear.
+   *
+   * @return words holding the pixels
+   */
+  public long[] getWords() {
+    return words;
+  }
+
+  /**
+   * Returns true if the pixel at the specified position is white.
+   *
+   * @param x column of the pixel
+   * @param y row of the pixel
+   * @return true if the pixel is white, false if it is black
+   * @throws IndexOutOfBoundsException when the position lies outside the image
+   */
+  public boolean isWhite(int x, int y) throws IndexOutOfBoundsException {
+    checkRegion(x, y, 1, 1);
+    return (words[y * wordsPerRow + (x >>> 6)] << x) < 0;
+  }
+
+  /**
+   * Sets the pixel at the specified position to white. Pixels of different rows can be set
+   * concurrently, pixels of the same row cannot.
+   *
+   * @param x column of the pixel
+   * @param y row of the pixel
+   */
+  void setWhite(int x, int y) {
+    words[y * wordsPerRow + (x >>> 6)] |= Long.MIN_VALUE >>> x;
+  }
+
+  @Override
+  public long getRetainedBytes() {
+    return 8L * words.length;
+  }
+
+  @Override
+  protected void copyRow(int x, int y, int length, int[] destination, int offset) {
+    int rowStart = y * wordsPerRow;
+    for (int i = 0; i < length; i++) {
+      int column = x + i;
+      destination[offset + i] = (words[rowStart + (column >>> 6)] << column) < 0 ? WHITE : BLACK;
+    }
+  }
+}
@@ -0,0 +1,182 @@
+package model;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * This class represents a transformer that blurs the image by replacing each pixel by the average
+ * of the pixels in a square box around it. The box is applied as a horizontal pass followed by a
+ * vertical pass, each of which keeps a running sum of the pixels inside a sliding window. The cost
+ * per pixel is therefore independent of the radius of the box. Pixels outside the image are
+ * replaced by the closest pixel of the image.
+ *
+ * <p>The transformer can apply several boxes one after the other. Repeated box blurs approximate a
+ * Gaussian blur, see {@link GaussianBlurTransformer}.
+ */
+public class BoxBlurTransformer implements ImageTransformer {
+
+  private static final int MIN_PIXELS_PER_TASK = 1 << 14;
+  private static final int MAX_RADIUS = 1 << 20;
+
+  private final int[] radii;
+
+  /**
+   * Construct the transformer that applies a single box of the specified radius. A box of radius r
+   * covers (2r + 1) x (2r + 1) pixels.
+   *
+   * @param radius radius of the box
+   * @throws IllegalArgumentException when the radius is negative or larger than 2^20
+   */
+  public BoxBlurTransformer(int radius) throws IllegalArgumentException {
+    this(new int[]{radius});
+  }
+
+  /**
+   * Construct the transformer that applies boxes of the specified radii one after the other.
+   *
+   * @param radii radii of the boxes in the order in which they are applied
+   * @throws IllegalArgumentException when any of the radii is negative or larger than 2^20
+   */
+  protected BoxBlurTransformer(int[] radii) throws IllegalArgumentException {
+    for (int radius : radii) {
+      if (radius < 0) {
+        throw new IllegalArgumentException("Radius cannot be negative.");
+      }
+      if (radius > MAX_RADIUS) {
+        throw new IllegalArgumentException("Radius cannot be larger than " + MAX_RADIUS + ".");
+      }
+    }
+    this.radii = radii.clone();
+  }
+
+  @Override
+  public Image applyOn(Image image) {
+    RasterImageImpl source = RasterImageImpl.of(image);
+    int width = source.getWidth();
+    int height = source.getHeight();
+    ForkJoinPool pool = Parallelism.getPool();
+    int rowGrain = Parallelism.grainSize(pool, height, width, MIN_PIXELS_PER_TASK);
+    int columnGrain = Parallelism.grainSize(pool, width, height, MIN_PIXELS_PER_TASK);
+
+    int[] current = source.getRaster();
+    int[] temporary = new int[current.length];
+    int[] result = new int[current.length];
+    boolean blurred = false;
+    for (int radius : radii) {
+      if (radius == 0) {
+        continue;
+      }
+      int[] input = current;
+      Parallelism.forEachRange(pool, 0, height, rowGrain, (startRow, endRow) ->
+              blurRows(input, temporary, width, radius, startRow, endRow));
+      Parallelism.forEachRange(pool, 0, width, columnGrain, (startColumn, endColumn) ->
+              blurColumns(temporary, result, width, height, radius, startColumn, endColumn));
+      current = result;
+      blurred = true;
+    }
+    if (!blurred) {
+      System.arraycopy(current, 0, result, 0, current.length);
+    }
+    return new RasterImageImpl(width, height, result);
+  }
+
+  /**
+   * Returns the radii of the boxes applied by this transformer.
+   *
+   * @return radii of the boxes in the order in which they are applied
+   */
+  public int[] getRadii() {
+    return radii.clone();
+  }
+
+  /**
+   * Private helper that applies the horizontal pass of a box to a band of rows.
+   *
+   * @param input    packed ARGB values of the input image
+   * @param output   packed ARGB values of the output image
+   * @param width    width of the image
+   * @param radius   radius of the box
+   * @param startRow first row of the band
+   * @param endRow   row after the last row of the band
+   */
+  private static void blurRows(int[] input, int[] output, int width, int radius, int startRow,
+                               int endRow) {
+    int size = 2 * radius + 1;
+    for (int j = startRow; j < endRow; j++) {
+      int rowStart = j * width;
+      int first = input[rowStart];
+      int sumRed = (radius + 1) * ((first >> 16) & 0xff);
+      int sumGreen = (radius + 1) * ((first >> 8) & 0xff);
+      int sumBlue = (radius + 1) * (first & 0xff);
+      for (int k = 1; k <= radius; k++) {
+        int rgb = input[rowStart + Math.min(k, width - 1)];
+        sumRed += (rgb >> 16) & 0xff;
+        sumGreen += (rgb >> 8) & 0xff;
+        sumBlue += rgb & 0xff;
+      }
+      for (int i = 0; i < width; i++) {
+        output[rowStart + i] = (input[rowStart + i] & 0xff000000)
+                | (((sumRed + radius) / size) << 16)
+                | (((sumGreen + radius) / size) << 8)
+                | ((sumBlue + radius) / size);
+        int entering = input[rowStart + Math.min(i + radius + 1, width - 1)];
+        int leaving = input[rowStart + Math.max(i - radius, 0)];
+        sumRed += ((entering >> 16) & 0xff) - ((leaving >> 16) & 0xff);
+        sumGreen += ((entering >> 8) & 0xff) - ((leaving >> 8) & 0xff);
+        sumBlue += (entering & 0xff) - (leaving & 0xff);
+      }
+    }
+  }
+
+  /**
+   * Private helper that applies the vertical pass of a box to a band of columns. The image is
+   * traversed row by row, keeping one running sum per column, so that the memory is accessed in
+   * the order in which it is laid out.
+   *
+   * @param input       packed ARGB values of the input image
+   * @param output      packed ARGB values of the output image
+   * @param width       width of the image
+   * @param height      height of the image
+   * @param radius      radius of the box
+   * @param startColumn first column of the band
+   * @param endColumn   column after the last column of the band
+   */
+  private static void blurColumns(int[] input, int[] output, int width, int height, int radius,
+                                  int startColumn, int endColumn) {
+    int size = 2 * radius + 1;
+    int columns = endColumn - startColumn;
+    int[] sumRed = new int[columns];
+    int[] sumGreen = new int[columns];
+    int[] sumBlue = new int[columns];
+    for (int c = 0; c < columns; c++) {
+      int first = input[startColumn + c];
+      sumRed[c] = (radius + 1) * ((first >> 16) & 0xff);
+      sumGreen[c] = (radius + 1) * ((first >> 8) & 0xff);
+      sumBlue[c] = (radius + 1) * (first & 0xff);
+    }
+    for (int k = 1; k <= radius; k++) {
+      int rowStart = Math.min(k, height - 1) * width + startColumn;
+      for (int c = 0; c < columns; c++) {
+        int rgb = input[rowStart + c];
+        sumRed[c] += (rgb >> 16) & 0xff;
+        sumGreen[c] += (rgb >> 8) & 0xff;
+        sumBlue[c] += rgb & 0xff;
+      }
+    }
+    for (int j = 0; j < height; j++) {
+      int rowStart = j * width + startColumn;
+      int enteringStart = Math.min(j + radius + 1, height - 1) * width + startColumn;
+      int leavingStart = Math.max(j - radius, 0) * width + startColumn;
+      for (int c = 0; c < columns; c++) {
+        output[rowStart + c] = (input[rowStart + c] & 0xff000000)
+                | (((sumRed[c] + radius) / size) << 16)
+                | (((sumGreen[c] + radius) / size) << 8)
+                | ((sumBlue[c] + radius) / size);
+        int entering = input[enteringStart + c];
+        int leaving = input[leavingStart + c];
+        sumRed[c] += ((entering >> 16) & 0xff) - ((leaving >> 16) & 0xff);
+        sumGreen[c] += ((entering >> 8) & 0xff) - ((leaving >> 8) & 0xff);
+        sumBlue[c] += (entering & 0xff) - (leaving & 0xff);
+      }
+    }
+  }
+}
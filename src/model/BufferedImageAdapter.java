@@ -0,0 +1,339 @@
+package model;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.IndexColorModel;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+
+/**
+ * This class consists of methods that convert between BufferedImage objects and images of the
+ * model. Whenever the layout of a BufferedImage matches the packed raster of a RasterImageImpl
+ * (one integer per pixel in row-major order), the pixel data is shared between both objects
+ * instead of being copied. Other common layouts are converted with a single pass over the pixel
+ * data.
+ */
+public class BufferedImageAdapter {
+
+  private static final int[] RGB_MASKS = {0xff0000, 0xff00, 0xff};
+
+  /**
+   * Returns an image holding the pixels of the passed BufferedImage in the most compact
+   * representation that fits its type. Images of type TYPE_BYTE_GRAY are returned as a
+   * {@link LuminanceImage}, sharing their samples when possible, and black and white images of type
+   * TYPE_BYTE_BINARY as a {@link BinaryImage}. The samples of a greyscale image are taken as they
+   * are stored in the file, whereas Java would interpret them as linear intensities and brighten
+   * them. Images of any other type are converted by {@link #toRasterImage(BufferedImage)}.
+   *
+   * @param image BufferedImage to be converted
+   * @return image consisting of the pixels of the BufferedImage
+   */
+  public static Image toImage(BufferedImage image) {
+    int width = image.getWidth();
+    int height = image.getHeight();
+    WritableRaster raster = image.getRaster();
+    if (image.getType() == BufferedImage.TYPE_BYTE_GRAY) {
+      DataBuffer buffer = raster.getDataBuffer();
+      if (raster.getSampleModel() instanceof ComponentSampleModel
+              && buffer instanceof DataBufferByte && buffer.getNumBanks() == 1
+              && buffer.getOffset() == 0 && raster.getParent() == null
+              && ((ComponentSampleModel) raster.getSampleModel()).getScanlineStride() == width
+              && buffer.getSize() == width * height) {
+        return new LuminanceImage(width, height, ((DataBufferByte) buffer).getData());
+      }
+      return new LuminanceImage(width, height, (byte[]) raster.getDataElements(0, 0, width,
+              height, null));
+    }
+    if (image.getType() == BufferedImage.TYPE_BYTE_BINARY
+            && raster.getSampleModel().getSampleSize(0) == 1
+            && image.getColorModel().getRGB(0) == 0xff000000
+            && image.getColorModel().getRGB(1) == 0xffffffff) {
+      BinaryImage binaryImage = new BinaryImage(width, height);
+      int[] row = new int[width];
+      for (int y = 0; y < height; y++) {
+        raster.getSamples(0, y, width, 1, 0, row);
+        for (int x = 0; x < width; x++) {
+          if (row[x] != 0) {
+            binaryImage.setWhite(x, y);
+          }
+        }
+      }
+      return binaryImage;
+    }
+    return toRasterImage(image);
+  }
+
+  /**
+   * Returns an image backed by the pixel data of the passed BufferedImage. Images of type
+   * TYPE_INT_ARGB and TYPE_INT_RGB are wrapped without copying their pixels, in which case the
+   * BufferedImage should not be used afterwards. Images of any other type are copied into a new
+   * raster.
+   *
+   * @param image BufferedImage to be converted
+   * @return image consisting of the pixels of the BufferedImage
+   */
+  public static RasterImageImpl toRasterImage(BufferedImage image) {
+    int width = image.getWidth();
+    int height = image.getHeight();
+    WritableRaster raster = image.getRaster();
+    int[] pixels;
+    switch (image.getType()) {
+      case BufferedImage.TYPE_INT_ARGB:
+        pixels = getPackedData(raster);
+        break;
+      case BufferedImage.TYPE_INT_RGB:
+        pixels = getPackedData(raster);
+        if (pixels != null) {
+          // the alpha bits of an RGB image are undefined, every pixel is opaque
+          for (int i = 0; i < pixels.length; i++) {
+            pixels[i] |= 0xff000000;
+          }
+        }
+        break;
+      case BufferedImage.TYPE_3BYTE_BGR:
+        pixels = convertInterleavedData(raster, false);
+        break;
+      case BufferedImage.TYPE_4BYTE_ABGR:
+        pixels = convertInterleavedData(raster, true);
+        break;
+      default:
+        pixels = null;
+        break;
+    }
+    if (pixels == null) {
+      pixels = image.getRGB(0, 0, width, height, null, 0, width);
+      if (!image.getColorModel().hasAlpha()) {
+        for (int i = 0; i < pixels.length; i++) {
+          pixels[i] |= 0xff000000;
+        }
+      }
+    }
+    return new RasterImageImpl(width, height, pixels);
+  }
+
+  /**
+   * Returns a BufferedImage of type TYPE_INT_RGB that shares the raster of the passed image. The
+   * transparency of the pixels is not part of the returned image, which can therefore be written
+   * in any format supported by ImageIO as well as rendered directly. Changes to either image are
+   * visible in the other one. Compact images keep their representation: an {@link IndexedImage}
+   * or a {@link LuminanceImage} is returned as a BufferedImage of type TYPE_BYTE_INDEXED (or
+   * TYPE_BYTE_BINARY for a palette of at most 16 colors) and a {@link BinaryImage} as a
+   * BufferedImage of type TYPE_BYTE_BINARY. A {@link RunLengthImage} of at most 256 colors is
+   * expanded to palette indices and returned like an IndexedImage.
+   *
+   * @param image image to be converted
+   * @return BufferedImage view of the image
+   */
+  public static BufferedImage toBufferedImage(Image image) {
+    if (image instanceof ExtendedImage) {
+      return ((ExtendedImage) image).getAsBufferedImage();
+    }
+    if (image instanceof IndexedImage) {
+      return toIndexedBufferedImage((IndexedImage) image);
+    }
+    if (image instanceof RunLengthImage) {
+      IndexedImage indexedImage = ((RunLengthImage) image).toIndexedImage();
+      if (indexedImage != null) {
+        return toIndexedBufferedImage(indexedImage);
+      }
+    }
+    if (image instanceof LuminanceImage) {
+      return toLuminanceBufferedImage((LuminanceImage) image);
+    }
+    if (image instanceof BinaryImage) {
+      return toBinaryBufferedImage((BinaryImage) image);
+    }
+    RasterImageImpl rasterImage = RasterImageImpl.of(image);
+    int[] pixels = rasterImage.getRaster();
+    DataBufferInt buffer = new DataBufferInt(pixels, pixels.length);
+    WritableRaster raster = Raster.createPackedRaster(buffer, rasterImage.getWidth(),
+            rasterImage.getHeight(), rasterImage.getWidth(), RGB_MASKS, null);
+    return new BufferedImage(new DirectColorModel(24, RGB_MASKS[0], RGB_MASKS[1],
+            RGB_MASKS[2]), raster, false, null);
+  }
+
+  /**
+   * Returns a RenderedImage of the passed image to be written by ImageIO. A {@link RunLengthImage}
+   * is returned as a view whose rows are only produced as the encoder requests them, so that large
+   * generated images are streamed to the file. Any other image is returned as by
+   * {@link #toBufferedImage(Image)}.
+   *
+   * @param image image to be converted
+   * @return RenderedImage view of the image
+   */
+  public static RenderedImage toRenderedImage(Image image) {
+    if (image instanceof RunLengthImage) {
+      return new StripRenderedImage((RunLengthImage) image, true);
+    }
+    return toBufferedImage(image);
+  }
+
+  /**
+   * Returns a RenderedImage holding the RGB values of the passed image, for formats that cannot
+   * store its compact representation. The rows of compact images are produced as the encoder
+   * requests them instead of widening the whole image.
+   *
+   * @param image image to be converted
+   * @return RenderedImage view of the colors of the image
+   */
+  public static RenderedImage toRgbRenderedImage(Image image) {
+    if (image instanceof AbstractRasterImage) {
+      return new StripRenderedImage((AbstractRasterImage) image, false);
+    }
+    return toBufferedImage(RasterImageImpl.of(image));
+  }
+
+  /**
+   * Returns a BufferedImage of type TYPE_BYTE_INDEXED that shares the indices of the passed image
+   * and uses its palette as color model. Images of at most 16 colors are instead copied into a
+   * BufferedImage of type TYPE_BYTE_BINARY of 1 or 4 bits per pixel, which is how encoders such as
+   * the BMP writer expect small palettes to be laid out.
+   *
+   * @param image image to be converted
+   * @return BufferedImage view of the image
+   */
+  public static BufferedImage toIndexedBufferedImage(IndexedImage image) {
+    int[] colors = image.getPalette().getColors();
+    int bits = bitsPerIndex(colors.length);
+    IndexColorModel colorModel = new IndexColorModel(bits, colors.length, colors, 0, false, -1,
+            DataBuffer.TYPE_BYTE);
+    byte[] indices = image.getIndices();
+    int width = image.getWidth();
+    int height = image.getHeight();
+    if (bits < 8) {
+      WritableRaster raster = colorModel.createCompatibleWritableRaster(width, height);
+      byte[] row = new byte[width];
+      for (int y = 0; y < height; y++) {
+        System.arraycopy(indices, y * width, row, 0, width);
+        raster.setDataElements(0, y, width, 1, row);
+      }
+      return new BufferedImage(colorModel, raster, false, null);
+    }
+    DataBufferByte buffer = new DataBufferByte(indices, indices.length);
+    WritableRaster raster = Raster.createInterleavedRaster(buffer, width, height, width, 1,
+            new int[]{0}, null);
+    return new BufferedImage(colorModel, raster, false, null);
+  }
+
+  /**
+   * Returns the number of bits per pixel in which the indices of a palette of the specified size
+   * are stored: 1, 4 or 8 bits, the depths shared by the formats supporting a palette.
+   *
+   * @param colors number of colors of the palette
+   * @return number of bits per index
+   */
+  static int bitsPerIndex(int colors) {
+    return colors <= 2 ? 1 : colors <= 16 ? 4 : 8;
+  }
+
+  /**
+   * Returns a BufferedImage of type TYPE_BYTE_INDEXED that shares the luminance values of the
+   * passed image and uses a palette of the 256 greys as color model. Unlike TYPE_BYTE_GRAY, whose
+   * values Java interprets as linear intensities, the palette keeps the greys as they are.
+   *
+   * @param image image to be converted
+   * @return BufferedImage view of the image
+   */
+  public static BufferedImage toLuminanceBufferedImage(LuminanceImage image) {
+    int[] greys = new int[256];
+    for (int v = 0; v < 256; v++) {
+      greys[v] = v * 0x010101;
+    }
+    IndexColorModel colorModel = new IndexColorModel(8, 256, greys, 0, false, -1,
+            DataBuffer.TYPE_BYTE);
+    byte[] luminance = image.getLuminance();
+    DataBufferByte buffer = new DataBufferByte(luminance, luminance.length);
+    WritableRaster raster = Raster.createInterleavedRaster(buffer, image.getWidth(),
+            image.getHeight(), image.getWidth(), 1, new int[]{0}, null);
+    return new BufferedImage(colorModel, raster, false, null);
+  }
+
+  /**
+   * Returns a BufferedImage of type TYPE_BYTE_BINARY holding the pixels of the passed image. The
+   * bits are copied from the words of the image into bytes, without widening the pixels.
+   *
+   * @param image image to be converted
+   * @return BufferedImage copy of the image
+   */
+  public static BufferedImage toBinaryBufferedImage(BinaryImage image) {
+    int width = image.getWidth();
+    int height = image.getHeight();
+    int bytesPerRow = (width + 7) >>> 3;
+    int wordsPerRow = BinaryImage.wordsPerRow(width);
+    long[] words = image.getWords();
+    byte[] data = new byte[bytesPerRow * height];
+    for (int y = 0; y < height; y++) {
+      for (int b = 0; b < bytesPerRow; b++) {
+        long word = words[y * wordsPerRow + (b >>> 3)];
+        data[y * bytesPerRow + b] = (byte) (word >>> (56 - 8 * (b & 7)));
+      }
+    }
+    IndexColorModel colorModel = new IndexColorModel(1, 2, new int[]{0x000000, 0xffffff}, 0,
+            false, -1, DataBuffer.TYPE_BYTE);
+    WritableRaster raster = Raster.createPackedRaster(new DataBufferByte(data, data.length),
+            width, height, 1, null);
+    return new BufferedImage(colorModel, raster, false, null);
+  }
+
+  /**
+   * Private helper that returns the array backing a packed integer raster if its layout matches
+   * the layout of a RasterImageImpl.
+   *
+   * @param raster raster of a BufferedImage with one integer per pixel
+   * @return the backing array of the raster, null when the layout does not match
+   */
+  private static int[] getPackedData(WritableRaster raster) {
+    DataBuffer buffer = raster.getDataBuffer();
+    if (!(raster.getSampleModel() instanceof SinglePixelPackedSampleModel)
+            || !(buffer instanceof DataBufferInt) || buffer.getNumBanks() != 1
+            || buffer.getOffset() != 0 || raster.getParent() != null
+            || ((SinglePixelPackedSampleModel) raster.getSampleModel()).getScanlineStride()
+            != raster.getWidth()
+            || buffer.getSize() != raster.getWidth() * raster.getHeight()) {
+      return null;
+    }
+    return ((DataBufferInt) buffer).getData();
+  }
+
+  /**
+   * Private helper that converts the pixel data of a raster with interleaved 8 bit blue, green,
+   * red (and optionally alpha) samples into packed ARGB values.
+   *
+   * @param raster   raster of a BufferedImage of type TYPE_3BYTE_BGR or TYPE_4BYTE_ABGR
+   * @param hasAlpha true if every pixel is preceded by an alpha sample, else false
+   * @return packed ARGB values of the pixels, null when the layout of the raster is unexpected
+   */
+  private static int[] convertInterleavedData(WritableRaster raster, boolean hasAlpha) {
+    DataBuffer buffer = raster.getDataBuffer();
+    int pixelStride = hasAlpha ? 4 : 3;
+    if (!(raster.getSampleModel() instanceof ComponentSampleModel)
+            || !(buffer instanceof DataBufferByte) || buffer.getNumBanks() != 1
+            || buffer.getOffset() != 0 || raster.getParent() != null) {
+      return null;
+    }
+    ComponentSampleModel sampleModel = (ComponentSampleModel) raster.getSampleModel();
+    int width = raster.getWidth();
+    int height = raster.getHeight();
+    if (sampleModel.getPixelStride() != pixelStride
+            || sampleModel.getScanlineStride() != width * pixelStride) {
+      return null;
+    }
+    byte[] data = ((DataBufferByte) buffer).getData();
+    int[] pixels = new int[width * height];
+    int index = 0;
+    for (int i = 0; i < pixels.length; i++) {
+      int alpha = hasAlpha ? data[index++] & 0xff : 0xff;
+      int blue = data[index++] & 0xff;
+      int green = data[index++] & 0xff;
+      int red = data[index++] & 0xff;
+      pixels[i] = (alpha << 24) | (red << 16) | (green << 8) | blue;
+    }
+    return pixels;
+  }
+}
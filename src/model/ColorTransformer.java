@@ -1,55 +1,440 @@
 package model;
 
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 /**
  * This class represents the different types of color transformers. These involve modification of
  * the color of a pixel based on its own color. Consider a pixel with color (r,g,b). A color
  * transformation results in the new color of this pixel to be (r’,g’,b’) such that each of them are
  * dependent only on the values (r,g,b).
+ *
+ * <p>Several color transformers can be chained into a single transformer that applies all of them
+ * in one pass over the image. A chain consists of stages, each of which is a matrix whose output
+ * is clamped to the range 0-255 before it is passed to the next stage.
+ *
+ * <p>Transformers whose output is grey (e.g. greyscale) produce a {@link LuminanceImage} of one
+ * byte per pixel when the image is opaque. Luminance images are transformed by looking up the
+ * transformed color of each of the 256 possible intensities. Run-length images (e.g. generated
+ * images) are transformed by transforming the colors of their palette only.
  */
 public class ColorTransformer extends AbstractTransformer {
+
+  private static final int MIN_PIXELS_PER_TASK = 1 << 16;
+
+  private final float[][][] stages;
+  private final float[][] products;
+  private final int[][] contributions;
+  private final boolean greyOutput;
+
   /**
-   * Constructs the filter with the specified kernel.
+   * Constructs the filter with the specified kernel. The contribution of every possible value of
+   * every input channel to every output channel is computed once, so that applying the filter only
+   * needs table lookups and additions per pixel.
+   *
+   * <p>Each output channel is the sum of the contributions of the red, green and blue channels,
+   * added in this order and truncated to an integer after every addition. When truncating every
+   * contribution on its own gives the same sums for all colors (e.g. for the sepia and greyscale
+   * kernels), the contributions are stored as integers and added as such; otherwise (e.g. for some
+   * kernels mixing positive and negative weights) the sums are accumulated exactly as described.
    *
    * @param kernel kernel associated with the filter
-   * @throws IllegalArgumentException when filter is attempted to be created with a kernel of even
-   *                                  dimensions
+   * @throws IllegalArgumentException when filter is attempted to be created with a kernel that is
+   *                                  not a 3x3 matrix
    */
   public ColorTransformer(float[][] kernel) throws IllegalArgumentException {
-    super(kernel);
+    this(new float[][][]{checkKernel(kernel)});
+  }
+
+  /**
+   * Private constructor that creates a transformer applying the specified stages in order. The
+   * kernel of the transformer is the product of the matrices of all stages.
+   *
+   * @param stages matrices of the stages in the order in which they are applied
+   */
+  private ColorTransformer(float[][][] stages) {
+    super(multiply(stages));
+    this.stages = stages;
+    this.products = new float[stages.length][];
+    this.contributions = new int[stages.length][];
+    for (int i = 0; i < stages.length; i++) {
+      products[i] = computeProducts(stages[i]);
+      if (isTruncatedPerTerm(products[i])) {
+        contributions[i] = truncate(products[i]);
+      }
+    }
+    float[][] last = stages[stages.length - 1];
+    this.greyOutput = Arrays.equals(last[0], last[1]) && Arrays.equals(last[0], last[2]);
+  }
+
+  /**
+   * Returns a transformer that applies this transformer followed by the passed transformer in a
+   * single pass. The result is identical to applying both transformers one after the other.
+   *
+   * @param next transformer to be applied after this transformer
+   * @return the chained transformer
+   */
+  public ColorTransformer andThen(ColorTransformer next) {
+    float[][][] chain = new float[stages.length + next.stages.length][][];
+    System.arraycopy(stages, 0, chain, 0, stages.length);
+    System.arraycopy(next.stages, 0, chain, stages.length, next.stages.length);
+    return new ColorTransformer(chain);
+  }
+
+  /**
+   * Returns a transformer that applies this transformer followed by the passed transformer in a
+   * single pass, multiplying their matrices wherever this does not change where colors are
+   * clamped. The first stage of the passed transformer is merged into the last stage of this
+   * transformer unless the output of that stage can leave the range 0-255, in which case the
+   * stages are chained as in {@link #andThen(ColorTransformer)}. Since the intermediate colors are
+   * no longer truncated to integers, merged stages can differ from applying the transformers one
+   * after the other by rounding.
+   *
+   * @param next transformer to be applied after this transformer
+   * @return the fused transformer
+   */
+  public ColorTransformer fuse(ColorTransformer next) {
+    int last = stages.length - 1;
+    if (canClamp(products[last])) {
+      return andThen(next);
+    }
+    float[][][] chain = new float[stages.length + next.stages.length - 1][][];
+    System.arraycopy(stages, 0, chain, 0, last);
+    chain[last] = multiply(next.stages[0], stages[last]);
+    System.arraycopy(next.stages, 1, chain, stages.length, next.stages.length - 1);
+    return new ColorTransformer(chain);
+  }
+
+  /**
+   * Returns the number of stages that are applied to every pixel.
+   *
+   * @return number of stages of the transformer
+   */
+  public int getStageCount() {
+    return stages.length;
   }
 
   @Override
   public Image applyOn(Image image) {
-    Pixel[][] pixels = image.getPixels();
-    int inputWidth = image.getWidth();
-    int inputHeight = image.getHeight();
-
-    PixelImpl[][] filteredImage = new PixelImpl[inputWidth][inputHeight];
-    for (int i = 0; i < inputWidth; i++) {
-      for (int j = 0; j < inputHeight; j++) {
-        Pixel currentPixel = pixels[i][j];
-        int[][] rgbArray = new int[3][1];
-        rgbArray[0][0] = currentPixel.getColor().getRed();
-        rgbArray[1][0] = currentPixel.getColor().getGreen();
-        rgbArray[2][0] = currentPixel.getColor().getBlue();
-        int[][] newRgbArray = new int[3][1];
-        for (int k = 0; k < kernel.length; k++) {
-          for (int l = 0; l < rgbArray[0].length; l++) {
-            int sum = 0;
-            for (int m = 0; m < rgbArray.length; m++) {
-              sum += kernel[k][m] * rgbArray[m][l];
+    ForkJoinPool pool = Parallelism.getPool();
+    if (image instanceof LuminanceImage) {
+      return applyOnLuminance((LuminanceImage) image, pool);
+    }
+    if (image instanceof RunLengthImage) {
+      RunLengthImage runLengthImage = (RunLengthImage) image;
+      int[] palette = runLengthImage.getPalette();
+      for (int i = 0; i < palette.length; i++) {
+        palette[i] = transformRGB(palette[i]);
+      }
+      return runLengthImage.withPalette(palette);
+    }
+    RasterImageImpl source = RasterImageImpl.of(image);
+    int[] pixels = source.getRaster();
+    int grain = Parallelism.grainSize(pool, pixels.length, stages.length, MIN_PIXELS_PER_TASK);
+
+    if (greyOutput) {
+      byte[] luminance = new byte[pixels.length];
+      AtomicBoolean translucent = new AtomicBoolean();
+      Parallelism.forEachRange(pool, 0, pixels.length, grain, (start, end) -> {
+        int alpha = 0xff;
+        for (int i = start; i < end; i++) {
+          int argb = pixels[i];
+          alpha &= argb >>> 24;
+          luminance[i] = (byte) transformRGB(argb);
+        }
+        if (alpha != 0xff) {
+          translucent.set(true);
+        }
+      });
+      if (!translucent.get()) {
+        return new LuminanceImage(source.getWidth(), source.getHeight(), luminance);
+      }
+      // the transparency would be lost, so the image is transformed again keeping it
+    }
+
+    int[] filteredImage = new int[pixels.length];
+    Parallelism.forEachRange(pool, 0, pixels.length, grain, (start, end) -> {
+      for (int i = start; i < end; i++) {
+        filteredImage[i] = transformRGB(pixels[i]);
+      }
+    });
+    return new RasterImageImpl(source.getWidth(), source.getHeight(), filteredImage);
+  }
+
+  /**
+   * Returns true if the transformer turns every color into a grey, i.e. all rows of the matrix of
+   * its last stage are equal. Such transformers return a {@link LuminanceImage} for opaque images.
+   *
+   * @return true if the output of the transformer is grey, else false
+   */
+  public boolean isGreyOutput() {
+    return greyOutput;
+  }
+
+  /**
+   * Private helper that transforms a luminance image. Its pixels can only take 256 different
+   * colors, so every color is transformed once and the pixels are looked up.
+   *
+   * @param source image to be transformed
+   * @param pool   pool on which the pixels are transformed
+   * @return the transformed image
+   */
+  private Image applyOnLuminance(LuminanceImage source, ForkJoinPool pool) {
+    byte[] luminance = source.getLuminance();
+    int[] colors = new int[256];
+    for (int v = 0; v < 256; v++) {
+      colors[v] = transformRGB(0xff000000 | v * 0x010101);
+    }
+    int grain = Parallelism.grainSize(pool, luminance.length, 1, MIN_PIXELS_PER_TASK);
+    if (greyOutput) {
+      byte[] filteredImage = new byte[luminance.length];
+      Parallelism.forEachRange(pool, 0, luminance.length, grain, (start, end) -> {
+        for (int i = start; i < end; i++) {
+          filteredImage[i] = (byte) colors[luminance[i] & 0xff];
+        }
+      });
+      return new LuminanceImage(source.getWidth(), source.getHeight(), filteredImage);
+    }
+    int[] filteredImage = new int[luminance.length];
+    Parallelism.forEachRange(pool, 0, luminance.length, grain, (start, end) -> {
+      for (int i = start; i < end; i++) {
+        filteredImage[i] = colors[luminance[i] & 0xff];
+      }
+    });
+    return new RasterImageImpl(source.getWidth(), source.getHeight(), filteredImage);
+  }
+
+  /**
+   * Transforms the color of a single pixel by applying all stages of the transformer. The
+   * transparency of the pixel is kept.
+   *
+   * @param argb packed ARGB value of the pixel
+   * @return packed ARGB value of the transformed pixel
+   */
+  int transformRGB(int argb) {
+    for (int i = 0; i < contributions.length; i++) {
+      argb = contributions[i] != null ? transformPixel(contributions[i], argb)
+              : transformPixel(products[i], argb);
+    }
+    return argb;
+  }
+
+  /**
+   * Private helper that transforms the color of a single pixel using the contribution tables of a
+   * stage. The transparency of the pixel is kept.
+   *
+   * @param table contribution tables of the stage
+   * @param argb  packed ARGB value of the pixel
+   * @return packed ARGB value of the transformed pixel
+   */
+  private static int transformPixel(int[] table, int argb) {
+    int red = (argb >> 16) & 0xff;
+    int green = 0x100 + ((argb >> 8) & 0xff);
+    int blue = 0x200 + (argb & 0xff);
+    int newRed = table[red] + table[green] + table[blue];
+    int newGreen = table[0x300 + red] + table[0x300 + green] + table[0x300 + blue];
+    int newBlue = table[0x600 + red] + table[0x600 + green] + table[0x600 + blue];
+    return (argb & 0xff000000)
+            | (Math.max((Math.min(newRed, 255)), 0) << 16)
+            | (Math.max((Math.min(newGreen, 255)), 0) << 8)
+            | Math.max((Math.min(newBlue, 255)), 0);
+  }
+
+  /**
+   * Private helper that transforms the color of a single pixel using the products of a stage,
+   * truncating every output channel to an integer after each addition. The transparency of the
+   * pixel is kept.
+   *
+   * @param table products of the stage
+   * @param argb  packed ARGB value of the pixel
+   * @return packed ARGB value of the transformed pixel
+   */
+  private static int transformPixel(float[] table, int argb) {
+    int red = (argb >> 16) & 0xff;
+    int green = 0x100 + ((argb >> 8) & 0xff);
+    int blue = 0x200 + (argb & 0xff);
+    int newRed = (int) table[red];
+    newRed += table[green];
+    newRed += table[blue];
+    int newGreen = (int) table[0x300 + red];
+    newGreen += table[0x300 + green];
+    newGreen += table[0x300 + blue];
+    int newBlue = (int) table[0x600 + red];
+    newBlue += table[0x600 + green];
+    newBlue += table[0x600 + blue];
+    return (argb & 0xff000000)
+            | (Math.max((Math.min(newRed, 255)), 0) << 16)
+            | (Math.max((Math.min(newGreen, 255)), 0) << 8)
+            | Math.max((Math.min(newBlue, 255)), 0);
+  }
+
+  /**
+   * Private helper that computes the products of a kernel with every value of every channel. The
+   * product of value v of input channel m with the weight of output channel k is stored at index
+   * (3 * k + m) * 256 + v.
+   *
+   * @param kernel kernel of the transformer
+   * @return the products
+   */
+  private static float[] computeProducts(float[][] kernel) {
+    float[] table = new float[9 * 256];
+    for (int k = 0; k < 3; k++) {
+      for (int m = 0; m < 3; m++) {
+        for (int v = 0; v < 256; v++) {
+          table[(3 * k + m) * 256 + v] = kernel[k][m] * v;
+        }
+      }
+    }
+    return table;
+  }
+
+  /**
+   * Private helper that truncates every product of a stage to an integer.
+   *
+   * @param table products of the stage
+   * @return the contribution tables
+   */
+  private static int[] truncate(float[] table) {
+    int[] truncated = new int[table.length];
+    for (int i = 0; i < table.length; i++) {
+      truncated[i] = (int) table[i];
+    }
+    return truncated;
+  }
+
+  /**
+   * Private helper that determines whether adding the products of a stage truncated one by one
+   * gives the same output for every color as adding them and truncating after every addition.
+   * Only the distinct partial sums are followed, so the check does not visit every color.
+   *
+   * @param table products of the stage
+   * @return true if the products can be truncated on their own, else false
+   */
+  private static boolean isTruncatedPerTerm(float[] table) {
+    for (int k = 0; k < 3; k++) {
+      int[] sums = {0};
+      for (int m = 0; m < 3; m++) {
+        int offset = (3 * k + m) * 256;
+        for (int sum : sums) {
+          for (int v = 0; v < 256; v++) {
+            if ((int) (sum + table[offset + v]) != sum + (int) table[offset + v]) {
+              return false;
             }
-            newRgbArray[k][l] = sum;
           }
         }
-        filteredImage[i][j] = new PixelImpl(Color.getBuilder()
-                .red(Math.max((Math.min(newRgbArray[0][0], 255)), 0))
-                .green(Math.max((Math.min(newRgbArray[1][0], 255)), 0))
-                .blue(Math.max((Math.min(newRgbArray[2][0], 255)), 0))
-                .transparency(currentPixel.getColor().getAlpha())
-                .build(), i, j);
+        sums = nextSums(sums, table, offset);
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Private helper that determines whether any output channel of a stage can leave the range
+   * 0-255 for some input color, in which case the stage clamps its output.
+   *
+   * @param table products of the stage
+   * @return true if the output of the stage can be clamped, else false
+   */
+  private static boolean canClamp(float[] table) {
+    for (int k = 0; k < 3; k++) {
+      int[] sums = {0};
+      for (int m = 0; m < 3; m++) {
+        sums = nextSums(sums, table, (3 * k + m) * 256);
+      }
+      if (sums[0] < 0 || sums[sums.length - 1] > 255) {
+        return true;
       }
     }
-    return new ImageImpl(filteredImage);
+    return false;
+  }
+
+  /**
+   * Private helper that returns the distinct values of a partial sum of an output channel after
+   * the products of one more input channel are added to it and the result is truncated.
+   *
+   * @param sums   distinct values of the partial sum
+   * @param table  products of the stage
+   * @param offset index of the products of the input channel
+   * @return distinct values of the new partial sum, in increasing order
+   */
+  private static int[] nextSums(int[] sums, float[] table, int offset) {
+    int[] next = new int[sums.length * 256];
+    int count = 0;
+    int min = Integer.MAX_VALUE;
+    int max = Integer.MIN_VALUE;
+    for (int sum : sums) {
+      for (int v = 0; v < 256; v++) {
+        int value = (int) (sum + table[offset + v]);
+        next[count++] = value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+      }
+    }
+    if ((long) max - min >= next.length) {
+      return Arrays.stream(next).sorted().distinct().toArray();
+    }
+    boolean[] seen = new boolean[max - min + 1];
+    for (int value : next) {
+      seen[value - min] = true;
+    }
+    count = 0;
+    for (int i = 0; i < seen.length; i++) {
+      if (seen[i]) {
+        next[count++] = min + i;
+      }
+    }
+    return Arrays.copyOf(next, count);
+  }
+
+  /**
+   * Private helper that returns the product of the matrices of a chain of stages, which is the
+   * matrix describing the whole chain when no clamping takes place.
+   *
+   * @param stages matrices of the stages in the order in which they are applied
+   * @return product of the matrices
+   */
+  private static float[][] multiply(float[][][] stages) {
+    float[][] product = stages[0];
+    for (int i = 1; i < stages.length; i++) {
+      product = multiply(stages[i], product);
+    }
+    return product;
+  }
+
+  /**
+   * Private helper that multiplies two 3x3 matrices.
+   *
+   * @param left  matrix on the left side of the product
+   * @param right matrix on the right side of the product
+   * @return the product of both matrices
+   */
+  private static float[][] multiply(float[][] left, float[][] right) {
+    float[][] product = new float[3][3];
+    for (int i = 0; i < 3; i++) {
+      for (int j = 0; j < 3; j++) {
+        double sum = 0;
+        for (int k = 0; k < 3; k++) {
+          sum += (double) left[i][k] * right[k][j];
+        }
+        product[i][j] = (float) sum;
+      }
+    }
+    return product;
+  }
+
+  /**
+   * Private helper that verifies that a kernel is a 3x3 matrix.
+   *
+   * @param kernel kernel to be verified
+   * @return the kernel
+   * @throws IllegalArgumentException when the kernel is not a 3x3 matrix
+   */
+  private static float[][] checkKernel(float[][] kernel) throws IllegalArgumentException {
+    if (kernel.length != 3 || kernel[0].length != 3 || kernel[1].length != 3
+            || kernel[2].length != 3) {
+      throw new IllegalArgumentException("Color transformers require a 3x3 kernel.");
+    }
+    return kernel;
   }
-}
\ No newline at end of file
+}
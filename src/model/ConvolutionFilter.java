@@ -1,58 +1,418 @@
 package model;
 
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * This class represents the convolution filters. These filters are applied by replacing each pixel
  * intensity by a weighted average of its neighbouring pixels. The weights that are applied to the
  * neighbouring pixel intensities are contained in a matrix called the convolution matrix.
+ *
+ * <p>The filter is applied in parallel: the image is split into bands of rows which are convolved
+ * by the tasks of a ForkJoinPool. Within a band, pixels whose whole neighbourhood lies inside the
+ * image are computed without any bounds checks, only the pixels along the edges of the image clamp
+ * the coordinates of their neighbours.
+ *
+ * <p>When the kernel is separable, i.e. it is the outer product of a horizontal and a vertical
+ * vector (as the blur kernel is), the filter is applied as a horizontal pass followed by a
+ * vertical pass. This costs 2K instead of K*K multiplications per pixel for a KxK kernel. Kernels
+ * that are not separable, like the sharpen kernel, are convolved directly.
  */
 public class ConvolutionFilter extends AbstractTransformer {
 
+  private static final int MIN_PIXELS_PER_TASK = 1 << 14;
+  private static final int SEPARABLE_CHUNK_ROWS = 32;
+  private static final double SEPARABLE_TOLERANCE = 1e-5;
+
+  private final ForkJoinPool pool;
+  private final double[] horizontalKernel;
+  private final double[] verticalKernel;
+
   /**
-   * Constructs the convolution filter with the specified kernel.
+   * Constructs the convolution filter with the specified kernel. The filter runs on the pool
+   * configured in {@link Parallelism} at the time it is applied.
    *
    * @param kernel 2D matrix representing the kernel of this filter
    * @throws IllegalArgumentException when filter is attempted to be created with a kernel of even
    *                                  dimensions
    */
   public ConvolutionFilter(float[][] kernel) throws IllegalArgumentException {
+    this(kernel, null);
+  }
+
+  /**
+   * Constructs the convolution filter with the specified kernel that runs on the specified pool.
+   *
+   * @param kernel 2D matrix representing the kernel of this filter
+   * @param pool   pool on which the filter is applied, null to use the pool configured in {@link
+   *               Parallelism}
+   * @throws IllegalArgumentException when filter is attempted to be created with a kernel of even
+   *                                  dimensions
+   */
+  public ConvolutionFilter(float[][] kernel, ForkJoinPool pool) throws IllegalArgumentException {
     super(kernel);
+    this.pool = pool;
+    double[][] factors = factorizeKernel(kernel);
+    this.horizontalKernel = factors == null ? null : factors[0];
+    this.verticalKernel = factors == null ? null : factors[1];
+  }
+
+  /**
+   * Returns whether the kernel of this filter is separable, in which case the filter is applied as
+   * two one dimensional passes.
+   *
+   * @return true if the kernel is separable, else false
+   */
+  public boolean isSeparable() {
+    return horizontalKernel != null;
   }
 
   @Override
-  public ImageImpl applyOn(Image image) {
-    Pixel[][] pixels = image.getPixels();
-    int inputWidth = image.getWidth();
-    int inputHeight = image.getHeight();
+  public RasterImageImpl applyOn(Image image) {
+    RasterImageImpl source = RasterImageImpl.of(image);
+    int[] pixels = source.getRaster();
+    int inputWidth = source.getWidth();
+    int inputHeight = source.getHeight();
+    int[] outputImage = new int[inputWidth * inputHeight];
+
+    ForkJoinPool executor = pool == null ? Parallelism.getPool() : pool;
+    int grain = Parallelism.grainSize(executor, inputHeight, inputWidth, MIN_PIXELS_PER_TASK);
+    Parallelism.forEachRange(executor, 0, inputHeight, grain, (startRow, endRow) ->
+            convolve(pixels, 0, outputImage, 0, inputWidth, inputHeight, startRow, endRow));
+    return new RasterImageImpl(inputWidth, inputHeight, outputImage);
+  }
+
+  /**
+   * Returns the number of columns on either side of a pixel that are covered by the kernel.
+   *
+   * @return horizontal radius of the kernel
+   */
+  int getHorizontalRadius() {
+    return kernel.length >>> 1;
+  }
+
+  /**
+   * Returns the number of rows above and below a pixel that are covered by the kernel.
+   *
+   * @return vertical radius of the kernel
+   */
+  int getVerticalRadius() {
+    return kernel[0].length >>> 1;
+  }
+
+  /**
+   * Returns the number of multiplications per channel that are needed to convolve a pixel.
+   *
+   * @return cost of convolving a pixel
+   */
+  int getCostPerPixel() {
+    return isSeparable() ? kernel.length + kernel[0].length : kernel.length * kernel[0].length;
+  }
+
+  /**
+   * Returns whether the result of the convolution can leave the range 0-255 for some image, in
+   * which case it is clamped.
+   *
+   * @return true if the output of the filter can be clamped, else false
+   */
+  boolean canClamp() {
+    double positive = 0;
+    double negative = 0;
+    for (float[] column : kernel) {
+      for (float weight : column) {
+        if (weight > 0) {
+          positive += weight;
+        } else {
+          negative += weight;
+        }
+      }
+    }
+    return positive * 255 >= 256 || negative * 255 <= -1;
+  }
+
+  /**
+   * Convolves a band of rows of an image. The rows of the input and the output may be stored in
+   * arrays that only hold a part of the image: row j of the image is found at row j - firstRow of
+   * such an array. The input array has to hold all rows covered by the kernel for the rows of the
+   * band (clamped to the image).
+   *
+   * @param pixels         packed ARGB values of the rows of the input image
+   * @param pixelsFirstRow row of the image stored at the start of the input array
+   * @param output         array receiving the packed ARGB values of the output rows
+   * @param outputFirstRow row of the image stored at the start of the output array
+   * @param inputWidth     width of the image
+   * @param inputHeight    height of the image
+   * @param startRow       first row of the band
+   * @param endRow         row after the last row of the band
+   */
+  void convolve(int[] pixels, int pixelsFirstRow, int[] output, int outputFirstRow,
+                int inputWidth, int inputHeight, int startRow, int endRow) {
+    if (isSeparable()) {
+      convolveRowsSeparable(pixels, pixelsFirstRow, output, outputFirstRow, inputWidth,
+              inputHeight, startRow, endRow);
+    } else {
+      convolveRows(pixels, pixelsFirstRow, output, outputFirstRow, inputWidth, inputHeight,
+              startRow, endRow);
+    }
+  }
+
+  /**
+   * Private helper that convolves a band of rows of the image.
+   *
+   * @param pixels         packed ARGB values of the rows of the input image
+   * @param pixelsFirstRow row of the image stored at the start of the input array
+   * @param output         array receiving the packed ARGB values of the output rows
+   * @param outputFirstRow row of the image stored at the start of the output array
+   * @param inputWidth     width of the image
+   * @param inputHeight    height of the image
+   * @param startRow       first row of the band
+   * @param endRow         row after the last row of the band
+   */
+  private void convolveRows(int[] pixels, int pixelsFirstRow, int[] output, int outputFirstRow,
+                            int inputWidth, int inputHeight, int startRow, int endRow) {
     int kernelWidth = kernel.length;
     int kernelHeight = kernel[0].length;
     int kernelWidthRadius = kernelWidth >>> 1;
     int kernelHeightRadius = kernelHeight >>> 1;
 
-    Pixel[][] outputImage = new PixelImpl[inputWidth][inputHeight];
-    for (int i = inputWidth - 1; i >= 0; i--) {
-      for (int j = inputHeight - 1; j >= 0; j--) {
+    // the weights and neighbour offsets of the kernel taps in the order in which they are summed
+    int taps = kernelWidth * kernelHeight;
+    float[] weights = new float[taps];
+    int[] offsets = new int[taps];
+    int tap = 0;
+    for (int k = kernelWidth - 1; k >= 0; k--) {
+      for (int l = kernelHeight - 1; l >= 0; l--) {
+        weights[tap] = kernel[k][l];
+        offsets[tap] = (l - kernelHeightRadius) * inputWidth + (k - kernelWidthRadius);
+        tap++;
+      }
+    }
+
+    int interiorStart = Math.min(kernelWidthRadius, inputWidth);
+    int interiorEnd = Math.max(interiorStart, inputWidth - kernelWidthRadius);
+    for (int j = startRow; j < endRow; j++) {
+      int rowStart = (j - pixelsFirstRow) * inputWidth;
+      int outputRowStart = (j - outputFirstRow) * inputWidth;
+      if (j < kernelHeightRadius || j >= inputHeight - kernelHeightRadius) {
+        convolveEdge(pixels, pixelsFirstRow, output, outputFirstRow, inputWidth, inputHeight, j,
+                0, inputWidth);
+        continue;
+      }
+      convolveEdge(pixels, pixelsFirstRow, output, outputFirstRow, inputWidth, inputHeight, j, 0,
+              interiorStart);
+      for (int i = interiorStart; i < interiorEnd; i++) {
+        int index = rowStart + i;
         double newRed = 0.0;
         double newGreen = 0.0;
         double newBlue = 0.0;
-        for (int k = kernelWidth - 1; k >= 0; k--) {
-          for (int l = kernelHeight - 1; l >= 0; l--) {
-            newRed += performChannelComputation(k, l, pixels, i, j, kernelWidthRadius,
-                    kernelHeightRadius, inputWidth, inputHeight)[0][0];
-            newGreen += performChannelComputation(k, l, pixels, i, j, kernelWidthRadius,
-                    kernelHeightRadius, inputWidth, inputHeight)[1][0];
-            newBlue += performChannelComputation(k, l, pixels, i, j, kernelWidthRadius,
-                    kernelHeightRadius, inputWidth, inputHeight)[2][0];
+        for (int t = 0; t < taps; t++) {
+          int rgb = pixels[index + offsets[t]];
+          float weight = weights[t];
+          newRed += weight * ((rgb >> 16) & 0xff);
+          newGreen += weight * ((rgb >> 8) & 0xff);
+          newBlue += weight * (rgb & 0xff);
+        }
+        output[outputRowStart + i] = (pixels[index] & 0xff000000)
+                | (clampChannel(newRed) << 16)
+                | (clampChannel(newGreen) << 8)
+                | clampChannel(newBlue);
+      }
+      convolveEdge(pixels, pixelsFirstRow, output, outputFirstRow, inputWidth, inputHeight, j,
+              interiorEnd, inputWidth);
+    }
+  }
+
+  /**
+   * Private helper that convolves a segment of a row whose neighbourhood may extend beyond the
+   * image boundaries. Neighbours outside the image are replaced by the closest pixel of the image.
+   *
+   * @param pixels         packed ARGB values of the rows of the input image
+   * @param pixelsFirstRow row of the image stored at the start of the input array
+   * @param output         array receiving the packed ARGB values of the output rows
+   * @param outputFirstRow row of the image stored at the start of the output array
+   * @param inputWidth     width of the image
+   * @param inputHeight    height of the image
+   * @param row            row of the segment
+   * @param startColumn    first column of the segment
+   * @param endColumn      column after the last column of the segment
+   */
+  private void convolveEdge(int[] pixels, int pixelsFirstRow, int[] output, int outputFirstRow,
+                            int inputWidth, int inputHeight, int row, int startColumn,
+                            int endColumn) {
+    int kernelWidth = kernel.length;
+    int kernelHeight = kernel[0].length;
+    int kernelWidthRadius = kernelWidth >>> 1;
+    int kernelHeightRadius = kernelHeight >>> 1;
+    for (int i = startColumn; i < endColumn; i++) {
+      double newRed = 0.0;
+      double newGreen = 0.0;
+      double newBlue = 0.0;
+      for (int k = kernelWidth - 1; k >= 0; k--) {
+        int column = returnBorderingPixelIndex(i + k - kernelWidthRadius, inputWidth);
+        for (int l = kernelHeight - 1; l >= 0; l--) {
+          int rgb = pixels[(returnBorderingPixelIndex(row + l - kernelHeightRadius, inputHeight)
+                  - pixelsFirstRow) * inputWidth + column];
+          newRed += kernel[k][l] * ((rgb >> 16) & 0xff);
+          newGreen += kernel[k][l] * ((rgb >> 8) & 0xff);
+          newBlue += kernel[k][l] * (rgb & 0xff);
+        }
+      }
+      output[(row - outputFirstRow) * inputWidth + i] =
+              (pixels[(row - pixelsFirstRow) * inputWidth + i] & 0xff000000)
+              | (clampChannel(newRed) << 16)
+              | (clampChannel(newGreen) << 8)
+              | clampChannel(newBlue);
+    }
+  }
+
+  /**
+   * Private helper that convolves a band of rows of the image with a separable kernel. The band is
+   * processed in chunks of rows: every chunk (together with the rows above and below it that are
+   * covered by the kernel) is first convolved horizontally into a buffer, which is then convolved
+   * vertically into the output image.
+   *
+   * @param pixels         packed ARGB values of the rows of the input image
+   * @param pixelsFirstRow row of the image stored at the start of the input array
+   * @param output         array receiving the packed ARGB values of the output rows
+   * @param outputFirstRow row of the image stored at the start of the output array
+   * @param inputWidth     width of the image
+   * @param inputHeight    height of the image
+   * @param startRow       first row of the band
+   * @param endRow         row after the last row of the band
+   */
+  private void convolveRowsSeparable(int[] pixels, int pixelsFirstRow, int[] output,
+                                     int outputFirstRow, int inputWidth, int inputHeight,
+                                     int startRow, int endRow) {
+    int kernelHeightRadius = verticalKernel.length >>> 1;
+    int bufferRows = Math.min(inputHeight, SEPARABLE_CHUNK_ROWS + 2 * kernelHeightRadius);
+    double[] red = new double[bufferRows * inputWidth];
+    double[] green = new double[bufferRows * inputWidth];
+    double[] blue = new double[bufferRows * inputWidth];
+
+    for (int chunkStart = startRow; chunkStart < endRow; chunkStart += SEPARABLE_CHUNK_ROWS) {
+      int chunkEnd = Math.min(endRow, chunkStart + SEPARABLE_CHUNK_ROWS);
+      int firstRow = Math.max(0, chunkStart - kernelHeightRadius);
+      int lastRow = Math.min(inputHeight, chunkEnd + kernelHeightRadius);
+      for (int j = firstRow; j < lastRow; j++) {
+        convolveRowHorizontally(pixels, inputWidth, j - pixelsFirstRow, red, green, blue,
+                (j - firstRow) * inputWidth);
+      }
+      for (int j = chunkStart; j < chunkEnd; j++) {
+        int rowStart = (j - pixelsFirstRow) * inputWidth;
+        int outputRowStart = (j - outputFirstRow) * inputWidth;
+        for (int i = 0; i < inputWidth; i++) {
+          double newRed = 0.0;
+          double newGreen = 0.0;
+          double newBlue = 0.0;
+          for (int l = 0; l < verticalKernel.length; l++) {
+            int index = (returnBorderingPixelIndex(j + l - kernelHeightRadius, inputHeight)
+                    - firstRow) * inputWidth + i;
+            newRed += verticalKernel[l] * red[index];
+            newGreen += verticalKernel[l] * green[index];
+            newBlue += verticalKernel[l] * blue[index];
           }
+          output[outputRowStart + i] = (pixels[rowStart + i] & 0xff000000)
+                  | (clampChannel(newRed) << 16)
+                  | (clampChannel(newGreen) << 8)
+                  | clampChannel(newBlue);
         }
-        outputImage[i][j] = new PixelImpl(Color.getBuilder()
-                .red((int) Math.max((Math.min(newRed, 255)), 0))
-                .green((int) Math.max((Math.min(newGreen, 255)), 0))
-                .blue((int) Math.max((Math.min(newBlue, 255)), 0))
-                .transparency(pixels[i][j].getColor().getAlpha())
-                .build(), i, j);
       }
     }
-    return new ImageImpl(outputImage);
+  }
+
+  /**
+   * Private helper that convolves a single row of the image with the horizontal kernel and stores
+   * the unclamped channel values in the passed buffers.
+   *
+   * @param pixels     packed ARGB values of the rows of the input image
+   * @param inputWidth width of the image
+   * @param row        row of the input array to be convolved
+   * @param red        buffer for the red channel
+   * @param green      buffer for the green channel
+   * @param blue       buffer for the blue channel
+   * @param offset     index in the buffers at which the row is stored
+   */
+  private void convolveRowHorizontally(int[] pixels, int inputWidth, int row, double[] red,
+                                       double[] green, double[] blue, int offset) {
+    int kernelWidthRadius = horizontalKernel.length >>> 1;
+    int rowStart = row * inputWidth;
+    int interiorStart = Math.min(kernelWidthRadius, inputWidth);
+    int interiorEnd = Math.max(interiorStart, inputWidth - kernelWidthRadius);
+    for (int i = 0; i < inputWidth; i++) {
+      double newRed = 0.0;
+      double newGreen = 0.0;
+      double newBlue = 0.0;
+      boolean interior = i >= interiorStart && i < interiorEnd;
+      for (int k = 0; k < horizontalKernel.length; k++) {
+        int column = interior ? i + k - kernelWidthRadius
+                : returnBorderingPixelIndex(i + k - kernelWidthRadius, inputWidth);
+        int rgb = pixels[rowStart + column];
+        newRed += horizontalKernel[k] * ((rgb >> 16) & 0xff);
+        newGreen += horizontalKernel[k] * ((rgb >> 8) & 0xff);
+        newBlue += horizontalKernel[k] * (rgb & 0xff);
+      }
+      red[offset + i] = newRed;
+      green[offset + i] = newGreen;
+      blue[offset + i] = newBlue;
+    }
+  }
+
+  /**
+   * Private helper that factorizes a kernel into a horizontal and a vertical vector whose outer
+   * product is the kernel. The kernel is separable if it has rank one, which is verified by
+   * comparing every element of the kernel with the outer product of the row and column through its
+   * largest element.
+   *
+   * @param kernel kernel to be factorized
+   * @return the horizontal and the vertical vector, null when the kernel is not separable
+   */
+  private static double[][] factorizeKernel(float[][] kernel) {
+    int kernelWidth = kernel.length;
+    int kernelHeight = kernel[0].length;
+    int pivotColumn = 0;
+    int pivotRow = 0;
+    double maximum = 0;
+    for (int k = 0; k < kernelWidth; k++) {
+      if (kernel[k].length != kernelHeight) {
+        return null;
+      }
+      for (int l = 0; l < kernelHeight; l++) {
+        if (Math.abs(kernel[k][l]) > maximum) {
+          maximum = Math.abs(kernel[k][l]);
+          pivotColumn = k;
+          pivotRow = l;
+        }
+      }
+    }
+    if (maximum == 0 || kernelWidth * kernelHeight == 1) {
+      return null;
+    }
+    double[] horizontal = new double[kernelWidth];
+    double[] vertical = new double[kernelHeight];
+    for (int k = 0; k < kernelWidth; k++) {
+      horizontal[k] = kernel[k][pivotRow];
+    }
+    for (int l = 0; l < kernelHeight; l++) {
+      vertical[l] = (double) kernel[pivotColumn][l] / kernel[pivotColumn][pivotRow];
+    }
+    for (int k = 0; k < kernelWidth; k++) {
+      for (int l = 0; l < kernelHeight; l++) {
+        if (Math.abs(kernel[k][l] - horizontal[k] * vertical[l])
+                > SEPARABLE_TOLERANCE * maximum) {
+          return null;
+        }
+      }
+    }
+    return new double[][]{horizontal, vertical};
+  }
+
+  /**
+   * Private helper that clamps the computed value of a channel to the range 0-255.
+   *
+   * @param value computed value of the channel
+   * @return channel value within the range 0-255
+   */
+  private int clampChannel(double value) {
+    return (int) Math.max((Math.min(value, 255)), 0);
   }
 
   /**
@@ -72,37 +432,4 @@ public class ConvolutionFilter extends AbstractTransformer {
     }
     return endIndex - 1;
   }
-
-  /**
-   * Private Helper that returns an rgb array for the appropriate pixel index taking into account
-   * the neighboring pixels in the image.
-   *
-   * @param k                  iterator variable corresponding to the kernel width
-   * @param l                  iterator variable corresponding to the kernel height
-   * @param pixels             2-D Pixel array containing the pixel information
-   * @param i                  iterator variable corresponding to the image width
-   * @param j                  iterator variable corresponding to the image height
-   * @param kernelWidthRadius  the values of the neighboring kernel values corresponding to its
-   *                           width
-   * @param kernelHeightRadius the values of the neighboring kernel values corresponding to its
-   *                           height
-   * @param inputWidth         width of the image
-   * @param inputHeight        height of the image
-   * @return double 2-D array containing rgb values for that specific pixel
-   */
-  private double[][] performChannelComputation(int k, int l, Pixel[][] pixels, int i, int j,
-                                               int kernelWidthRadius, int kernelHeightRadius,
-                                               int inputWidth, int inputHeight) {
-    double[][] rgbArray = new double[3][1];
-    rgbArray[0][0] = kernel[k][l] * pixels[returnBorderingPixelIndex(i + k - kernelWidthRadius,
-            inputWidth)][returnBorderingPixelIndex(j + l - kernelHeightRadius,
-            inputHeight)].getColor().getRed();
-    rgbArray[1][0] = kernel[k][l] * pixels[returnBorderingPixelIndex(i + k - kernelWidthRadius,
-            inputWidth)][returnBorderingPixelIndex(j + l - kernelHeightRadius,
-            inputHeight)].getColor().getGreen();
-    rgbArray[2][0] = kernel[k][l] * pixels[returnBorderingPixelIndex(i + k - kernelWidthRadius,
-            inputWidth)][returnBorderingPixelIndex(j + l - kernelHeightRadius,
-            inputHeight)].getColor().getBlue();
-    return rgbArray;
-  }
-}
\ No newline at end of file
+}
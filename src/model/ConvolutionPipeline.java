@@ -0,0 +1,267 @@
+package model;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * This class represents a transformer that applies a sequence of convolution filters, one after
+ * the other, without creating the intermediate images. Two strategies are supported.
+ *
+ * <p>By default the filters are streamed: the image is processed in bands of rows, and every band
+ * is passed through all filters before the next band is started. Each filter only computes the rows
+ * of its intermediate result that are needed by the next filter for the band, so the intermediate
+ * results never exceed a few dozen rows and stay in the cache. The output is identical to applying
+ * the filters one after the other.
+ *
+ * <p>When composition is allowed, the kernels of the filters are convolved into a single larger
+ * kernel, provided that no filter except the last one can clamp its output (otherwise the clamping
+ * in between would be lost) and that the composed kernel is cheaper to apply than the individual
+ * kernels. The rows and columns along the edges of the image, where the edge pixels are repeated
+ * before every filter and not only once, are recomputed by streaming. The output differs from
+ * applying the filters one after the other only because the intermediate results are not rounded.
+ */
+public class ConvolutionPipeline implements ImageTransformer {
+
+  private static final int MIN_PIXELS_PER_TASK = 1 << 14;
+  private static final int CHUNK_ROWS = 64;
+
+  /**
+   * The strategies that a pipeline uses to apply its filters.
+   */
+  public enum Strategy {
+    STREAMED, COMPOSED
+  }
+
+  private final ConvolutionFilter[] filters;
+  private final ConvolutionFilter composedFilter;
+  private final int horizontalRadius;
+  private final int verticalRadius;
+
+  /**
+   * Constructs the pipeline that applies the specified filters in order.
+   *
+   * @param filters filters to be applied, in the order in which they are applied
+   * @param compose true if the kernels may be composed into a single kernel, false if the result
+   *                has to be identical to applying the filters one after the other
+   * @throws IllegalArgumentException when no filters are passed
+   */
+  public ConvolutionPipeline(List<ConvolutionFilter> filters, boolean compose)
+          throws IllegalArgumentException {
+    if (filters == null || filters.isEmpty()) {
+      throw new IllegalArgumentException("A pipeline needs at least one filter.");
+    }
+    this.filters = filters.toArray(new ConvolutionFilter[0]);
+    int horizontal = 0;
+    int vertical = 0;
+    for (ConvolutionFilter filter : this.filters) {
+      horizontal += filter.getHorizontalRadius();
+      vertical += filter.getVerticalRadius();
+    }
+    this.horizontalRadius = horizontal;
+    this.verticalRadius = vertical;
+    this.composedFilter = compose ? composeFilters(this.filters) : null;
+  }
+
+  /**
+   * Returns the strategy that the pipeline uses to apply its filters.
+   *
+   * @return strategy of the pipeline
+   */
+  public Strategy getStrategy() {
+    return composedFilter == null ? Strategy.STREAMED : Strategy.COMPOSED;
+  }
+
+  @Override
+  public RasterImageImpl applyOn(Image image) {
+    RasterImageImpl source = RasterImageImpl.of(image);
+    if (composedFilter == null) {
+      return stream(source);
+    }
+    RasterImageImpl result = composedFilter.applyOn(source);
+    repairEdges(source, result);
+    return result;
+  }
+
+  /**
+   * Describes the strategy of the pipeline.
+   *
+   * @return description of the pipeline
+   */
+  @Override
+  public String toString() {
+    if (composedFilter == null) {
+      return "streamed in one pass through " + filters.length + " filters";
+    }
+    return "composed into one " + (2 * horizontalRadius + 1) + "x" + (2 * verticalRadius + 1)
+            + " kernel";
+  }
+
+  /**
+   * Private helper that applies all filters to the image by streaming bands of rows through them.
+   *
+   * @param source image to be filtered
+   * @return the filtered image
+   */
+  private RasterImageImpl stream(RasterImageImpl source) {
+    int[] pixels = source.getRaster();
+    int width = source.getWidth();
+    int height = source.getHeight();
+    int[] output = new int[width * height];
+
+    ForkJoinPool pool = Parallelism.getPool();
+    int grain = Parallelism.grainSize(pool, height, width * filters.length, MIN_PIXELS_PER_TASK);
+    Parallelism.forEachRange(pool, 0, height, grain, (startRow, endRow) ->
+            streamRows(pixels, output, width, height, startRow, endRow));
+    return new RasterImageImpl(width, height, output);
+  }
+
+  /**
+   * Private helper that streams a band of rows through all filters. The band is processed in
+   * chunks of rows. For every chunk the rows of each intermediate result that are covered by the
+   * kernel of the following filter are computed into a buffer, from which the following filter
+   * computes its rows.
+   *
+   * @param pixels   packed ARGB values of the input image
+   * @param output   packed ARGB values of the output image
+   * @param width    width of the image
+   * @param height   height of the image
+   * @param startRow first row of the band
+   * @param endRow   row after the last row of the band
+   */
+  private void streamRows(int[] pixels, int[] output, int width, int height, int startRow,
+                          int endRow) {
+    int stages = filters.length;
+    int[] firstRows = new int[stages];
+    int[] lastRows = new int[stages];
+    int[][] buffers = new int[stages - 1][];
+    int bufferRows = Math.min(height, CHUNK_ROWS + 2 * verticalRadius);
+    for (int i = 0; i < stages - 1; i++) {
+      buffers[i] = new int[bufferRows * width];
+    }
+
+    for (int chunkStart = startRow; chunkStart < endRow; chunkStart += CHUNK_ROWS) {
+      firstRows[stages - 1] = chunkStart;
+      lastRows[stages - 1] = Math.min(endRow, chunkStart + CHUNK_ROWS);
+      for (int i = stages - 2; i >= 0; i--) {
+        int radius = filters[i + 1].getVerticalRadius();
+        firstRows[i] = Math.max(0, firstRows[i + 1] - radius);
+        lastRows[i] = Math.min(height, lastRows[i + 1] + radius);
+      }
+      for (int i = 0; i < stages; i++) {
+        int[] input = i == 0 ? pixels : buffers[i - 1];
+        int inputFirstRow = i == 0 ? 0 : firstRows[i - 1];
+        int[] target = i == stages - 1 ? output : buffers[i];
+        int targetFirstRow = i == stages - 1 ? 0 : firstRows[i];
+        filters[i].convolve(input, inputFirstRow, target, targetFirstRow, width, height,
+                firstRows[i], lastRows[i]);
+      }
+    }
+  }
+
+  /**
+   * Private helper that recomputes the pixels along the edges of an image filtered with the
+   * composed kernel by streaming. The pixels within the radius of the composed kernel from an edge
+   * only depend on the strip of twice that width along the edge, so only these strips are
+   * streamed.
+   *
+   * @param source image that was filtered
+   * @param result image filtered with the composed kernel, which is updated
+   */
+  private void repairEdges(RasterImageImpl source, RasterImageImpl result) {
+    int width = source.getWidth();
+    int height = source.getHeight();
+    int rows = Math.min(height, 2 * verticalRadius);
+    int columns = Math.min(width, 2 * horizontalRadius);
+    int edgeRows = Math.min(height, verticalRadius);
+    int edgeColumns = Math.min(width, horizontalRadius);
+    if (edgeRows > 0) {
+      repairStrip(source, result, 0, 0, width, rows, 0, 0, width, edgeRows);
+      repairStrip(source, result, 0, height - rows, width, rows, 0, rows - edgeRows, width,
+              edgeRows);
+    }
+    if (edgeColumns > 0) {
+      repairStrip(source, result, 0, 0, columns, height, 0, 0, edgeColumns, height);
+      repairStrip(source, result, width - columns, 0, columns, height, columns - edgeColumns, 0,
+              edgeColumns, height);
+    }
+  }
+
+  /**
+   * Private helper that streams a strip of the source image through the filters and copies a
+   * region of the streamed strip into the result.
+   *
+   * @param source       image that was filtered
+   * @param result       filtered image that is updated
+   * @param x            column of the strip in the image
+   * @param y            row of the strip in the image
+   * @param width        width of the strip
+   * @param height       height of the strip
+   * @param regionX      column of the region to be copied within the strip
+   * @param regionY      row of the region to be copied within the strip
+   * @param regionWidth  width of the region
+   * @param regionHeight height of the region
+   */
+  private void repairStrip(RasterImageImpl source, RasterImageImpl result, int x, int y,
+                           int width, int height, int regionX, int regionY, int regionWidth,
+                           int regionHeight) {
+    int[] strip = source.getRGB(x, y, width, height, null, 0, width);
+    int[] streamed = stream(new RasterImageImpl(width, height, strip)).getRaster();
+    result.setRGB(x + regionX, y + regionY, regionWidth, regionHeight, streamed,
+            regionY * width + regionX, width);
+  }
+
+  /**
+   * Private helper that composes the kernels of the filters into a single filter, if this
+   * preserves the result and reduces the cost of applying them.
+   *
+   * @param filters filters to be composed
+   * @return the composed filter, null when the filters should be streamed
+   */
+  private static ConvolutionFilter composeFilters(ConvolutionFilter[] filters) {
+    if (filters.length == 1) {
+      return null;
+    }
+    int cost = 0;
+    for (int i = 0; i < filters.length; i++) {
+      if (i < filters.length - 1 && filters[i].canClamp()) {
+        return null;
+      }
+      cost += filters[i].getCostPerPixel();
+    }
+    float[][] kernel = filters[0].kernel;
+    for (int i = 1; i < filters.length; i++) {
+      kernel = composeKernels(kernel, filters[i].kernel);
+    }
+    ConvolutionFilter composed = new ConvolutionFilter(kernel);
+    return composed.getCostPerPixel() < cost ? composed : null;
+  }
+
+  /**
+   * Private helper that returns the kernel that has the same effect as applying the first kernel
+   * followed by the second kernel (ignoring clamping and the edges of the image).
+   *
+   * @param first  kernel applied first
+   * @param second kernel applied second
+   * @return the composed kernel
+   */
+  private static float[][] composeKernels(float[][] first, float[][] second) {
+    double[][] sum = new double[first.length + second.length - 1]
+            [first[0].length + second[0].length - 1];
+    for (int k = 0; k < first.length; k++) {
+      for (int l = 0; l < first[0].length; l++) {
+        for (int m = 0; m < second.length; m++) {
+          for (int n = 0; n < second[0].length; n++) {
+            sum[k + m][l + n] += (double) first[k][l] * second[m][n];
+          }
+        }
+      }
+    }
+    float[][] kernel = new float[sum.length][sum[0].length];
+    for (int k = 0; k < sum.length; k++) {
+      for (int l = 0; l < sum[0].length; l++) {
+        kernel[k][l] = (float) sum[k][l];
+      }
+    }
+    return kernel;
+  }
+}
@@ -6,7 +6,10 @@ package model;
 public enum Country {
   GREECE("greece"),
   SWITZERLAND("switzerland"),
-  FRANCE("france");
+  FRANCE("france"),
+  ITALY("italy"),
+  GERMANY("germany"),
+  SWEDEN("sweden");
 
   private String country;
 
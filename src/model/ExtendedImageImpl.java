@@ -21,15 +21,7 @@ public class ExtendedImageImpl implements ExtendedImage {
 
   @Override
   public BufferedImage getAsBufferedImage() {
-    int[] pixelArray = image.getPixelArray();
-    BufferedImage buffImage = new BufferedImage(image.getWidth(), image.getHeight(),
-            BufferedImage.TYPE_3BYTE_BGR);
-    for (int i = 0; i < image.getWidth(); i++) {
-      for (int j = 0; j < image.getHeight(); j++) {
-        buffImage.setRGB(i, j, pixelArray[j * image.getWidth() + i]);
-      }
-    }
-    return buffImage;
+    return BufferedImageAdapter.toBufferedImage(image);
   }
 
   @Override
@@ -56,4 +48,9 @@ public class ExtendedImageImpl implements ExtendedImage {
   public Image transform(ImageTransformer transformer) {
     return image.transform(transformer);
   }
+
+  @Override
+  public long getRetainedBytes() {
+    return image.getRetainedBytes();
+  }
 }
\ No newline at end of file
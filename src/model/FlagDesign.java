@@ -0,0 +1,220 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * This class describes a flag independently of its resolution, as a list of shapes (rectangles,
+ * stripes and crosses) laid out on a grid of cells that follows the official proportions of the
+ * flag. The shapes are painted in the order in which they are added, later shapes covering earlier
+ * ones.
+ *
+ * <p>A flag is rendered at a requested height by scaling every cell to a square of whole pixels,
+ * the height being rounded to the nearest multiple of the height of the grid. Every edge of a
+ * shape then falls on a pixel boundary, so the rows of the flag fall into bands of identical rows
+ * between the horizontal edges. A single row is painted per band, by filling the spans of the
+ * shapes that cross it, and the bands are painted in parallel. The cost of rendering a flag is
+ * therefore proportional to its spans and not to its pixels.
+ */
+final class FlagDesign {
+  private static final int MIN_PIXELS_PER_TASK = 1 << 16;
+
+  private final int gridWidth;
+  private final int gridHeight;
+  private final List<Shape> shapes = new ArrayList<>();
+  private final TreeSet<Integer> edges = new TreeSet<>();
+
+  /**
+   * Constructs the design of a flag on a grid of the specified dimensions, without any shape.
+   *
+   * @param gridWidth  number of cells along the width of the flag
+   * @param gridHeight number of cells along the height of the flag
+   * @throws IllegalArgumentException when the dimensions are not positive values
+   */
+  FlagDesign(int gridWidth, int gridHeight) throws IllegalArgumentException {
+    if (gridWidth < 1 || gridHeight < 1) {
+      throw new IllegalArgumentException("Dimensions must be positive values.");
+    }
+    this.gridWidth = gridWidth;
+    this.gridHeight = gridHeight;
+    edges.add(0);
+    edges.add(gridHeight);
+  }
+
+  /**
+   * Adds a rectangle of a single color. The coordinates are given in cells.
+   *
+   * @param left   first column of the rectangle
+   * @param top    first row of the rectangle
+   * @param right  column after the last column of the rectangle
+   * @param bottom row after the last row of the rectangle
+   * @param color  packed ARGB value of the color of the rectangle
+   * @return this design
+   * @throws IllegalArgumentException when the rectangle lies outside the grid
+   */
+  FlagDesign rectangle(int left, int top, int right, int bottom, int color)
+          throws IllegalArgumentException {
+    checkArea(left, top, right, bottom);
+    edges.add(top);
+    edges.add(bottom);
+    shapes.add((row, unit, pixels) -> {
+      if (row >= top && row < bottom) {
+        Arrays.fill(pixels, left * unit, right * unit, color);
+      }
+    });
+    return this;
+  }
+
+  /**
+   * Adds stripes of equal height covering the whole flag. The colors are used in turn, starting
+   * again with the first color when there are more stripes than colors.
+   *
+   * @param count  number of stripes
+   * @param colors packed ARGB values of the colors of the stripes
+   * @return this design
+   * @throws IllegalArgumentException when the stripes do not divide the height of the grid
+   */
+  FlagDesign horizontalStripes(int count, int... colors) throws IllegalArgumentException {
+    int stripe = stripeSize(gridHeight, count, colors);
+    for (int i = 1; i < count; i++) {
+      edges.add(i * stripe);
+    }
+    shapes.add((row, unit, pixels) -> Arrays.fill(pixels, colors[(row / stripe) % colors.length]));
+    return this;
+  }
+
+  /**
+   * Adds stripes of equal width covering the whole flag. The colors are used in turn, starting
+   * again with the first color when there are more stripes than colors.
+   *
+   * @param count  number of stripes
+   * @param colors packed ARGB values of the colors of the stripes
+   * @return this design
+   * @throws IllegalArgumentException when the stripes do not divide the width of the grid
+   */
+  FlagDesign verticalStripes(int count, int... colors) throws IllegalArgumentException {
+    int stripe = stripeSize(gridWidth, count, colors);
+    shapes.add((row, unit, pixels) -> {
+      for (int i = 0; i < count; i++) {
+        Arrays.fill(pixels, i * stripe * unit, (i + 1) * stripe * unit, colors[i % colors.length]);
+      }
+    });
+    return this;
+  }
+
+  /**
+   * Adds a cross of a single color, made of a horizontal bar and a vertical bar that span the
+   * specified area. The coordinates are given in cells.
+   *
+   * @param left      first column of the horizontal bar
+   * @param top       first row of the vertical bar
+   * @param right     column after the last column of the horizontal bar
+   * @param bottom    row after the last row of the vertical bar
+   * @param barLeft   first column of the vertical bar
+   * @param barTop    first row of the horizontal bar
+   * @param barRight  column after the last column of the vertical bar
+   * @param barBottom row after the last row of the horizontal bar
+   * @param color     packed ARGB value of the color of the cross
+   * @return this design
+   * @throws IllegalArgumentException when the bars lie outside the grid
+   */
+  FlagDesign cross(int left, int top, int right, int bottom, int barLeft, int barTop,
+                   int barRight, int barBottom, int color) throws IllegalArgumentException {
+    rectangle(left, barTop, right, barBottom, color);
+    return rectangle(barLeft, top, barRight, bottom, color);
+  }
+
+  /**
+   * Renders the flag at the height closest to the requested height at which every cell is a
+   * square of whole pixels. The width follows from the proportions of the grid.
+   *
+   * @param height requested height of the flag
+   * @return image of the flag
+   * @throws IllegalArgumentException when the height is not a positive value
+   */
+  RunLengthImage render(int height) throws IllegalArgumentException {
+    if (height < 1) {
+      throw new IllegalArgumentException("Dimensions must be positive values.");
+    }
+    int unit = height / gridHeight;
+    if (2 * (height % gridHeight) > gridHeight) {
+      unit++;
+    }
+    int pixelUnit = Math.max(1, unit);
+    int width = gridWidth * pixelUnit;
+
+    int[] bandStarts = edges.stream().mapToInt(Integer::intValue).toArray();
+    int[][] rows = new int[bandStarts.length - 1][];
+    ForkJoinPool pool = Parallelism.getPool();
+    Parallelism.forEachRange(pool, 0, rows.length,
+            Parallelism.grainSize(pool, rows.length, width, MIN_PIXELS_PER_TASK), (start, end) -> {
+              for (int band = start; band < end; band++) {
+                rows[band] = new int[width];
+                for (Shape shape : shapes) {
+                  shape.paint(bandStarts[band], pixelUnit, rows[band]);
+                }
+              }
+            });
+
+    RunLengthImage.Builder builder = new RunLengthImage.Builder(width, gridHeight * pixelUnit);
+    for (int band = 0; band < rows.length; band++) {
+      builder.addRows((bandStarts[band + 1] - bandStarts[band]) * pixelUnit, rows[band]);
+    }
+    return builder.build();
+  }
+
+  /**
+   * Private helper that verifies that an area lies within the grid.
+   *
+   * @param left   first column of the area
+   * @param top    first row of the area
+   * @param right  column after the last column of the area
+   * @param bottom row after the last row of the area
+   * @throws IllegalArgumentException when the area lies outside the grid
+   */
+  private void checkArea(int left, int top, int right, int bottom)
+          throws IllegalArgumentException {
+    if (left < 0 || top < 0 || right > gridWidth || bottom > gridHeight || left > right
+            || top > bottom) {
+      throw new IllegalArgumentException("Shape lies outside the flag.");
+    }
+  }
+
+  /**
+   * Private helper that returns the size of a stripe in cells.
+   *
+   * @param length length of the grid across the stripes
+   * @param count  number of stripes
+   * @param colors colors of the stripes
+   * @return number of cells across a stripe
+   * @throws IllegalArgumentException when the stripes do not divide the grid or no color is given
+   */
+  private static int stripeSize(int length, int count, int[] colors)
+          throws IllegalArgumentException {
+    if (count < 1 || length % count != 0) {
+      throw new IllegalArgumentException("Stripes must divide the flag evenly.");
+    }
+    if (colors == null || colors.length == 0) {
+      throw new IllegalArgumentException("Stripes need at least one color.");
+    }
+    return length / count;
+  }
+
+  /**
+   * This interface represents a shape of a flag. The rows of cells at which its spans change are
+   * recorded by the design when the shape is added.
+   */
+  private interface Shape {
+    /**
+     * Paints the spans of the shape that lie on the specified row of cells into a row of pixels.
+     *
+     * @param row    row of cells
+     * @param unit   number of pixels along the side of a cell
+     * @param pixels packed ARGB values of the row of pixels
+     */
+    void paint(int row, int unit, int[] pixels);
+  }
+}
@@ -0,0 +1,70 @@
+package model;
+
+/**
+ * This class represents a transformer that applies a Gaussian blur of arbitrary standard
+ * deviation. The Gaussian is approximated by three successive box blurs whose sizes are chosen so
+ * that the variance of the combined boxes matches the variance of the Gaussian. Since every box is
+ * computed with running sums, the cost per pixel does not depend on the standard deviation.
+ */
+public class GaussianBlurTransformer extends BoxBlurTransformer {
+
+  private static final int PASSES = 3;
+
+  private final double sigma;
+
+  /**
+   * Construct the transformer for a Gaussian with the specified standard deviation.
+   *
+   * @param sigma standard deviation of the Gaussian in pixels
+   * @throws IllegalArgumentException when the standard deviation is not a positive value
+   */
+  public GaussianBlurTransformer(double sigma) throws IllegalArgumentException {
+    super(computeBoxRadii(sigma, PASSES));
+    this.sigma = sigma;
+  }
+
+  /**
+   * Returns the standard deviation of the Gaussian applied by this transformer.
+   *
+   * @return standard deviation in pixels
+   */
+  public double getSigma() {
+    return sigma;
+  }
+
+  /**
+   * Private helper that computes the radii of the boxes that approximate a Gaussian. Boxes of two
+   * consecutive odd sizes are combined so that the sum of their variances is closest to the
+   * variance of the Gaussian.
+   *
+   * @param sigma  standard deviation of the Gaussian
+   * @param passes number of boxes
+   * @return radii of the boxes
+   * @throws IllegalArgumentException when the standard deviation is not a positive value
+   */
+  private static int[] computeBoxRadii(double sigma, int passes) {
+    if (!(sigma > 0) || Double.isInfinite(sigma)) {
+      throw new IllegalArgumentException("Sigma must be a positive value.");
+    }
+    double idealSize = Math.sqrt(12 * sigma * sigma / passes + 1);
+    int lowerSize = (int) Math.floor(idealSize);
+    if (lowerSize % 2 == 0) {
+      lowerSize--;
+    }
+    int upperSize = lowerSize + 2;
+    double idealLowerCount = (12 * sigma * sigma - passes * lowerSize * lowerSize
+            - 4 * passes * lowerSize - 3 * passes) / (-4 * lowerSize - 4);
+    long lowerCount = Math.round(idealLowerCount);
+
+    int[] radii = new int[passes];
+    for (int i = 0; i < passes; i++) {
+      radii[i] = ((i < lowerCount ? lowerSize : upperSize) - 1) / 2;
+    }
+    return radii;
+  }
+
+  @Override
+  public String toString() {
+    return "gaussian blur " + sigma;
+  }
+}
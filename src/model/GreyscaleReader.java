@@ -0,0 +1,98 @@
+package model;
+
+/**
+ * This class reads the intensities of the pixels of an image converted to greyscale, as needed by
+ * the transformers that only depend on the intensity (e.g. dithering). Luminance and binary images
+ * are read in their compact representation through a table of the 256 possible intensities; any
+ * other image is read from its packed ARGB raster and converted pixel by pixel. Either way the
+ * intensities are the ones the greyscale transformer computes.
+ */
+class GreyscaleReader {
+  private final int width;
+  private final int height;
+  private final ColorTransformer greyscale;
+  private final int[] pixels;
+  private final byte[] luminance;
+  private final long[] words;
+  private final int[] table;
+
+  /**
+   * Constructs the reader of the specified image.
+   *
+   * @param image image to be read
+   */
+  GreyscaleReader(Image image) {
+    this.greyscale = ImageTransformerFactory.createGreyScaleFilter();
+    this.width = image.getWidth();
+    this.height = image.getHeight();
+    this.luminance = image instanceof LuminanceImage ? ((LuminanceImage) image).getLuminance()
+            : null;
+    this.words = image instanceof BinaryImage ? ((BinaryImage) image).getWords() : null;
+    if (luminance != null || words != null) {
+      this.pixels = null;
+      this.table = new int[256];
+      for (int v = 0; v < 256; v++) {
+        table[v] = intensityOf(0xff000000 | v * 0x010101);
+      }
+    } else {
+      this.pixels = RasterImageImpl.of(image).getRaster();
+      this.table = null;
+    }
+  }
+
+  /**
+   * Returns the width of the image.
+   *
+   * @return width of the image
+   */
+  int getWidth() {
+    return width;
+  }
+
+  /**
+   * Returns the height of the image.
+   *
+   * @return height of the image
+   */
+  int getHeight() {
+    return height;
+  }
+
+  /**
+   * Stores the intensities of a part of a row of the image.
+   *
+   * @param row         row to be read
+   * @param start       first column of the part
+   * @param end         column after the last column of the part
+   * @param intensities array receiving the intensities, indexed by column
+   */
+  void readRow(int row, int start, int end, int[] intensities) {
+    if (luminance != null) {
+      int rowStart = row * width;
+      for (int j = start; j < end; j++) {
+        intensities[j] = table[luminance[rowStart + j] & 0xff];
+      }
+    } else if (words != null) {
+      int rowStart = row * BinaryImage.wordsPerRow(width);
+      for (int j = start; j < end; j++) {
+        intensities[j] = table[(words[rowStart + (j >>> 6)] << j) < 0 ? 255 : 0];
+      }
+    } else {
+      int rowStart = row * width;
+      for (int j = start; j < end; j++) {
+        intensities[j] = intensityOf(pixels[rowStart + j]);
+      }
+    }
+  }
+
+  /**
+   * Private helper that returns the intensity of a pixel converted to greyscale.
+   *
+   * @param argb packed ARGB value of the pixel
+   * @return intensity of the pixel
+   */
+  private int intensityOf(int argb) {
+    // all channels of a greyscale pixel are equal, so a single channel carries the intensity
+    return greyscale.transformRGB(argb) & 0xff;
+  }
+}
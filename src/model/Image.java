@@ -45,4 +45,12 @@ public interface Image {
    * @return transformed image
    */
   Image transform(ImageTransformer transformer);
+
+  /**
+   * Returns an estimate of the memory retained by the image, i.e. the number of bytes taken by the
+   * arrays and objects holding its pixels. The headers of the arrays are not counted.
+   *
+   * @return estimated number of bytes retained by the image
+   */
+  long getRetainedBytes();
 }
\ No newline at end of file
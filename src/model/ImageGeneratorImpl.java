@@ -1,11 +1,65 @@
 package model;
 
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
 /**
  * This class is responsible for performing all operations required to generate various images
- * including checkerboard, rainbows and flags of certain countries.
+ * including checkerboard, rainbows and flags of certain countries. The images are generated as
+ * {@link RunLengthImage} objects: the rows of every image fall into a few bands of identical rows,
+ * so a single row is painted per band and stored as runs of colors. Generating an image therefore
+ * takes time and memory proportional to its width and the number of bands, not to its number of
+ * pixels. Flags are described by the shapes of a {@link FlagDesign}, so supporting the flag of a
+ * new country only takes its list of shapes.
  */
 public class ImageGeneratorImpl implements ImageGenerator {
 
+  private static final int WHITE = createColor(255, 255, 255);
+  private static final int BLACK = createColor(0, 0, 0);
+  private static final int[] RAINBOW = {
+          createColor(148, 0, 211),
+          createColor(75, 0, 130),
+          createColor(0, 0, 255),
+          createColor(0, 255, 0),
+          createColor(255, 255, 0),
+          createColor(255, 127, 0),
+          createColor(255, 0, 0)
+  };
+  private static final int GREEK_BLUE = createColor(13, 94, 175);
+  private static final int SWISS_RED = createColor(255, 0, 0);
+  private static final int FRENCH_BLUE = createColor(0, 85, 164);
+  private static final int FRENCH_RED = createColor(239, 65, 53);
+  private static final int ITALIAN_GREEN = createColor(0, 140, 69);
+  private static final int ITALIAN_WHITE = createColor(244, 245, 240);
+  private static final int ITALIAN_RED = createColor(205, 33, 42);
+  private static final int GERMAN_RED = createColor(221, 0, 0);
+  private static final int GERMAN_GOLD = createColor(255, 206, 0);
+  private static final int SWEDISH_BLUE = createColor(0, 106, 167);
+  private static final int SWEDISH_YELLOW = createColor(254, 204, 0);
+
+  private static final Map<Country, FlagDesign> FLAGS = new EnumMap<>(Country.class);
+
+  static {
+    FLAGS.put(Country.GREECE, new FlagDesign(27, 18)
+            .horizontalStripes(9, GREEK_BLUE, WHITE)
+            .rectangle(0, 0, 10, 10, GREEK_BLUE)
+            .cross(0, 0, 10, 10, 4, 4, 6, 6, WHITE));
+    FLAGS.put(Country.SWITZERLAND, new FlagDesign(32, 32)
+            .rectangle(0, 0, 32, 32, SWISS_RED)
+            .cross(6, 6, 26, 26, 13, 13, 19, 19, WHITE));
+    FLAGS.put(Country.FRANCE, new FlagDesign(3, 2)
+            .verticalStripes(3, FRENCH_BLUE, WHITE, FRENCH_RED));
+    FLAGS.put(Country.ITALY, new FlagDesign(3, 2)
+            .verticalStripes(3, ITALIAN_GREEN, ITALIAN_WHITE, ITALIAN_RED));
+    FLAGS.put(Country.GERMANY, new FlagDesign(5, 3)
+            .horizontalStripes(3, BLACK, GERMAN_RED, GERMAN_GOLD));
+    FLAGS.put(Country.SWEDEN, new FlagDesign(16, 10)
+            .rectangle(0, 0, 16, 10, SWEDISH_BLUE)
+            .cross(0, 0, 16, 10, 5, 4, 7, 6, SWEDISH_YELLOW));
+  }
+
   @Override
   public Image generateCheckerboard(int side) {
     if (side < 1) {
@@ -13,48 +67,12 @@ public class ImageGeneratorImpl implements ImageGenerator {
     }
     int checkerBoardWidth = 8 * side;
     int checkerBoardHeight = 8 * side;
-    int switcher;
-    int red;
-    int green;
-    int blue;
-    Pixel[][] checkerboard = new Pixel[checkerBoardWidth][checkerBoardHeight];
-    for (int i = 0; i < checkerBoardWidth; i++) {
-      if ((i / side) % 2 == 0) {
-        switcher = 0;
-      } else {
-        switcher = 1;
-      }
-      for (int j = 0; j < checkerBoardHeight; j++) {
-        if (switcher == 0) {
-          if (j % side == 0 && j != 0) {
-            switcher = 1;
-            red = 0;
-            green = 0;
-            blue = 0;
-          } else {
-            red = 255;
-            green = 255;
-            blue = 255;
-          }
-          Pixel pixel = new PixelImpl(createColorBuilder(red, green, blue), j, i);
-          checkerboard[i][j] = pixel;
-        } else {
-          if (j % side == 0 && j != 0) {
-            switcher = 0;
-            red = 255;
-            green = 255;
-            blue = 255;
-          } else {
-            red = 0;
-            green = 0;
-            blue = 0;
-          }
-          Pixel pixel = new PixelImpl(createColorBuilder(red, green, blue), j, i);
-          checkerboard[i][j] = pixel;
-        }
+    return paint(checkerBoardWidth, checkerBoardHeight, (j, row) -> {
+      for (int i = 0; i < checkerBoardWidth; i += side) {
+        int color = ((i / side) + (j / side)) % 2 == 0 ? WHITE : BLACK;
+        Arrays.fill(row, i, i + side, color);
       }
-    }
-    return new ImageImpl(checkerboard);
+    }, multiples(side, checkerBoardHeight));
   }
 
   @Override
@@ -62,77 +80,18 @@ public class ImageGeneratorImpl implements ImageGenerator {
     if (stripeDimension < 1 || imageDimension < 1) {
       throw new IllegalArgumentException("Dimensions must be positive values.");
     }
-    int red;
-    int green;
-    int blue;
-    int updatedWidth;
-    int updatedHeight;
-    int currentIndex;
-    Pixel[][] rainbow;
-
-    updatedWidth = 7 * stripeDimension;
-    updatedHeight = imageDimension;
-
-    if (!horizontal) {
-      rainbow = new Pixel[updatedWidth][updatedHeight];
-    } else {
-      rainbow = new Pixel[updatedHeight][updatedWidth];
-    }
-
-    for (int i = 0; i < updatedWidth; i++) {
-      currentIndex = (i / (stripeDimension));
-      for (int j = 0; j < updatedHeight; j++) {
-        switch (currentIndex) {
-          case 0:
-            red = 148;
-            green = 0;
-            blue = 211;
-            break;
-          case 1:
-            red = 75;
-            green = 0;
-            blue = 130;
-            break;
-          case 2:
-            red = 0;
-            green = 0;
-            blue = 255;
-            break;
-          case 3:
-            red = 0;
-            green = 255;
-            blue = 0;
-            break;
-          case 4:
-            red = 255;
-            green = 255;
-            blue = 0;
-            break;
-          case 5:
-            red = 255;
-            green = 127;
-            blue = 0;
-            break;
-          case 6:
-            red = 255;
-            green = 0;
-            blue = 0;
-            break;
-          default:
-            red = 255;
-            green = 255;
-            blue = 255;
-            break;
-        }
-        Pixel pixel = new PixelImpl(createColorBuilder(red, green, blue), j, i);
-        if (horizontal) {
-          rainbow[j][i] = pixel;
-        } else {
-          rainbow[i][j] = pixel;
+    int stripesDimension = 7 * stripeDimension;
+    int width = horizontal ? imageDimension : stripesDimension;
+    int height = horizontal ? stripesDimension : imageDimension;
+    return paint(width, height, (j, row) -> {
+      if (horizontal) {
+        Arrays.fill(row, RAINBOW[j / stripeDimension]);
+      } else {
+        for (int i = 0; i < RAINBOW.length; i++) {
+          Arrays.fill(row, i * stripeDimension, (i + 1) * stripeDimension, RAINBOW[i]);
         }
       }
-    }
-    return new ImageImpl(rainbow);
+    }, horizontal ? multiples(stripeDimension, height) : new int[0]);
   }
 
 
@@ -141,212 +100,71 @@ public class ImageGeneratorImpl implements ImageGenerator {
     if (height < 1) {
       throw new IllegalArgumentException("Dimensions must be positive values.");
     }
-    Image countryFlag;
-    switch (country) {
-      case FRANCE:
-        countryFlag = generateFrenchFlag(height);
-        break;
-      case SWITZERLAND:
-        countryFlag = generateSwissFlag(height);
-        break;
-      case GREECE:
-        countryFlag = generateGreekFlag(height);
-        break;
-      default:
-        throw new IllegalArgumentException("Generation of flag for the specified country is not"
-                + " yet supported.");
+    FlagDesign design = FLAGS.get(country);
+    if (design == null) {
+      throw new IllegalArgumentException("Generation of flag for the specified country is not"
+              + " yet supported.");
     }
-    return countryFlag;
+    return design.render(height);
   }
 
   /**
-   * Generates the flag of Greece.
+   * Private helper that generates an image whose rows only change at the specified breakpoints.
+   * The first row of every band between two consecutive breakpoints is painted and repeated for
+   * the whole band.
    *
-   * @param height height of the flag
-   * @return image of the Greek Flag
+   * @param width       width of the image
+   * @param height      height of the image
+   * @param painter     painter of the rows of the image
+   * @param breakpoints rows at which the content of the rows may change, in any order
+   * @return the generated image
    */
-  private Image generateGreekFlag(int height) {
-    int red;
-    int green;
-    int blue;
-    int prescribedHeight = 18;
-    if (height < prescribedHeight) {
-      height = prescribedHeight;
-    } else if (height % prescribedHeight > 9) {
-      height = height + (prescribedHeight - (height % prescribedHeight));
-    } else {
-      height = height - ((height % prescribedHeight));
-    }
-    int width = (int) (1.5 * height);
-    Pixel[][] greekFlag = new Pixel[width][height];
-    int leftSquareEndHeight = (height * 10) / 18;
-    int leftSquareEndWidth = (width * 10) / 27;
-    int leftCrossStart = (width * 4) / 27;
-    int leftCrossStop = (width * 6) / 27;
-    int currentIndex;
-    int lineSize = (height / 9);
-
-    //This is for the non-cross patterns
-    for (int i = 0; i < height; i++) {
-      currentIndex = (i / lineSize) % 2;
-      for (int j = 0; j < width; j++) {
-        if (currentIndex == 0) {
-          red = 13;
-          green = 94;
-          blue = 175;
-        } else {
-          red = 255;
-          green = 255;
-          blue = 255;
-        }
-        if (i < leftSquareEndWidth && j < leftSquareEndHeight) {
-          red = 13;
-          green = 94;
-          blue = 175;
-        }
-        Pixel pixel = new PixelImpl(createColorBuilder(red, green, blue), i, j);
-        greekFlag[j][i] = pixel;
-      }
+  private static Image paint(int width, int height, RowPainter painter, int... breakpoints) {
+    int[] bandStarts = IntStream.concat(IntStream.of(0, height), Arrays.stream(breakpoints))
+            .filter(row -> row >= 0 && row <= height).sorted().distinct().toArray();
+    RunLengthImage.Builder builder = new RunLengthImage.Builder(width, height);
+    int[] row = new int[width];
+    for (int band = 0; band + 1 < bandStarts.length; band++) {
+      painter.paintRow(bandStarts[band], row);
+      builder.addRows(bandStarts[band + 1] - bandStarts[band], row);
     }
-    //This is for the cross pattern
-    for (int i = 0; i < leftSquareEndWidth; i++) {
-      for (int j = 0; j < leftSquareEndHeight; j++) {
-        if (j >= leftCrossStart && j < leftCrossStop) {
-          red = 255;
-          green = 255;
-          blue = 255;
-        } else if (i >= leftCrossStart && i < leftCrossStop) {
-          red = 255;
-          green = 255;
-          blue = 255;
-        } else {
-          red = 13;
-          green = 94;
-          blue = 175;
-        }
-        Pixel pixel = new PixelImpl(createColorBuilder(red, green, blue), j, i);
-        greekFlag[i][j] = pixel;
-      }
-    }
-    return new ImageImpl(greekFlag);
+    return builder.build();
   }
 
   /**
-   * Generates the flag of Switzerland.
+   * Private helper that returns the positive multiples of a step that are smaller than a limit.
    *
-   * @param height height of the flag
-   * @return image of the Swiss Flag
+   * @param step  step between the multiples
+   * @param limit value above all multiples
+   * @return the multiples in increasing order
    */
-  private Image generateSwissFlag(int height) {
-    int red;
-    int green;
-    int blue;
-    int prescribedHeight = 32;
-    if (height < prescribedHeight) {
-      height = prescribedHeight;
-    } else if (height % prescribedHeight > 16) {
-      height = height + (prescribedHeight - (height % prescribedHeight));
-    } else {
-      height = height - ((height % prescribedHeight));
-    }
-    int width = height;
-    Pixel[][] swissFlag = new Pixel[width][height];
-    int leftCross = (width * 6) / 32;
-    int leftCrossStart = (width * 13) / 32;
-    int leftCrossStop = (width * 19) / 32;
-    int rightCross = width - leftCross;
-
-    //This is for the background
-    for (int i = 0; i < width; i++) {
-      for (int j = 0; j < height; j++) {
-        red = 255;
-        green = 0;
-        blue = 0;
-        Pixel pixel = new PixelImpl(createColorBuilder(red, green, blue), j, i);
-        swissFlag[i][j] = pixel;
-      }
-    }
-    //This is for the cross
-    for (int i = leftCross; i < rightCross; i++) {
-      for (int j = leftCross; j < rightCross; j++) {
-        if ((i >= leftCrossStart && i < leftCrossStop)) {
-          red = 255;
-          green = 255;
-          blue = 255;
-        } else if ((j >= leftCrossStart && j < leftCrossStop)) {
-          red = 255;
-          green = 255;
-          blue = 255;
-        } else {
-          red = 255;
-          green = 0;
-          blue = 0;
-        }
-        Pixel pixel = new PixelImpl(createColorBuilder(red, green, blue), j, i);
-        swissFlag[i][j] = pixel;
-      }
-    }
-    return new ImageImpl(swissFlag);
+  private static int[] multiples(int step, int limit) {
+    return IntStream.iterate(step, value -> value > 0 && value < limit, value -> value + step)
+            .toArray();
   }
 
   /**
-   * Generates the flag of France.
-   *
-   * @param height height of the flag
-   * @return image of the French Flag
+   * This interface represents the painting of a row of a generated image.
    */
-  private Image generateFrenchFlag(int height) {
-    int red;
-    int green;
-    int blue;
-    int width = (int) (height * 1.5);
-    if (width < 3) {
-      width = 3;
-    } else if (width % 3 > 1) {
-      width = width + (width % 3);
-    } else {
-      width = width - (width % 3);
-    }
-    height = (int) (width / 1.5);
-    Pixel[][] frenchFlag = new Pixel[width][height];
-    int currentIndex;
-    int lineSize = width / 3;
-    for (int i = 0; i < width; i++) {
-      currentIndex = (i / (lineSize));
-      for (int j = 0; j < height; j++) {
-        switch (currentIndex) {
-          case 0:
-            red = 0;
-            green = 85;
-            blue = 164;
-            break;
-          case 2:
-            red = 239;
-            green = 65;
-            blue = 53;
-            break;
-          default:
-            red = 255;
-            green = 255;
-            blue = 255;
-            break;
-        }
-        Pixel pixel = new PixelImpl(createColorBuilder(red, green, blue), j, i);
-        frenchFlag[i][j] = pixel;
-      }
-    }
-    return new ImageImpl(frenchFlag);
+  private interface RowPainter {
+    /**
+     * Paints the specified row of the image. Every pixel of the passed array must be written.
+     *
+     * @param y   index of the row
+     * @param row packed ARGB values of the pixels of the row
+     */
+    void paintRow(int y, int[] row);
   }
 
   /**
-   * Creates the color model based on the RGB values of each pixel using the ColorBuilder.
+   * Creates the packed ARGB value of an opaque color based on its RGB values.
    *
    * @param red   red channel of the pixel
    * @param green green channel of the pixel
    * @param blue  blue channel of the pixel
-   * @return a color object
+   * @return packed ARGB value of the color
    */
-  private Color createColorBuilder(int red, int green, int blue) {
-    return Color.getBuilder().red(red).green(green).blue(blue).build();
+  private static int createColor(int red, int green, int blue) {
+    return 0xff000000 | (red << 16) | (green << 8) | blue;
   }
-}
\ No newline at end of file
+}
@@ -10,6 +10,8 @@ import java.util.stream.Collectors;
  * methods part of the Image interface.
  */
 public class ImageImpl implements Image {
+  private static final long BYTES_PER_PIXEL = 64;
+
   private final int width;
   private final int height;
 
@@ -64,6 +66,17 @@ public class ImageImpl implements Image {
     return transformer.applyOn(this);
   }
 
+  /**
+   * Returns an estimate of the memory retained by the image. Every pixel takes a reference in the
+   * matrix, a pixel object and a color object, about 64 bytes on a 64 bit JVM.
+   *
+   * @return estimated number of bytes retained by the image
+   */
+  @Override
+  public long getRetainedBytes() {
+    return BYTES_PER_PIXEL * width * height;
+  }
+
   /**
    * Returns the representation of the image as a 2D matrix of its pixels.
    *
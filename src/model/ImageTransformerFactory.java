@@ -3,8 +3,8 @@ package model;
 /**
  * This class consists of various factory methods that return different types of image transformer
  * objects that can be applied on an image(either color transformers or filters) namely Sepia
- * transformer, Greyscale transformer, Blur Filter, Sharpen filter, Dither transformer and Mosaic
- * transformer.
+ * transformer, Greyscale transformer, Blur Filter, Sharpen filter, Box blur, Gaussian blur, Unsharp
+ * mask, Dither transformer and Mosaic transformer.
  */
 public class ImageTransformerFactory {
 
@@ -14,7 +14,7 @@ public class ImageTransformerFactory {
    *
    * @return sepia filter
    */
-  public static ImageTransformer createSepiaFilter() {
+  public static ColorTransformer createSepiaFilter() {
     return new ColorTransformer(new float[][]{
             {0.393f, 0.769f, 0.189f},
             {0.349f, 0.686f, 0.168f},
@@ -28,7 +28,7 @@ public class ImageTransformerFactory {
    *
    * @return greyscale filter
    */
-  public static ImageTransformer createGreyScaleFilter() {
+  public static ColorTransformer createGreyScaleFilter() {
     return new ColorTransformer(new float[][]{
             {0.2126f, 0.7152f, 0.0722f},
             {0.2126f, 0.7152f, 0.0722f},
@@ -42,7 +42,7 @@ public class ImageTransformerFactory {
    *
    * @return greyscale filter
    */
-  public static ImageTransformer createBlurFilter() {
+  public static ConvolutionFilter createBlurFilter() {
     return new ConvolutionFilter(new float[][]{
             {0.0625f, 0.125f, 0.0625f},
             {0.125f, 0.25f, 0.125f},
@@ -56,7 +56,7 @@ public class ImageTransformerFactory {
    *
    * @return sharpen filter
    */
-  public static ImageTransformer createSharpenFilter() {
+  public static ConvolutionFilter createSharpenFilter() {
     return new ConvolutionFilter(new float[][]{
             {-0.125f, -0.125f, -0.125f, -0.125f, -0.125f},
             {-0.125f, 0.25f, 0.25f, 0.25f, -0.125f},
@@ -66,6 +66,47 @@ public class ImageTransformerFactory {
     });
   }
 
+  /**
+   * Returns a box blur transformer. Applying this transformer replaces each pixel by the average of
+   * the (2 * radius + 1) x (2 * radius + 1) pixels around it. The cost does not depend on the
+   * radius.
+   *
+   * @param radius radius of the box
+   * @return box blur transformer
+   * @throws IllegalArgumentException when the radius is negative
+   */
+  public static ImageTransformer createBoxBlurFilter(int radius) throws IllegalArgumentException {
+    return new BoxBlurTransformer(radius);
+  }
+
+  /**
+   * Returns a Gaussian blur transformer with the specified standard deviation. Unlike the blur
+   * filter, the amount of blur can be chosen freely and the cost does not depend on it.
+   *
+   * @param sigma standard deviation of the Gaussian in pixels
+   * @return Gaussian blur transformer
+   * @throws IllegalArgumentException when the standard deviation is not a positive value
+   */
+  public static ImageTransformer createGaussianBlurFilter(double sigma)
+          throws IllegalArgumentException {
+    return new GaussianBlurTransformer(sigma);
+  }
+
+  /**
+   * Returns an unsharp mask transformer. Applying this transformer accentuates the details of the
+   * image that are removed by a Gaussian blur with the specified standard deviation.
+   *
+   * @param sigma  standard deviation of the Gaussian in pixels
+   * @param amount factor by which the details are amplified
+   * @return unsharp mask transformer
+   * @throws IllegalArgumentException when the standard deviation is not a positive value or the
+   *                                  amount is negative
+   */
+  public static ImageTransformer createUnsharpMaskFilter(double sigma, double amount)
+          throws IllegalArgumentException {
+    return new UnsharpMaskTransformer(sigma, amount);
+  }
+
   /**
    * Returns a dither transformer.
    *
@@ -75,6 +116,44 @@ public class ImageTransformerFactory {
     return new IndexedColorTransformer();
   }
 
+  /**
+   * Returns a transformer that dithers by comparing every pixel with the threshold of its position
+   * in a Bayer matrix of the specified size.
+   *
+   * @param size number of rows and columns of the Bayer matrix: 2, 4, 8 or 16
+   * @return ordered dither transformer
+   * @throws IllegalArgumentException when the size is not supported
+   */
+  public static ImageTransformer createBayerDitherTransformer(int size)
+          throws IllegalArgumentException {
+    return OrderedDitherTransformer.bayer(size);
+  }
+
+  /**
+   * Returns a transformer that dithers by comparing every pixel with the threshold of its position
+   * in a blue noise matrix.
+   *
+   * @return ordered dither transformer
+   */
+  public static ImageTransformer createBlueNoiseDitherTransformer() {
+    return OrderedDitherTransformer.blueNoise();
+  }
+
+  /**
+   * Returns a transformer that reduces the colors of the image to a palette of at most the
+   * specified number of colors, built from the colors of the image. The transformed image is an
+   * {@link IndexedImage}.
+   *
+   * @param colors maximum number of colors of the palette, between 2 and 256
+   * @param dither true if the quantization error is diffused into the neighbouring pixels
+   * @return palette transformer
+   * @throws IllegalArgumentException when the number of colors is out of range
+   */
+  public static ImageTransformer createPaletteTransformer(int colors, boolean dither)
+          throws IllegalArgumentException {
+    return new PaletteTransformer(colors, dither);
+  }
+
   /**
    * Return a mosaic transformer with the given no of seeds.
    *
@@ -84,4 +163,32 @@ public class ImageTransformerFactory {
   public static ImageTransformer createMosaicTransformer(int noOfSeeds) {
     return new MosaicTransformer(noOfSeeds);
   }
+
+  /**
+   * Return a mosaic transformer with the given no of seeds that assigns the pixels to the seeds
+   * using the specified mode. The mode {@link MosaicMode#JFA} approximates the closest seed by jump
+   * flooding, whose cost does not depend on the number of seeds.
+   *
+   * @param noOfSeeds number of seeds considered while applying this mosaic transformer
+   * @param mode      engine that assigns the pixels to the seeds
+   * @return mosaic transformer
+   */
+  public static ImageTransformer createMosaicTransformer(int noOfSeeds, MosaicMode mode) {
+    return new MosaicTransformer(noOfSeeds, mode);
+  }
+
+  /**
+   * Return a mosaic transformer with the given no of seeds that assigns the pixels to the seeds
+   * using the specified mode and chooses the seeds with a random generator initialized with the
+   * specified value, so that applying it to the same image always gives the same result.
+   *
+   * @param noOfSeeds  number of seeds considered while applying this mosaic transformer
+   * @param mode       engine that assigns the pixels to the seeds
+   * @param randomSeed initial value of the random generator that chooses the seeds
+   * @return mosaic transformer
+   */
+  public static ImageTransformer createMosaicTransformer(int noOfSeeds, MosaicMode mode,
+                                                         long randomSeed) {
+    return new MosaicTransformer(noOfSeeds, mode, randomSeed);
+  }
 }
\ No newline at end of file
@@ -1,113 +1,200 @@
 package model;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
 /**
  * This class represent a transformer that converts the image into its dithered form. The operation
  * of breaking down an image that has many colors into an image that is made of dots from just a few
  * colors is known as dithering. It is first converted to greyscale and then the dithering algorithm
  * is applied.
+ *
+ * <p>The image is dithered by Floyd-Steinberg error diffusion in a single streaming pass over its
+ * rows. The greyscale conversion is performed on the fly when a row is reached, and the diffused
+ * error only needs to be kept for the rows that are being processed, so apart from the result the
+ * transformer only allocates a few rows of intensities. The error weights are sixteenths, applied
+ * in integer arithmetic. The result is a {@link BinaryImage}, which stores a single bit per pixel,
+ * and luminance or binary images are read without being widened to ARGB first.
+ *
+ * <p>Although the error of a pixel is diffused into the following pixels, rows can be processed
+ * concurrently in a staggered wavefront: a pixel only depends on the pixels to its left and on the
+ * three pixels around it in the row above, which in turn must have received the error of the pixel
+ * to their right. A row can therefore proceed as soon as the row above is three pixels ahead. The
+ * rows are claimed in order by several workers, and each row publishes its progress in a lock-free
+ * counter that the worker of the next row waits for. The result is identical to processing the
+ * rows one after the other.
  */
 public class IndexedColorTransformer implements ImageTransformer {
-  @Override
-  public Image applyOn(Image image) {
-    Image greyscaleImage = performGreyScaleConversion(image);
+  private static final int PROGRESS_INTERVAL = 64;
+  private static final int SPINS_BEFORE_YIELD = 64;
 
-    Pixel[][] pixels = greyscaleImage.getPixels();
-    int inputWidth = greyscaleImage.getWidth();
-    int inputHeight = greyscaleImage.getHeight();
-    int red;
-    int green;
-    int blue;
+  private final int workers;
 
-    PixelImpl[][] filteredImage = new PixelImpl[inputWidth][inputHeight];
-    for (int i = 0; i < inputHeight; i++) {
-      for (int j = 0; j < inputWidth; j++) {
-        Pixel currentPixel = pixels[j][i];
-        red = currentPixel.getColor().getRed();
-        int newRed = red < 128 ? 0 : 255;
-        int redError = red - newRed;
-        blue = currentPixel.getColor().getBlue();
-        int newBlue = blue < 128 ? 0 : 255;
-        int blueError = blue - newBlue;
-        green = currentPixel.getColor().getGreen();
-        int newGreen = green < 128 ? 0 : 255;
-        int greenError = green - newGreen;
-        PixelImpl pixel = new PixelImpl(createColorBuilder(newRed, newRed, newRed), i, j);
-        filteredImage[j][i] = pixel;
+  /**
+   * Constructs the transformer that processes as many rows concurrently as the pool configured in
+   * {@link Parallelism} has worker threads.
+   */
+  public IndexedColorTransformer() {
+    this.workers = 0;
+  }
 
-        //Pixel on the right
-        if (j < inputWidth - 1) {
-          pixels[j + 1][i] = performErrorCalculation(redError, greenError, blueError,
-                  pixels[j + 1][i], 7);
-        }
-        //Pixel on the next-row-left
-        if (j > 0 && i < inputHeight - 1) {
-          pixels[j - 1][i + 1] = performErrorCalculation(redError, greenError, blueError,
-                  pixels[j - 1][i + 1], 3);
+  /**
+   * Constructs the transformer that processes at most the specified number of rows concurrently.
+   * A single worker processes the rows one after the other.
+   *
+   * @param workers number of rows processed concurrently
+   * @throws IllegalArgumentException when the number of workers is not a positive value
+   */
+  public IndexedColorTransformer(int workers) throws IllegalArgumentException {
+    if (workers < 1) {
+      throw new IllegalArgumentException("Number of workers must be a positive value.");
+    }
+    this.workers = workers;
+  }
+
+  @Override
+  public BinaryImage applyOn(Image image) {
+    GreyscaleReader reader = new GreyscaleReader(image);
+    int inputWidth = reader.getWidth();
+    int inputHeight = reader.getHeight();
+    BinaryImage filteredImage = new BinaryImage(inputWidth, inputHeight);
+
+    ForkJoinPool pool = Parallelism.getPool();
+    int rowWorkers = Math.min(inputHeight, workers == 0 ? pool.getParallelism() : workers);
+    if (rowWorkers == 1) {
+      int[] currentRow = new int[inputWidth];
+      int[] nextRow = new int[inputWidth];
+      reader.readRow(0, 0, inputWidth, currentRow);
+      for (int i = 0; i < inputHeight; i++) {
+        boolean lastRow = i == inputHeight - 1;
+        if (!lastRow) {
+          reader.readRow(i + 1, 0, inputWidth, nextRow);
         }
-        //Pixel below in the next row
+        ditherRow(currentRow, lastRow ? null : nextRow, filteredImage, i, 0, inputWidth);
+        int[] row = currentRow;
+        currentRow = nextRow;
+        nextRow = row;
+      }
+    } else {
+      ditherWavefront(reader, filteredImage, rowWorkers, pool);
+    }
+    return filteredImage;
+  }
+
+  /**
+   * Private helper that dithers the image in a wavefront processed by several workers. Every
+   * worker repeatedly claims the next unprocessed row, loads the intensities of the row below it
+   * into a ring of row buffers, and dithers its row in segments, each of which waits until the row
+   * above has progressed far enough. A row is claimed only after all rows above it have been
+   * claimed by running workers, and since a row cannot finish before the row above it, at most as
+   * many rows as there are workers are unfinished at any time. A ring of two more rows than workers
+   * therefore never reuses the buffer of an unfinished row.
+   *
+   * @param reader        reader of the intensities of the image
+   * @param filteredImage dithered image
+   * @param rowWorkers    number of workers
+   * @param pool          pool on which the workers run
+   */
+  private void ditherWavefront(GreyscaleReader reader, BinaryImage filteredImage,
+                               int rowWorkers, ForkJoinPool pool) {
+    int inputWidth = reader.getWidth();
+    int inputHeight = reader.getHeight();
+    int[][] rows = new int[rowWorkers + 2][inputWidth];
+    AtomicIntegerArray progress = new AtomicIntegerArray(inputHeight);
+    AtomicInteger nextRow = new AtomicInteger();
+    reader.readRow(0, 0, inputWidth, rows[0]);
+    Parallelism.forEachRange(pool, 0, rowWorkers, 1, (startWorker, endWorker) -> {
+      for (int i = nextRow.getAndIncrement(); i < inputHeight; i = nextRow.getAndIncrement()) {
+        int[] currentRow = rows[i % rows.length];
+        int[] belowRow = null;
         if (i < inputHeight - 1) {
-          pixels[j][i + 1] = performErrorCalculation(redError, greenError, blueError,
-                  pixels[j][i + 1], 5);
+          belowRow = rows[(i + 1) % rows.length];
+          reader.readRow(i + 1, 0, inputWidth, belowRow);
         }
-        //Pixel on the next-row-right
-        if (j < inputWidth - 1 && i < inputHeight - 1) {
-          pixels[j + 1][i + 1] = performErrorCalculation(redError, greenError, blueError,
-                  pixels[j + 1][i + 1], 1);
+        for (int start = 0; start < inputWidth; start += PROGRESS_INTERVAL) {
+          int end = Math.min(inputWidth, start + PROGRESS_INTERVAL);
+          if (i > 0) {
+            // the last pixel of the segment needs the row above to be three pixels ahead
+            awaitProgress(progress, i - 1, Math.min(inputWidth, end + 2));
+          }
+          ditherRow(currentRow, belowRow, filteredImage, i, start, end);
+          progress.set(i, end);
         }
       }
-    }
-    return new ImageImpl(filteredImage);
+    });
   }
 
-
   /**
-   * Creates the color model based on the RGB values of each pixel using the ColorBuilder.
+   * Private helper that waits until a row has processed at least the specified number of pixels.
    *
-   * @param red   red channel of the pixel
-   * @param green green channel of the pixel
-   * @param blue  blue channel of the pixel
-   * @return a color object
+   * @param progress number of processed pixels of every row
+   * @param row      row to wait for
+   * @param pixels   number of pixels that have to be processed
    */
-  private Color createColorBuilder(int red, int green, int blue) {
-    return Color.getBuilder().red(red).green(green).blue(blue).build();
+  private static void awaitProgress(AtomicIntegerArray progress, int row, int pixels) {
+    int spins = 0;
+    while (progress.get(row) < pixels) {
+      if (++spins < SPINS_BEFORE_YIELD) {
+        Thread.onSpinWait();
+      } else {
+        Thread.yield();
+      }
+    }
   }
 
   /**
-   * Performs the error calculation for the neighboring pixels.
+   * Private helper that dithers a segment of a row and diffuses the error of its pixels into the
+   * following pixels of the row and into the row below.
    *
-   * @param redError   error between old red color and new red color
-   * @param greenError error between old green color and new green color
-   * @param blueError  error between old blue color and new blue color
-   * @param pixel      pixel object under consideration
-   * @param errorNum   the numerator corresponding to the error factor
-   * @return Pixel object representing the modified pixel
+   * @param currentRow    intensities of the row
+   * @param nextRow       intensities of the row below, null for the last row of the image
+   * @param filteredImage dithered image, whose pixels are black until they are set
+   * @param row           row of the image
+   * @param start         first column of the segment
+   * @param end           column after the last column of the segment
    */
-  private Pixel performErrorCalculation(int redError, int greenError, int blueError, Pixel pixel,
-                                        int errorNum) {
-    int errorRed;
-    int errorGreen;
-    int errorBlue;
+  private static void ditherRow(int[] currentRow, int[] nextRow, BinaryImage filteredImage,
+                                int row, int start, int end) {
+    int inputWidth = currentRow.length;
+    for (int j = start; j < end; j++) {
+      int intensity = currentRow[j];
+      int newIntensity = intensity < 128 ? 0 : 255;
+      int error = intensity - newIntensity;
+      if (newIntensity == 255) {
+        filteredImage.setWhite(j, row);
+      }
 
-    errorRed = Math.max(0, Math.min(pixel.getColor().getRed()
-            + (int) ((errorNum / 16.0 * redError)), 255));
-    errorGreen = Math.max(0,
-            Math.min(pixel.getColor().getGreen() + (int) ((errorNum / 16.0 * greenError)),
-                    255));
-    errorBlue = Math.max(0,
-            Math.min(pixel.getColor().getBlue() + (int) ((errorNum / 16.0 * blueError)),
-                    255));
-    return new PixelImpl(createColorBuilder(errorRed, errorGreen, errorBlue),
-            pixel.getRow(), pixel.getColumn());
+      //Pixel on the right
+      if (j < inputWidth - 1) {
+        currentRow[j + 1] = diffuseError(currentRow[j + 1], error, 7);
+      }
+      if (nextRow != null) {
+        //Pixel on the next-row-left
+        if (j > 0) {
+          nextRow[j - 1] = diffuseError(nextRow[j - 1], error, 3);
+        }
+        //Pixel below in the next row
+        nextRow[j] = diffuseError(nextRow[j], error, 5);
+        //Pixel on the next-row-right
+        if (j < inputWidth - 1) {
+          nextRow[j + 1] = diffuseError(nextRow[j + 1], error, 1);
+        }
+      }
+    }
   }
 
   /**
-   * Private helper converts the provided image into its greyscale equivalent and returns this
-   * image.
+   * Private helper that adds a fraction of the error of a pixel to the intensity of a neighboring
+   * pixel. The fraction is errorNum / 16 of the error, rounded towards zero, and the corrected
+   * intensity is clamped to the range 0-255.
    *
-   * @param image input image needed to be converted to greyscale
-   * @return greyscale image
+   * @param intensity intensity of the neighboring pixel
+   * @param error     error between old intensity and new intensity of the current pixel
+   * @param errorNum  the numerator corresponding to the error factor
+   * @return corrected intensity of the neighboring pixel
    */
-  private Image performGreyScaleConversion(Image image) {
-    return image.transform(ImageTransformerFactory.createGreyScaleFilter());
+  private static int diffuseError(int intensity, int error, int errorNum) {
+    return Math.max(0, Math.min(intensity + errorNum * error / 16, 255));
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,72 @@
+package model;
+
+/**
+ * This class represents an image whose pixels are indices into a palette of at most 256 colors.
+ * Every pixel occupies a single byte and the pixels are laid out in row-major order. The packed
+ * ARGB values required by the RasterImage interface are looked up in the palette on demand.
+ *
+ * <p>Such images are created by quantizing an image to a palette. They can be converted to a
+ * BufferedImage of type TYPE_BYTE_INDEXED that shares the indices, which formats such as PNG and
+ * GIF store with one byte (or less) per pixel.
+ */
+public class IndexedImage extends AbstractRasterImage {
+  private final byte[] indices;
+  private final Palette palette;
+
+  /**
+   * Construct an image of the specified dimensions backed by the passed indices. The indices are
+   * not copied, they become the storage of the image and should not be modified by the caller
+   * afterwards.
+   *
+   * @param width   width of the image
+   * @param height  height of the image
+   * @param indices indices of the colors of the pixels in the palette, in row-major order
+   * @param palette palette of the image
+   * @throws IllegalArgumentException when the dimensions are not positive values, the indices do
+   *                                  not match the dimensions or the palette is null
+   */
+  public IndexedImage(int width, int height, byte[] indices, Palette palette)
+          throws IllegalArgumentException {
+    super(width, height);
+    if (indices == null || indices.length != (long) width * height) {
+      throw new IllegalArgumentException("Indices do not match the dimensions of the image.");
+    }
+    if (palette == null) {
+      throw new IllegalArgumentException("Palette cannot be null.");
+    }
+    this.indices = indices;
+    this.palette = palette;
+  }
+
+  /**
+   * Returns the indices backing this image. The array is shared with the image and not copied, so
+   * callers are expected to treat it as read only.
+   *
+   * @return indices of the colors of the pixels in the palette, in row-major order
+   */
+  public byte[] getIndices() {
+    return indices;
+  }
+
+  /**
+   * Returns the palette of this image.
+   *
+   * @return palette of the image
+   */
+  public Palette getPalette() {
+    return palette;
+  }
+
+  @Override
+  public long getRetainedBytes() {
+    return indices.length + palette.getRetainedBytes();
+  }
+
+  @Override
+  protected void copyRow(int x, int y, int length, int[] destination, int offset) {
+    int index = y * width + x;
+    for (int i = 0; i < length; i++) {
+      destination[offset + i] = palette.getColor(indices[index + i] & 0xff);
+    }
+  }
+}
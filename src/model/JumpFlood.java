@@ -0,0 +1,141 @@
+package model;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * This class computes an approximate Voronoi labeling of an image by jump flooding. Every pixel of
+ * a label buffer holds the index of the closest seed found so far. Starting from the pixels of the
+ * seeds themselves, each pass lets every pixel adopt the closest seed among the labels of its eight
+ * neighbours at a distance of step pixels, with the step halving from half the size of the image
+ * down to a single pixel, followed by one more pass with a step of one pixel. The passes read one
+ * buffer and write another, so every pass is processed in parallel over bands of rows.
+ *
+ * <p>The cost is O(pixels x log(size)) and does not depend on the number of seeds. The labeling
+ * can differ from the exact Voronoi labeling: on random layouts about 0.002% to 0.01% of the
+ * pixels are labeled with a seed that is not the closest one, which can be up to about 5 pixels
+ * farther than the closest seed.
+ */
+class JumpFlood {
+  private static final int MIN_PIXELS_PER_TASK = 1 << 14;
+
+  /**
+   * Computes the label of every pixel of an image of the specified dimensions.
+   *
+   * @param width       width of the image
+   * @param height      height of the image
+   * @param seedColumns columns of the seeds, all seeds must lie on different pixels
+   * @param seedRows    rows of the seeds
+   * @param pool        pool on which the passes are processed
+   * @return index of the seed assigned to each pixel in row-major order
+   */
+  static int[] label(int width, int height, int[] seedColumns, int[] seedRows,
+                     ForkJoinPool pool) {
+    int[] labels = new int[width * height];
+    int[] next = new int[width * height];
+    Arrays.fill(labels, -1);
+    for (int k = 0; k < seedColumns.length; k++) {
+      labels[seedRows[k] * width + seedColumns[k]] = k;
+    }
+
+    int size = Math.max(width, height);
+    int firstStep = Integer.highestOneBit(Math.max(1, size - 1));
+    int grain = Parallelism.grainSize(pool, height, width, MIN_PIXELS_PER_TASK);
+    for (int step = firstStep; ; step >>= 1) {
+      int passStep = Math.max(1, step);
+      int[] source = labels;
+      int[] target = next;
+      Parallelism.forEachRange(pool, 0, height, grain, (startRow, endRow) ->
+              pass(source, target, width, height, seedColumns, seedRows, passStep, startRow,
+                      endRow));
+      next = labels;
+      labels = target;
+      if (step == 0) {
+        break;
+      }
+    }
+    return labels;
+  }
+
+  /**
+   * Private helper that performs a pass of jump flooding on a band of rows.
+   *
+   * @param source      labels before the pass
+   * @param target      labels after the pass
+   * @param width       width of the image
+   * @param height      height of the image
+   * @param seedColumns columns of the seeds
+   * @param seedRows    rows of the seeds
+   * @param step        distance of the neighbours that are examined
+   * @param startRow    first row of the band
+   * @param endRow      row after the last row of the band
+   */
+  private static void pass(int[] source, int[] target, int width, int height, int[] seedColumns,
+                           int[] seedRows, int step, int startRow, int endRow) {
+    for (int y = startRow; y < endRow; y++) {
+      int rowStart = y * width;
+      boolean interiorRow = y >= step && y < height - step;
+      for (int x = 0; x < width; x++) {
+        int index = rowStart + x;
+        int bestIndex = source[index];
+        long bestDistance = bestIndex < 0 ? Long.MAX_VALUE
+                : distance(x, y, seedColumns[bestIndex], seedRows[bestIndex]);
+        if (interiorRow && x >= step && x < width - step) {
+          // all neighbours lie inside the image
+          int offset = step * width;
+          for (int neighbour = index - offset - step; neighbour <= index + offset - step;
+               neighbour += offset) {
+            for (int n = neighbour; n <= neighbour + 2 * step; n += step) {
+              int k = source[n];
+              if (k >= 0 && k != bestIndex) {
+                long distance = distance(x, y, seedColumns[k], seedRows[k]);
+                if (distance < bestDistance || (distance == bestDistance && k < bestIndex)) {
+                  bestDistance = distance;
+                  bestIndex = k;
+                }
+              }
+            }
+          }
+          target[index] = bestIndex;
+          continue;
+        }
+        for (int dy = -step; dy <= step; dy += step) {
+          int row = y + dy;
+          if (row < 0 || row >= height) {
+            continue;
+          }
+          for (int dx = -step; dx <= step; dx += step) {
+            int column = x + dx;
+            if (column < 0 || column >= width) {
+              continue;
+            }
+            int k = source[row * width + column];
+            if (k >= 0 && k != bestIndex) {
+              long distance = distance(x, y, seedColumns[k], seedRows[k]);
+              if (distance < bestDistance || (distance == bestDistance && k < bestIndex)) {
+                bestDistance = distance;
+                bestIndex = k;
+              }
+            }
+          }
+        }
+        target[index] = bestIndex;
+      }
+    }
+  }
+
+  /**
+   * Private helper that returns the squared distance between two pixels.
+   *
+   * @param x1 column of the first pixel
+   * @param y1 row of the first pixel
+   * @param x2 column of the second pixel
+   * @param y2 row of the second pixel
+   * @return squared distance between the pixels
+   */
+  private static long distance(int x1, int y1, int x2, int y2) {
+    long dx = x1 - x2;
+    long dy = y1 - y2;
+    return dx * dx + dy * dy;
+  }
+}
@@ -0,0 +1,59 @@
+package model;
+
+/**
+ * This class represents a greyscale image that stores a single byte, the luminance, per pixel in
+ * row-major order. It is a quarter of the size of the equivalent ARGB raster. Greyscale
+ * transformations of opaque images produce such images, and the transformers that only depend on
+ * the luminance (e.g. dithering) read it without widening it.
+ *
+ * <p>It can be converted to a BufferedImage of type TYPE_BYTE_INDEXED that shares the luminance
+ * values and uses a palette of the 256 greys, so it is saved as a greyscale image without being
+ * expanded. The palette keeps every grey as it is, whereas Java would interpret the values of a
+ * TYPE_BYTE_GRAY image as linear intensities.
+ */
+public class LuminanceImage extends AbstractRasterImage {
+  private final byte[] luminance;
+
+  /**
+   * Construct an image of the specified dimensions backed by the passed luminance values. The
+   * values are not copied, they become the storage of the image and should not be modified by the
+   * caller afterwards.
+   *
+   * @param width     width of the image
+   * @param height    height of the image
+   * @param luminance luminance of the pixels in row-major order
+   * @throws IllegalArgumentException when the dimensions are not positive values or the values do
+   *                                  not match the dimensions
+   */
+  public LuminanceImage(int width, int height, byte[] luminance)
+          throws IllegalArgumentException {
+    super(width, height);
+    if (luminance == null || luminance.length != (long) width * height) {
+      throw new IllegalArgumentException("Luminance does not match the dimensions of the image.");
+    }
+    this.luminance = luminance;
+  }
+
+  /**
+   * Returns the luminance values backing this image. The array is shared with the image and not
+   * copied, so callers are expected to treat it as read only.
+   *
+   * @return luminance of the pixels in row-major order
+   */
+  public byte[] getLuminance() {
+    return luminance;
+  }
+
+  @Override
+  public long getRetainedBytes() {
+    return luminance.length;
+  }
+
+  @Override
+  protected void copyRow(int x, int y, int length, int[] destination, int offset) {
+    int index = y * width + x;
+    for (int i = 0; i < length; i++) {
+      destination[offset + i] = 0xff000000 | (luminance[index + i] & 0xff) * 0x010101;
+    }
+  }
+}
@@ -0,0 +1,236 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * This class builds the palette that represents the colors of an image by median cut. The colors
+ * of the image are first counted in a histogram of 32 x 32 x 32 bins, using the 5 most significant
+ * bits of every component. Large images are sampled at regular intervals, so that the histogram
+ * never counts more than about a million pixels, and the samples are counted in parallel into one
+ * histogram per worker that are merged afterwards.
+ *
+ * <p>The occupied bins form a single box which is then repeatedly split: the box with the largest
+ * product of its number of pixels and its longest side is split across its longest side, at the
+ * median of its pixels. Every final box contributes the average color of its pixels to the
+ * palette.
+ */
+class MedianCut {
+  private static final int BINS = 1 << 15;
+  private static final int MAX_SAMPLES = 1 << 20;
+
+  /**
+   * Returns the palette of at most the specified number of colors that represents the colors of
+   * the specified pixels. Fewer colors are returned when the pixels occupy fewer bins.
+   *
+   * @param pixels packed ARGB values of the pixels
+   * @param colors maximum number of colors of the palette
+   * @param pool   pool on which the histogram is counted
+   * @return the palette
+   */
+  static Palette quantize(int[] pixels, int colors, ForkJoinPool pool) {
+    long[] histogram = histogram(pixels, pool);
+
+    int occupied = 0;
+    for (int bin = 0; bin < BINS; bin++) {
+      occupied += histogram[4 * bin] > 0 ? 1 : 0;
+    }
+    int[] bins = new int[occupied];
+    for (int bin = 0, i = 0; bin < BINS; bin++) {
+      if (histogram[4 * bin] > 0) {
+        bins[i++] = bin;
+      }
+    }
+
+    List<Box> boxes = new ArrayList<>();
+    boxes.add(new Box(bins, histogram, 0, occupied));
+    while (boxes.size() < colors) {
+      Box largest = null;
+      for (Box box : boxes) {
+        if (box.end - box.start > 1 && (largest == null || box.priority() > largest.priority())) {
+          largest = box;
+        }
+      }
+      if (largest == null) {
+        break;
+      }
+      boxes.add(largest.split(bins, histogram));
+    }
+
+    int[] palette = new int[boxes.size()];
+    for (int i = 0; i < palette.length; i++) {
+      palette[i] = boxes.get(i).averageColor(bins, histogram);
+    }
+    return new Palette(palette);
+  }
+
+  /**
+   * Private helper that counts the sampled pixels in a histogram. Every bin is represented by four
+   * consecutive values: the number of pixels and the sums of their red, green and blue components.
+   *
+   * @param pixels packed ARGB values of the pixels
+   * @param pool   pool on which the pixels are counted
+   * @return the histogram
+   */
+  private static long[] histogram(int[] pixels, ForkJoinPool pool) {
+    int step = Math.max(1, (pixels.length + MAX_SAMPLES - 1) / MAX_SAMPLES);
+    int samples = (pixels.length + step - 1) / step;
+    int workers = Math.max(1, Math.min(pool.getParallelism(), samples / (MAX_SAMPLES / 16)));
+    long[][] partial = new long[workers][];
+    Parallelism.forEachRange(pool, 0, workers, 1, (startWorker, endWorker) -> {
+      for (int worker = startWorker; worker < endWorker; worker++) {
+        long[] histogram = new long[4 * BINS];
+        long start = (long) samples * worker / workers;
+        long end = (long) samples * (worker + 1) / workers;
+        for (long sample = start; sample < end; sample++) {
+          int argb = pixels[(int) (sample * step)];
+          int red = (argb >> 16) & 0xff;
+          int green = (argb >> 8) & 0xff;
+          int blue = argb & 0xff;
+          int bin = 4 * (((red >> 3) << 10) | ((green >> 3) << 5) | (blue >> 3));
+          histogram[bin]++;
+          histogram[bin + 1] += red;
+          histogram[bin + 2] += green;
+          histogram[bin + 3] += blue;
+        }
+        partial[worker] = histogram;
+      }
+    });
+    long[] histogram = partial[0];
+    for (int worker = 1; worker < workers; worker++) {
+      for (int i = 0; i < histogram.length; i++) {
+        histogram[i] += partial[worker][i];
+      }
+    }
+    return histogram;
+  }
+
+  /**
+   * This class represents a box of the color cube, holding a contiguous range of the occupied
+   * bins.
+   */
+  private static class Box {
+    private final int start;
+    private int end;
+    private long count;
+    private final int[] minimum = new int[3];
+    private final int[] maximum = new int[3];
+
+    /**
+     * Constructs the box holding the specified range of bins and computes its bounds.
+     *
+     * @param bins      occupied bins
+     * @param histogram histogram of the pixels
+     * @param start     first bin of the box
+     * @param end       bin after the last bin of the box
+     */
+    private Box(int[] bins, long[] histogram, int start, int end) {
+      this.start = start;
+      this.end = end;
+      shrink(bins, histogram);
+    }
+
+    /**
+     * Returns the priority with which the box is split.
+     *
+     * @return number of pixels times the longest side
+     */
+    private double priority() {
+      return (double) count * (maximum[longestSide()] - minimum[longestSide()] + 1);
+    }
+
+    /**
+     * Splits the box across its longest side at the median of its pixels. This box keeps the lower
+     * half and the upper half is returned.
+     *
+     * @param bins      occupied bins, the bins of the box are reordered
+     * @param histogram histogram of the pixels
+     * @return the box holding the upper half
+     */
+    private Box split(int[] bins, long[] histogram) {
+      int side = longestSide();
+      int shift = 10 - 5 * side;
+      long[] keys = new long[end - start];
+      for (int i = start; i < end; i++) {
+        keys[i - start] = ((long) ((bins[i] >> shift) & 0x1f) << 32) | bins[i];
+      }
+      Arrays.sort(keys);
+      for (int i = start; i < end; i++) {
+        bins[i] = (int) keys[i - start];
+      }
+
+      long half = count / 2;
+      long sum = 0;
+      int middle = start + 1;
+      for (int i = start; i < end - 1; i++) {
+        sum += histogram[4 * bins[i]];
+        middle = i + 1;
+        if (sum >= half) {
+          break;
+        }
+      }
+      int upperEnd = end;
+      end = middle;
+      shrink(bins, histogram);
+      return new Box(bins, histogram, middle, upperEnd);
+    }
+
+    /**
+     * Returns the average color of the pixels in the box.
+     *
+     * @param bins      occupied bins
+     * @param histogram histogram of the pixels
+     * @return packed RGB value of the average color
+     */
+    private int averageColor(int[] bins, long[] histogram) {
+      long red = 0;
+      long green = 0;
+      long blue = 0;
+      for (int i = start; i < end; i++) {
+        int bin = 4 * bins[i];
+        red += histogram[bin + 1];
+        green += histogram[bin + 2];
+        blue += histogram[bin + 3];
+      }
+      return (int) ((red + count / 2) / count) << 16 | (int) ((green + count / 2) / count) << 8
+              | (int) ((blue + count / 2) / count);
+    }
+
+    /**
+     * Private helper that computes the number of pixels and the bounds of the box.
+     *
+     * @param bins      occupied bins
+     * @param histogram histogram of the pixels
+     */
+    private void shrink(int[] bins, long[] histogram) {
+      count = 0;
+      Arrays.fill(minimum, Integer.MAX_VALUE);
+      Arrays.fill(maximum, Integer.MIN_VALUE);
+      for (int i = start; i < end; i++) {
+        count += histogram[4 * bins[i]];
+        for (int side = 0; side < 3; side++) {
+          int value = (bins[i] >> (10 - 5 * side)) & 0x1f;
+          minimum[side] = Math.min(minimum[side], value);
+          maximum[side] = Math.max(maximum[side], value);
+        }
+      }
+    }
+
+    /**
+     * Private helper that returns the longest side of the box.
+     *
+     * @return 0 for red, 1 for green, 2 for blue
+     */
+    private int longestSide() {
+      int side = 0;
+      for (int s = 1; s < 3; s++) {
+        if (maximum[s] - minimum[s] > maximum[side] - minimum[side]) {
+          side = s;
+        }
+      }
+      return side;
+    }
+  }
+}
@@ -0,0 +1,26 @@
+package model;
+
+/**
+ * This enum class represents the engines that a mosaic transformer can use to assign every pixel
+ * to the cluster of its closest seed.
+ */
+public enum MosaicMode {
+  NEAREST("nearest"),
+  JFA("jfa");
+
+  private String mode;
+
+  /**
+   * Constructs the enum with the corresponding name of the mode.
+   *
+   * @param mode String representing the name of the mode
+   */
+  MosaicMode(String mode) {
+    this.mode = mode;
+  }
+
+  @Override
+  public String toString() {
+    return this.mode;
+  }
+}
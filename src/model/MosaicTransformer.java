@@ -1,10 +1,9 @@
 package model;
 
-import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.List;
-import java.util.Random;
 import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * This class represent a transformer that converts the image into its mosaic form. The transformer
@@ -12,82 +11,222 @@ import java.util.Set;
  * assigned to a cluster based on the distance from the seed and are assigned color that is the
  * average of all the colors belonging to that cluster (each channel is average to determine the
  * average color of the pixel).
+ *
+ * <p>The closest seed of every pixel is either looked up exactly in a spatial index over the seeds
+ * or approximated by jump flooding, whose cost does not depend on the number of seeds (see
+ * {@link MosaicMode}). The average colors of the clusters are computed by a parallel reduction
+ * over bands of rows into primitive accumulators, in the same pass that looks up the closest
+ * seeds. Besides the seeds, the only memory used is a buffer holding the cluster of every pixel,
+ * which is finally overwritten with the average colors and becomes the raster of the result.
+ *
+ * <p>The transformer holds no state besides its configuration, so a single instance can be reused
+ * and shared between threads. The seeds are chosen anew every time the transformer is applied,
+ * from a random generator that is either initialized with the configured seed value, which makes
+ * the result reproducible, or randomly.
  */
 public class MosaicTransformer implements ImageTransformer {
-  private List<PixelClusterImpl> clusterList;
-  private int noOfSeeds;
+  private static final int MIN_PIXELS_PER_TASK = 1 << 14;
+
+  private final int noOfSeeds;
+  private final MosaicMode mode;
+  private final boolean seeded;
+  private final long randomSeed;
 
   /**
-   * Construct the mosaic transformer object.
+   * Construct the mosaic transformer object that assigns every pixel to its closest seed.
    *
    * @param noOfSeeds number of seeds selected for the mosaic transformer
+   * @throws IllegalArgumentException when the number of seeds is not a positive value
+   */
+  public MosaicTransformer(int noOfSeeds) throws IllegalArgumentException {
+    this(noOfSeeds, MosaicMode.NEAREST);
+  }
+
+  /**
+   * Construct the mosaic transformer object that assigns pixels to seeds using the specified
+   * mode.
+   *
+   * @param noOfSeeds number of seeds selected for the mosaic transformer
+   * @param mode      engine that assigns the pixels to the seeds
+   * @throws IllegalArgumentException when the number of seeds is not a positive value
+   */
+  public MosaicTransformer(int noOfSeeds, MosaicMode mode) throws IllegalArgumentException {
+    this(noOfSeeds, mode, false, 0);
+  }
+
+  /**
+   * Construct the mosaic transformer object that assigns pixels to seeds using the specified
+   * mode, and chooses the seeds using a random generator initialized with the specified value.
+   * Applying the transformer to the same image always gives the same result.
+   *
+   * @param noOfSeeds  number of seeds selected for the mosaic transformer
+   * @param mode       engine that assigns the pixels to the seeds
+   * @param randomSeed initial value of the random generator that chooses the seeds
+   * @throws IllegalArgumentException when the number of seeds is not a positive value
    */
-  public MosaicTransformer(int noOfSeeds) {
-    this.clusterList = new ArrayList<>();
+  public MosaicTransformer(int noOfSeeds, MosaicMode mode, long randomSeed)
+          throws IllegalArgumentException {
+    this(noOfSeeds, mode, true, randomSeed);
+  }
+
+  /**
+   * Private constructor that sets all fields of the transformer.
+   *
+   * @param noOfSeeds  number of seeds selected for the mosaic transformer
+   * @param mode       engine that assigns the pixels to the seeds
+   * @param seeded     true if the random generator is initialized with the passed value
+   * @param randomSeed initial value of the random generator that chooses the seeds
+   * @throws IllegalArgumentException when the number of seeds is not a positive value
+   */
+  private MosaicTransformer(int noOfSeeds, MosaicMode mode, boolean seeded, long randomSeed)
+          throws IllegalArgumentException {
+    if (noOfSeeds < 1) {
+      throw new IllegalArgumentException("Number of seeds must be a positive value.");
+    }
+    if (mode == null) {
+      throw new IllegalArgumentException("Mode cannot be null.");
+    }
     this.noOfSeeds = noOfSeeds;
+    this.mode = mode;
+    this.seeded = seeded;
+    this.randomSeed = randomSeed;
   }
 
+  /**
+   * Apply the mosaic transformation on the image.
+   *
+   * @param image image on which the filter is supposed to be applied
+   * @return resultant image obtained by applying the filter
+   * @throws IllegalArgumentException when the image has fewer pixels than the number of seeds
+   */
   @Override
-  public Image applyOn(Image image) {
-    Pixel[][] pixels = image.getPixels();
+  public Image applyOn(Image image) throws IllegalArgumentException {
+    RasterImageImpl source = RasterImageImpl.of(image);
+    int[] pixels = source.getRaster();
 
-    int inputWidth = image.getWidth();
-    int inputHeight = image.getHeight();
+    int inputWidth = source.getWidth();
+    int inputHeight = source.getHeight();
 
-    Set<Pixel> seeds = new HashSet<>();
-    Random random = new Random();
-    // seeds selection
-    while (seeds.size() != noOfSeeds) {
-      int randomY = random.nextInt(inputHeight - 1);
-      int randomX = random.nextInt(inputWidth - 1);
-      seeds.add(pixels[randomX][randomY]);
+    if (noOfSeeds > pixels.length) {
+      throw new IllegalArgumentException("Number of seeds cannot exceed the number of pixels in"
+              + " the image.");
     }
-    for (Pixel pixel : seeds) {
-      clusterList.add(new PixelClusterImpl(pixel));
+    int[] seeds = selectSeeds(pixels.length,
+            seeded ? new SplittableRandom(randomSeed) : new SplittableRandom());
+    int[] seedColumns = new int[noOfSeeds];
+    int[] seedRows = new int[noOfSeeds];
+    for (int k = 0; k < noOfSeeds; k++) {
+      seedColumns[k] = seeds[k] % inputWidth;
+      seedRows[k] = seeds[k] / inputWidth;
     }
 
-    assignPixelsToClusters(inputHeight, inputWidth, pixels);
+    ForkJoinPool pool = Parallelism.getPool();
+    int[] clusters;
+    SeedGrid grid;
+    if (mode == MosaicMode.JFA) {
+      clusters = JumpFlood.label(inputWidth, inputHeight, seedColumns, seedRows, pool);
+      grid = null;
+    } else {
+      clusters = new int[pixels.length];
+      grid = new SeedGrid(inputWidth, inputHeight, seedColumns, seedRows);
+    }
+    int[] averageColors = computeAverageColors(pixels, clusters, grid, inputWidth, inputHeight,
+            pool);
 
-    Pixel[][] imagePixels = new Pixel[inputWidth][inputHeight];
-    for (PixelClusterImpl cluster : clusterList) {
-      cluster.assignAverageClusterColor();
-      for (Pixel pixel : cluster.getAllPixels()) {
-        imagePixels[pixel.getColumn()][pixel.getRow()] = pixel;
+    // the cluster buffer is not needed anymore and becomes the raster of the result
+    int grain = Parallelism.grainSize(pool, pixels.length, 1, MIN_PIXELS_PER_TASK);
+    Parallelism.forEachRange(pool, 0, pixels.length, grain, (start, end) -> {
+      for (int i = start; i < end; i++) {
+        clusters[i] = averageColors[clusters[i]];
+      }
+    });
+    return new RasterImageImpl(inputWidth, inputHeight, clusters);
+  }
+
+  /**
+   * Private method that selects the positions of the seeds uniformly at random among all pixels,
+   * using Floyd's algorithm: the k-th position is drawn from the first n - noOfSeeds + k + 1
+   * positions, and replaced by the last of these positions if it has already been selected. Every
+   * draw therefore selects a new position, and no draws have to be repeated.
+   *
+   * @param pixelCount number of pixels in the image
+   * @param random     random generator used to select the seeds
+   * @return positions of the seeds in row-major order, in the order in which they are selected
+   */
+  private int[] selectSeeds(int pixelCount, SplittableRandom random) {
+    int[] seeds = new int[noOfSeeds];
+    Set<Integer> selected = new HashSet<>(2 * noOfSeeds);
+    for (int k = 0; k < noOfSeeds; k++) {
+      int last = pixelCount - noOfSeeds + k;
+      int position = random.nextInt(last + 1);
+      if (!selected.add(position)) {
+        position = last;
+        selected.add(position);
       }
+      seeds[k] = position;
     }
-    return new ImageImpl(imagePixels);
+    return seeds;
   }
 
   /**
-   * Private method that performs cluster calculations corresponding to each pixel in the image.
+   * Private method that computes the average color of every cluster. The rows of the image are
+   * split into one band per worker of the pool. Each band assigns its pixels to their clusters if
+   * a spatial index over the seeds is passed, and sums the channels and counts the pixels of every
+   * cluster into its own accumulators. The accumulators of all bands are added up afterwards.
    *
-   * @param inputHeight height of the image
+   * @param pixels      packed ARGB values of the image
+   * @param clusters    index of the cluster of each pixel in row-major order, filled by this
+   *                    method if a spatial index is passed
+   * @param grid        spatial index over the seeds, null if the clusters are already assigned
    * @param inputWidth  width of the image
-   * @param pixels      2-D Pixel array containing the pixels
+   * @param inputHeight height of the image
+   * @param pool        pool on which the bands are processed
+   * @return opaque average color of each cluster
    */
-  private void assignPixelsToClusters(int inputHeight, int inputWidth, Pixel[][] pixels) {
-    for (int i = 0; i < inputHeight; i++) {
-      for (int j = 0; j < inputWidth; j++) {
-        Pixel currentPixel = pixels[j][i];
-        Double bestDistance = Double.POSITIVE_INFINITY;
-        int bestIndex = -1;
-        for (int k = 0; k < clusterList.size(); k++) {
-          Double tentativeDistance = clusterList.get(k).computeDistanceFromSeed(currentPixel,
-              (pixel1, pixel2) -> Math.sqrt(Math.pow(pixel1.getColumn() - pixel2.getColumn(), 2)
-                      + Math.pow(pixel1.getRow() - pixel2.getRow(), 2)));
-          if (tentativeDistance == 0) {
-            bestDistance = tentativeDistance;
-            break;
-          }
-          if (tentativeDistance < bestDistance) {
-            bestDistance = tentativeDistance;
-            bestIndex = k;
+  private int[] computeAverageColors(int[] pixels, int[] clusters, SeedGrid grid,
+                                     int inputWidth, int inputHeight, ForkJoinPool pool) {
+    int bands = Math.max(1, Math.min(pool.getParallelism(),
+            (int) ((long) pixels.length / MIN_PIXELS_PER_TASK)));
+    // red, green and blue sums and the size of every cluster, for every band
+    long[][] sums = new long[bands][];
+    Parallelism.forEachRange(pool, 0, bands, 1, (startBand, endBand) -> {
+      for (int band = startBand; band < endBand; band++) {
+        long[] bandSums = new long[4 * noOfSeeds];
+        int startRow = (int) ((long) inputHeight * band / bands);
+        int endRow = (int) ((long) inputHeight * (band + 1) / bands);
+        for (int y = startRow; y < endRow; y++) {
+          int rowStart = y * inputWidth;
+          for (int x = 0; x < inputWidth; x++) {
+            int i = rowStart + x;
+            if (grid != null) {
+              clusters[i] = grid.nearest(x, y);
+            }
+            int cluster = 4 * clusters[i];
+            int argb = pixels[i];
+            bandSums[cluster] += (argb >> 16) & 0xff;
+            bandSums[cluster + 1] += (argb >> 8) & 0xff;
+            bandSums[cluster + 2] += argb & 0xff;
+            bandSums[cluster + 3]++;
           }
         }
-        if (bestDistance > 0) {
-          clusterList.get(bestIndex).addToCluster(currentPixel);
-        }
+        sums[band] = bandSums;
+      }
+    });
+    for (int band = 1; band < bands; band++) {
+      for (int i = 0; i < sums[0].length; i++) {
+        sums[0][i] += sums[band][i];
       }
     }
+
+    long[] total = sums[0];
+    int[] averageColors = new int[noOfSeeds];
+    for (int k = 0; k < noOfSeeds; k++) {
+      long size = total[4 * k + 3];
+      averageColors[k] = 0xff000000
+              | (int) (total[4 * k] / size) << 16
+              | (int) (total[4 * k + 1] / size) << 8
+              | (int) (total[4 * k + 2] / size);
+    }
+    return averageColors;
   }
-}
\ No newline at end of file
+}
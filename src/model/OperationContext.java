@@ -0,0 +1,124 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class represents the operation (typically a command of a script or of the interactive
+ * session) on whose behalf the parallel engines of the model process an image. The operation is
+ * identified by a unique id, and described by the type of its transformer and the dimensions of
+ * the image it processes.
+ *
+ * <p>The operation is attached to the thread that opens it until it is closed. The parallel
+ * engines pass it on to the tasks they submit, so that every {@link TileEvent} can be linked to
+ * the operation it belongs to, even when several operations run at the same time.
+ */
+public final class OperationContext implements AutoCloseable {
+  private static final AtomicLong IDS = new AtomicLong();
+  private static final ThreadLocal<OperationContext> CURRENT = new ThreadLocal<>();
+
+  private final long id;
+  private final String transformer;
+  private final int width;
+  private final int height;
+  private final OperationContext previous;
+
+  /**
+   * Private constructor that creates the context of an operation.
+   *
+   * @param id          unique id of the operation
+   * @param transformer type of the transformer of the operation
+   * @param width       width of the image processed by the operation
+   * @param height      height of the image processed by the operation
+   * @param previous    context that was attached to the thread before this one
+   */
+  private OperationContext(long id, String transformer, int width, int height,
+                           OperationContext previous) {
+    this.id = id;
+    this.transformer = transformer;
+    this.width = width;
+    this.height = height;
+    this.previous = previous;
+  }
+
+  /**
+   * Opens a new operation and attaches it to the current thread until it is closed.
+   *
+   * @param transformer type of the transformer of the operation
+   * @param width       width of the image processed by the operation, 0 when there is none
+   * @param height      height of the image processed by the operation, 0 when there is none
+   * @return the context of the operation
+   */
+  public static OperationContext open(String transformer, int width, int height) {
+    OperationContext context = new OperationContext(IDS.incrementAndGet(), transformer, width,
+            height, CURRENT.get());
+    CURRENT.set(context);
+    return context;
+  }
+
+  /**
+   * Returns the operation attached to the current thread.
+   *
+   * @return context of the operation, null when no operation is attached
+   */
+  static OperationContext current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Attaches the specified operation to the current thread, e.g. to a worker running a task on
+   * its behalf.
+   *
+   * @param context context of the operation, may be null
+   * @return the context that was attached to the thread before
+   */
+  static OperationContext attach(OperationContext context) {
+    OperationContext detached = CURRENT.get();
+    CURRENT.set(context);
+    return detached;
+  }
+
+  /**
+   * Returns the unique id of the operation.
+   *
+   * @return id of the operation
+   */
+  public long getId() {
+    return id;
+  }
+
+  /**
+   * Returns the type of the transformer of the operation.
+   *
+   * @return type of the transformer
+   */
+  public String getTransformer() {
+    return transformer;
+  }
+
+  /**
+   * Returns the width of the image processed by the operation.
+   *
+   * @return width of the image, 0 when there is none
+   */
+  public int getWidth() {
+    return width;
+  }
+
+  /**
+   * Returns the height of the image processed by the operation.
+   *
+   * @return height of the image, 0 when there is none
+   */
+  public int getHeight() {
+    return height;
+  }
+
+  /**
+   * Detaches the operation from the current thread, attaching back the operation that was
+   * attached before it was opened.
+   */
+  @Override
+  public void close() {
+    CURRENT.set(previous);
+  }
+}
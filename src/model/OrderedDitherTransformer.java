@@ -0,0 +1,109 @@
+package model;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * This class represents a transformer that converts the image into its dithered form by ordered
+ * dithering. The image is first converted to greyscale, then every pixel is compared with the
+ * threshold of its position in a small threshold matrix that is repeated over the image, and
+ * turns white if its intensity reaches the threshold and black otherwise.
+ *
+ * <p>Unlike error diffusion, the result of a pixel does not depend on any other pixel, so the
+ * rows are processed fully in parallel and the loop over a row is a plain comparison against a row
+ * of the threshold matrix. The result has a visible pattern (regular for Bayer matrices, grainy for
+ * blue noise) instead of the finer detail of error diffusion, in exchange for a much higher
+ * throughput. Like error diffusion, the result is a {@link BinaryImage}.
+ */
+public class OrderedDitherTransformer implements ImageTransformer {
+  private static final int MIN_PIXELS_PER_TASK = 1 << 14;
+
+  private final int matrixWidth;
+  private final int matrixHeight;
+  private final int[] thresholds;
+
+  /**
+   * Constructs the transformer that dithers with the specified threshold matrix. The matrix holds
+   * the rank of every pixel of the tile, i.e. the order in which the pixels turn white as the
+   * intensity increases, from 0 to the number of entries of the matrix minus one. The ranks are
+   * scaled to thresholds spread evenly over the range of intensities.
+   *
+   * @param matrix ranks of the pixels of the tile that is repeated over the image
+   * @throws IllegalArgumentException when the matrix is empty or not rectangular, or when a rank
+   *                                  lies outside the range of ranks
+   */
+  public OrderedDitherTransformer(int[][] matrix) throws IllegalArgumentException {
+    if (matrix == null || matrix.length == 0 || matrix[0] == null || matrix[0].length == 0) {
+      throw new IllegalArgumentException("Threshold matrix cannot be empty.");
+    }
+    this.matrixHeight = matrix.length;
+    this.matrixWidth = matrix[0].length;
+    int levels = matrixWidth * matrixHeight;
+    this.thresholds = new int[levels];
+    for (int i = 0; i < matrixHeight; i++) {
+      if (matrix[i] == null || matrix[i].length != matrixWidth) {
+        throw new IllegalArgumentException("Threshold matrix must be rectangular.");
+      }
+      for (int j = 0; j < matrixWidth; j++) {
+        int rank = matrix[i][j];
+        if (rank < 0 || rank >= levels) {
+          throw new IllegalArgumentException("Ranks of the threshold matrix must lie between 0 "
+                  + "and the number of its entries minus one.");
+        }
+        // the middle of the interval of intensities covered by the rank, at least 1 so that
+        // black stays black (white is turned into an intensity of 254 by the greyscale filter)
+        thresholds[i * matrixWidth + j] = Math.max(1, (2 * rank + 1) * 255 / (2 * levels));
+      }
+    }
+  }
+
+  /**
+   * Returns the transformer that dithers with the Bayer matrix of the specified size.
+   *
+   * @param size number of rows and columns of the Bayer matrix: 2, 4, 8 or 16
+   * @return the transformer
+   * @throws IllegalArgumentException when the size is not supported
+   */
+  public static OrderedDitherTransformer bayer(int size) throws IllegalArgumentException {
+    if (size != 2 && size != 4 && size != 8 && size != 16) {
+      throw new IllegalArgumentException("Size of a Bayer matrix must be 2, 4, 8 or 16.");
+    }
+    return new OrderedDitherTransformer(ThresholdMatrix.bayer(size));
+  }
+
+  /**
+   * Returns the transformer that dithers with a 32x32 blue noise matrix.
+   *
+   * @return the transformer
+   */
+  public static OrderedDitherTransformer blueNoise() {
+    return new OrderedDitherTransformer(ThresholdMatrix.blueNoise());
+  }
+
+  @Override
+  public BinaryImage applyOn(Image image) {
+    GreyscaleReader reader = new GreyscaleReader(image);
+    int width = reader.getWidth();
+    int height = reader.getHeight();
+    BinaryImage filteredImage = new BinaryImage(width, height);
+
+    ForkJoinPool pool = Parallelism.getPool();
+    int grain = Parallelism.grainSize(pool, height, width, MIN_PIXELS_PER_TASK);
+    Parallelism.forEachRange(pool, 0, height, grain, (startRow, endRow) -> {
+      int[] intensities = new int[width];
+      for (int y = startRow; y < endRow; y++) {
+        reader.readRow(y, 0, width, intensities);
+        int thresholdRow = (y % matrixHeight) * matrixWidth;
+        int column = 0;
+        for (int x = 0; x < width; x++) {
+          if (intensities[x] >= thresholds[thresholdRow + column]) {
+            filteredImage.setWhite(x, y);
+          }
+          if (++column == matrixWidth) {
+            column = 0;
+          }
+        }
+      }
+    });
+    return filteredImage;
+  }
+}
@@ -0,0 +1,121 @@
+package model;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * This class represents a palette of up to 256 opaque colors together with an inverse colormap
+ * that finds the palette color closest to any color in constant time. The inverse colormap divides
+ * the RGB cube into 32 x 64 x 32 cells, using the 5, 6 and 5 most significant bits of the red,
+ * green and blue components, and stores for every cell the index of the palette color closest to
+ * the center of the cell. It is computed once, in parallel, when the palette is created.
+ *
+ * <p>The color returned for a pixel is therefore the palette color closest to the center of its
+ * cell, which can differ from the exactly closest color for colors that lie almost equally far
+ * from two palette colors.
+ */
+public class Palette {
+  private static final int CELLS = 1 << 16;
+  private static final int MIN_CELLS_PER_TASK = 1 << 11;
+
+  private final int[] colors;
+  private final byte[] inverseColormap;
+
+  /**
+   * Constructs the palette holding the specified colors. The transparency of the colors is
+   * ignored, all colors of the palette are opaque.
+   *
+   * @param colors packed RGB values of the colors
+   * @throws IllegalArgumentException when the palette holds no colors or more than 256 colors
+   */
+  public Palette(int[] colors) throws IllegalArgumentException {
+    if (colors == null || colors.length < 1 || colors.length > 256) {
+      throw new IllegalArgumentException("A palette must hold between 1 and 256 colors.");
+    }
+    this.colors = new int[colors.length];
+    for (int i = 0; i < colors.length; i++) {
+      this.colors[i] = 0xff000000 | colors[i];
+    }
+    this.inverseColormap = new byte[CELLS];
+    ForkJoinPool pool = Parallelism.getPool();
+    int grain = Parallelism.grainSize(pool, CELLS, colors.length, MIN_CELLS_PER_TASK);
+    Parallelism.forEachRange(pool, 0, CELLS, grain, this::fillInverseColormap);
+  }
+
+  /**
+   * Returns the number of colors of the palette.
+   *
+   * @return number of colors
+   */
+  public int size() {
+    return colors.length;
+  }
+
+  /**
+   * Returns the color at the specified index of the palette.
+   *
+   * @param index index of the color
+   * @return packed ARGB value of the color
+   * @throws IndexOutOfBoundsException when the index lies outside the palette
+   */
+  public int getColor(int index) throws IndexOutOfBoundsException {
+    return colors[index];
+  }
+
+  /**
+   * Returns the colors of the palette.
+   *
+   * @return packed ARGB values of the colors
+   */
+  public int[] getColors() {
+    return colors.clone();
+  }
+
+  /**
+   * Returns the number of bytes taken by the colors of the palette and its inverse colormap.
+   *
+   * @return number of bytes retained by the palette
+   */
+  public long getRetainedBytes() {
+    return 4L * colors.length + inverseColormap.length;
+  }
+
+  /**
+   * Returns the index of the palette color closest to the specified color, as found by the
+   * inverse colormap.
+   *
+   * @param rgb packed RGB value of the color, the transparency is ignored
+   * @return index of the closest palette color
+   */
+  public int nearest(int rgb) {
+    int cell = ((rgb >> 8) & 0xf800) | ((rgb >> 5) & 0x07e0) | ((rgb >> 3) & 0x001f);
+    return inverseColormap[cell] & 0xff;
+  }
+
+  /**
+   * Private helper that computes the entries of the inverse colormap for a range of cells.
+   *
+   * @param startCell first cell of the range
+   * @param endCell   cell after the last cell of the range
+   */
+  private void fillInverseColormap(int startCell, int endCell) {
+    for (int cell = startCell; cell < endCell; cell++) {
+      int red = ((cell >> 8) & 0xf8) | 0x4;
+      int green = ((cell >> 3) & 0xfc) | 0x2;
+      int blue = ((cell << 3) & 0xf8) | 0x4;
+      int bestIndex = 0;
+      int bestDistance = Integer.MAX_VALUE;
+      for (int i = 0; i < colors.length; i++) {
+        int redDistance = red - ((colors[i] >> 16) & 0xff);
+        int greenDistance = green - ((colors[i] >> 8) & 0xff);
+        int blueDistance = blue - (colors[i] & 0xff);
+        int distance = redDistance * redDistance + greenDistance * greenDistance
+                + blueDistance * blueDistance;
+        if (distance < bestDistance) {
+          bestDistance = distance;
+          bestIndex = i;
+        }
+      }
+      inverseColormap[cell] = (byte) bestIndex;
+    }
+  }
+}
@@ -0,0 +1,124 @@
+package model;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * This class represents a transformer that reduces the colors of the image to a palette of at
+ * most the specified number of colors. The palette is built from the colors of the image by median
+ * cut, and every pixel is replaced by the closest color of the palette, found in constant time by
+ * the inverse colormap of the palette. The result is an {@link IndexedImage}.
+ *
+ * <p>Optionally the image is dithered: the difference between a pixel and its palette color is
+ * diffused into the neighbouring pixels with the Floyd-Steinberg weights, separately for every
+ * component, in a single streaming pass over the rows that keeps the diffused error of two rows.
+ * Without dithering the pixels are mapped independently of each other, in parallel.
+ */
+public class PaletteTransformer implements ImageTransformer {
+  private static final int MIN_PIXELS_PER_TASK = 1 << 14;
+
+  private final int colors;
+  private final boolean dither;
+
+  /**
+   * Constructs the transformer that reduces the colors of the image to the specified number of
+   * colors.
+   *
+   * @param colors maximum number of colors of the palette, between 2 and 256
+   * @param dither true if the quantization error is diffused into the neighbouring pixels
+   * @throws IllegalArgumentException when the number of colors is out of range
+   */
+  public PaletteTransformer(int colors, boolean dither) throws IllegalArgumentException {
+    if (colors < 2 || colors > 256) {
+      throw new IllegalArgumentException("Number of colors must lie between 2 and 256.");
+    }
+    this.colors = colors;
+    this.dither = dither;
+  }
+
+  @Override
+  public IndexedImage applyOn(Image image) {
+    RasterImageImpl source = RasterImageImpl.of(image);
+    int[] pixels = source.getRaster();
+    int width = source.getWidth();
+    int height = source.getHeight();
+    ForkJoinPool pool = Parallelism.getPool();
+    Palette palette = MedianCut.quantize(pixels, colors, pool);
+    byte[] indices = new byte[pixels.length];
+
+    if (dither) {
+      diffuse(pixels, indices, width, height, palette);
+    } else {
+      int grain = Parallelism.grainSize(pool, height, width, MIN_PIXELS_PER_TASK);
+      Parallelism.forEachRange(pool, 0, height, grain, (startRow, endRow) -> {
+        for (int i = startRow * width; i < endRow * width; i++) {
+          indices[i] = (byte) palette.nearest(pixels[i]);
+        }
+      });
+    }
+    return new IndexedImage(width, height, indices, palette);
+  }
+
+  /**
+   * Private helper that maps the pixels to the palette with Floyd-Steinberg error diffusion. The
+   * errors are kept in sixteenths for the current and the next row, with one spare column on each
+   * side so that the pixels along the edges need no special treatment.
+   *
+   * @param pixels  packed ARGB values of the image
+   * @param indices indices of the palette colors of the pixels
+   * @param width   width of the image
+   * @param height  height of the image
+   * @param palette palette to which the pixels are mapped
+   */
+  private static void diffuse(int[] pixels, byte[] indices, int width, int height,
+                              Palette palette) {
+    int[] currentErrors = new int[3 * (width + 2)];
+    int[] nextErrors = new int[3 * (width + 2)];
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        int pixel = pixels[y * width + x];
+        int e = 3 * (x + 1);
+        int red = clamp(((pixel >> 16) & 0xff) + currentErrors[e] / 16);
+        int green = clamp(((pixel >> 8) & 0xff) + currentErrors[e + 1] / 16);
+        int blue = clamp((pixel & 0xff) + currentErrors[e + 2] / 16);
+        int index = palette.nearest(red << 16 | green << 8 | blue);
+        indices[y * width + x] = (byte) index;
+
+        int color = palette.getColor(index);
+        spread(currentErrors, nextErrors, e, red - ((color >> 16) & 0xff));
+        spread(currentErrors, nextErrors, e + 1, green - ((color >> 8) & 0xff));
+        spread(currentErrors, nextErrors, e + 2, blue - (color & 0xff));
+      }
+      int[] row = currentErrors;
+      currentErrors = nextErrors;
+      nextErrors = row;
+      Arrays.fill(nextErrors, 0);
+    }
+  }
+
+  /**
+   * Private helper that diffuses the error of a component of a pixel into the component of the
+   * pixel to its right and of the three pixels below it.
+   *
+   * @param currentErrors errors of the current row
+   * @param nextErrors    errors of the next row
+   * @param e             position of the component of the pixel in the rows of errors
+   * @param error         difference between the component and the palette color
+   */
+  private static void spread(int[] currentErrors, int[] nextErrors, int e, int error) {
+    currentErrors[e + 3] += 7 * error;
+    nextErrors[e - 3] += 3 * error;
+    nextErrors[e] += 5 * error;
+    nextErrors[e + 3] += error;
+  }
+
+  /**
+   * Private helper that clamps a component to the range [0, 255].
+   *
+   * @param value value of the component
+   * @return the clamped value
+   */
+  private static int clamp(int value) {
+    return Math.max(0, Math.min(255, value));
+  }
+}
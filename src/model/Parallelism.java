@@ -0,0 +1,163 @@
+package model;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class holds the ForkJoinPool on which the parallel engines of the model (transformers and
+ * generators) run their tasks. By default the common pool of the JVM is used. A dedicated pool
+ * can be configured to bound or increase the number of worker threads used for image processing.
+ * It also provides the helper that splits a range of rows (or any other indices) into chunks that
+ * are processed in parallel on such a pool. The {@link OperationContext} of the caller is attached
+ * to the workers while they process its chunks, and every chunk is recorded as a
+ * {@link TileEvent} of that operation when a flight recording is running.
+ */
+public class Parallelism {
+
+  private static volatile ForkJoinPool pool = ForkJoinPool.commonPool();
+
+  /**
+   * Returns the pool on which the parallel engines of the model run by default.
+   *
+   * @return pool used for image processing
+   */
+  public static ForkJoinPool getPool() {
+    return pool;
+  }
+
+  /**
+   * Set the pool on which the parallel engines of the model run by default. Operations that are
+   * already running keep using the pool they were started on, including for their later passes, so
+   * the previous pool is not shut down: its workers terminate on their own once they stay idle.
+   *
+   * @param newPool pool to be used for image processing
+   * @throws IllegalArgumentException when the passed pool is null
+   */
+  public static void setPool(ForkJoinPool newPool) throws IllegalArgumentException {
+    if (newPool == null) {
+      throw new IllegalArgumentException("Pool cannot be null.");
+    }
+    pool = newPool;
+  }
+
+  /**
+   * Replace the pool used for image processing by a new pool with the specified number of worker
+   * threads.
+   *
+   * @param parallelism number of worker threads
+   * @throws IllegalArgumentException when the number of threads is not a positive value
+   */
+  public static void setParallelism(int parallelism) throws IllegalArgumentException {
+    if (parallelism < 1) {
+      throw new IllegalArgumentException("Parallelism must be a positive value.");
+    }
+    setPool(new ForkJoinPool(parallelism));
+  }
+
+  /**
+   * Returns the number of worker threads of the pool used for image processing.
+   *
+   * @return parallelism of the pool
+   */
+  public static int getParallelism() {
+    return pool.getParallelism();
+  }
+
+  /**
+   * Processes the indices in the range [start, end) in parallel on the specified pool. The range
+   * is split recursively into halves until a chunk holds at most the specified number of indices,
+   * each chunk is then passed to the action. The method returns once all chunks are processed.
+   *
+   * @param pool   pool on which the chunks are processed
+   * @param start  first index of the range
+   * @param end    index after the last index of the range
+   * @param grain  maximum number of indices in a chunk
+   * @param action action that processes a chunk
+   */
+  public static void forEachRange(ForkJoinPool pool, int start, int end, int grain,
+                                  RangeAction action) {
+    if (start >= end) {
+      return;
+    }
+    pool.invoke(new RangeTask(start, end, Math.max(1, grain), action,
+            OperationContext.current()));
+  }
+
+  /**
+   * Returns the number of indices per chunk that splits the specified number of indices into
+   * enough chunks to keep all workers of the pool busy, while keeping at least the specified
+   * amount of work in every chunk.
+   *
+   * @param pool          pool on which the chunks are processed
+   * @param count         number of indices to be processed
+   * @param workPerIndex  amount of work associated with a single index (e.g. pixels per row)
+   * @param minimumWork   minimum amount of work in a chunk
+   * @return number of indices per chunk
+   */
+  public static int grainSize(ForkJoinPool pool, int count, int workPerIndex, int minimumWork) {
+    int byWork = minimumWork / Math.max(1, workPerIndex);
+    int byWorkers = count / (4 * pool.getParallelism());
+    return Math.max(1, Math.max(byWork, byWorkers));
+  }
+
+  /**
+   * This interface represents an action that processes a chunk of a range of indices.
+   */
+  public interface RangeAction {
+    /**
+     * Process the indices in the range [start, end).
+     *
+     * @param start first index of the chunk
+     * @param end   index after the last index of the chunk
+     */
+    void apply(int start, int end);
+  }
+
+  /**
+   * This class represents the task that processes a chunk of a range of indices. Chunks larger
+   * than the grain are split in two halves that are processed in parallel.
+   */
+  private static class RangeTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final int start;
+    private final int end;
+    private final int grain;
+    private final RangeAction action;
+    private final OperationContext context;
+
+    /**
+     * Construct the task for the specified chunk.
+     *
+     * @param start   first index of the chunk
+     * @param end     index after the last index of the chunk
+     * @param grain   maximum number of indices that are processed without splitting
+     * @param action  action that processes a chunk
+     * @param context operation on whose behalf the chunk is processed, may be null
+     */
+    private RangeTask(int start, int end, int grain, RangeAction action,
+                      OperationContext context) {
+      this.start = start;
+      this.end = end;
+      this.grain = grain;
+      this.action = action;
+      this.context = context;
+    }
+
+    @Override
+    protected void compute() {
+      if (end - start <= grain) {
+        OperationContext detached = OperationContext.attach(context);
+        try {
+          TileEvent.apply(action, start, end, context);
+        } finally {
+          OperationContext.attach(detached);
+        }
+        return;
+      }
+      int middle = (start + end) >>> 1;
+      invokeAll(new RangeTask(start, middle, grain, action, context),
+              new RangeTask(middle, end, grain, action, context));
+    }
+  }
+}
@@ -0,0 +1,49 @@
+package model;
+
+/**
+ * This interface extends the Image interface with raster level access to the pixels of the image.
+ * Pixels are exposed as packed ARGB integers (alpha in the highest byte, followed by red, green and
+ * blue) in row-major order, which allows transformers to read whole rows or regions of the image
+ * without creating a Pixel or Color object for every pixel.
+ */
+public interface RasterImage extends Image {
+  /**
+   * Returns the packed ARGB value of the pixel at the specified position.
+   *
+   * @param x column of the pixel
+   * @param y row of the pixel
+   * @return packed ARGB value of the pixel
+   * @throws IndexOutOfBoundsException when the position lies outside the image
+   */
+  int getRGB(int x, int y) throws IndexOutOfBoundsException;
+
+  /**
+   * Copies the packed ARGB values of a single row of the image into the destination array,
+   * starting at the specified offset.
+   *
+   * @param y           row of the image to be copied
+   * @param destination array into which the row is copied
+   * @param offset      index in the destination array at which the first pixel is stored
+   * @throws IndexOutOfBoundsException when the row lies outside the image or the destination is
+   *                                   too small to hold the row
+   */
+  void getRow(int y, int[] destination, int offset) throws IndexOutOfBoundsException;
+
+  /**
+   * Copies the packed ARGB values of a rectangular region of the image into the destination array.
+   * The pixel at (x + i, y + j) is stored at index offset + j * scansize + i of the array. If the
+   * destination array is null, a new array large enough to hold the region is allocated.
+   *
+   * @param x           column of the top left corner of the region
+   * @param y           row of the top left corner of the region
+   * @param width       width of the region
+   * @param height      height of the region
+   * @param destination array into which the region is copied, may be null
+   * @param offset      index in the destination array at which the first pixel is stored
+   * @param scansize    distance between the start of two consecutive rows in the destination
+   * @return the array containing the pixels of the region
+   * @throws IndexOutOfBoundsException when the region lies outside the image
+   */
+  int[] getRGB(int x, int y, int width, int height, int[] destination, int offset, int scansize)
+          throws IndexOutOfBoundsException;
+}
@@ -0,0 +1,247 @@
+package model;
+
+/**
+ * This class represents an image whose pixels are stored in a single packed raster. Every pixel
+ * occupies one integer holding its ARGB value and the pixels are laid out in row-major order, so
+ * the pixel at column x and row y is stored at index y * width + x. Compared to a matrix of Pixel
+ * objects this representation needs four bytes per pixel and can be processed by the transformers
+ * without allocating any objects per pixel. The Pixel based methods of the Image interface are
+ * supported as a compatibility view that is created on demand.
+ */
+public class RasterImageImpl implements RasterImage {
+  private final int width;
+  private final int height;
+
+  private final int[] raster;
+
+  /**
+   * Construct an image of the specified dimensions in which all pixels are transparent black.
+   *
+   * @param width  width of the image
+   * @param height height of the image
+   * @throws IllegalArgumentException when the dimensions are not positive values
+   */
+  public RasterImageImpl(int width, int height) throws IllegalArgumentException {
+    this(width, height, new int[checkDimensions(width, height)]);
+  }
+
+  /**
+   * Construct an image of the specified dimensions backed by the passed raster. The raster is not
+   * copied, it becomes the storage of the image and should not be modified by the caller
+   * afterwards.
+   *
+   * @param width  width of the image
+   * @param height height of the image
+   * @param raster packed ARGB values of the pixels in row-major order
+   * @throws IllegalArgumentException when the dimensions are not positive values or the raster
+   *                                  does not match the dimensions
+   */
+  public RasterImageImpl(int width, int height, int[] raster) throws IllegalArgumentException {
+    if (raster == null || raster.length != checkDimensions(width, height)) {
+      throw new IllegalArgumentException("Raster does not match the dimensions of the image.");
+    }
+    this.width = width;
+    this.height = height;
+    this.raster = raster;
+  }
+
+  /**
+   * Returns the packed raster representation of the passed image. If the image already is a
+   * RasterImageImpl it is returned as it is, otherwise its pixels are copied into a new raster.
+   *
+   * @param image image whose raster representation is required
+   * @return raster representation of the image
+   */
+  public static RasterImageImpl of(Image image) {
+    if (image instanceof RasterImageImpl) {
+      return (RasterImageImpl) image;
+    }
+    int imageWidth = image.getWidth();
+    int imageHeight = image.getHeight();
+    if (image instanceof RasterImage) {
+      int[] pixels = ((RasterImage) image).getRGB(0, 0, imageWidth, imageHeight, null, 0,
+              imageWidth);
+      return new RasterImageImpl(imageWidth, imageHeight, pixels);
+    }
+    return new RasterImageImpl(imageWidth, imageHeight, image.getPixelArray());
+  }
+
+  /**
+   * Returns the raster backing this image. The array is shared with the image and not copied, so
+   * callers are expected to treat it as read only unless they are building the image.
+   *
+   * @return packed ARGB values of the pixels in row-major order
+   */
+  public int[] getRaster() {
+    return raster;
+  }
+
+  @Override
+  public int getRGB(int x, int y) throws IndexOutOfBoundsException {
+    checkRegion(x, y, 1, 1);
+    return raster[y * width + x];
+  }
+
+  @Override
+  public void getRow(int y, int[] destination, int offset) throws IndexOutOfBoundsException {
+    checkRegion(0, y, width, 1);
+    System.arraycopy(raster, y * width, destination, offset, width);
+  }
+
+  @Override
+  public int[] getRGB(int x, int y, int width, int height, int[] destination, int offset,
+                      int scansize) throws IndexOutOfBoundsException {
+    checkRegion(x, y, width, height);
+    if (destination == null) {
+      destination = new int[offset + height * scansize];
+    }
+    for (int j = 0; j < height; j++) {
+      System.arraycopy(raster, (y + j) * this.width + x, destination, offset + j * scansize,
+              width);
+    }
+    return destination;
+  }
+
+  /**
+   * Set the packed ARGB value of the pixel at the specified position.
+   *
+   * @param x    column of the pixel
+   * @param y    row of the pixel
+   * @param argb packed ARGB value of the pixel
+   * @throws IndexOutOfBoundsException when the position lies outside the image
+   */
+  public void setRGB(int x, int y, int argb) throws IndexOutOfBoundsException {
+    checkRegion(x, y, 1, 1);
+    raster[y * width + x] = argb;
+  }
+
+  /**
+   * Copies a single row of packed ARGB values from the source array into the image.
+   *
+   * @param y      row of the image to be set
+   * @param source array containing the packed ARGB values of the row
+   * @param offset index in the source array of the first pixel of the row
+   * @throws IndexOutOfBoundsException when the row lies outside the image or the source is too
+   *                                   small to hold the row
+   */
+  public void setRow(int y, int[] source, int offset) throws IndexOutOfBoundsException {
+    checkRegion(0, y, width, 1);
+    System.arraycopy(source, offset, raster, y * width, width);
+  }
+
+  /**
+   * Copies a rectangular region of packed ARGB values from the source array into the image. The
+   * value at index offset + j * scansize + i of the array is stored at (x + i, y + j).
+   *
+   * @param x        column of the top left corner of the region
+   * @param y        row of the top left corner of the region
+   * @param width    width of the region
+   * @param height   height of the region
+   * @param source   array containing the packed ARGB values of the region
+   * @param offset   index in the source array of the first pixel of the region
+   * @param scansize distance between the start of two consecutive rows in the source
+   * @throws IndexOutOfBoundsException when the region lies outside the image
+   */
+  public void setRGB(int x, int y, int width, int height, int[] source, int offset, int scansize)
+          throws IndexOutOfBoundsException {
+    checkRegion(x, y, width, height);
+    for (int j = 0; j < height; j++) {
+      System.arraycopy(source, offset + j * scansize, raster, (y + j) * this.width + x, width);
+    }
+  }
+
+  @Override
+  public int[] getPixelArray() {
+    return raster.clone();
+  }
+
+  @Override
+  public int getWidth() {
+    return width;
+  }
+
+  @Override
+  public int getHeight() {
+    return height;
+  }
+
+  @Override
+  public Pixel[][] getPixels() {
+    Pixel[][] pixels = new PixelImpl[width][height];
+    for (int i = 0; i < width; i++) {
+      for (int j = 0; j < height; j++) {
+        int argb = raster[j * width + i];
+        pixels[i][j] = new PixelImpl(Color.getBuilder()
+                .red((argb >> 16) & 0xff)
+                .green((argb >> 8) & 0xff)
+                .blue(argb & 0xff)
+                .transparency((argb >>> 24))
+                .build(), j, i);
+      }
+    }
+    return pixels;
+  }
+
+  @Override
+  public Image transform(ImageTransformer transformer) {
+    return transformer.applyOn(this);
+  }
+
+  @Override
+  public long getRetainedBytes() {
+    return 4L * raster.length;
+  }
+
+  /**
+   * Returns the representation of the image as a 2D matrix of the ARGB values of its pixels.
+   *
+   * @return 2D matrix representation of pixels stored within the image
+   */
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < height; i++) {
+      for (int j = 0; j < width; j++) {
+        builder.append(raster[i * width + j]).append(" ");
+      }
+      builder.append("\n");
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Private helper that verifies that the specified region lies within the image.
+   *
+   * @param x      column of the top left corner of the region
+   * @param y      row of the top left corner of the region
+   * @param width  width of the region
+   * @param height height of the region
+   * @throws IndexOutOfBoundsException when the region lies outside the image
+   */
+  private void checkRegion(int x, int y, int width, int height) {
+    if (x < 0 || y < 0 || width < 0 || height < 0
+            || x + width > this.width || y + height > this.height) {
+      throw new IndexOutOfBoundsException("Region lies outside the bounds of the image.");
+    }
+  }
+
+  /**
+   * Private helper that verifies the dimensions of an image and returns its number of pixels.
+   *
+   * @param width  width of the image
+   * @param height height of the image
+   * @return number of pixels in the image
+   * @throws IllegalArgumentException when the dimensions are not positive values or the image has
+   *                                  too many pixels to be stored in a single raster
+   */
+  private static int checkDimensions(int width, int height) {
+    if (width < 1 || height < 1) {
+      throw new IllegalArgumentException("Dimensions must be positive values.");
+    }
+    long size = (long) width * height;
+    if (size > Integer.MAX_VALUE - 8) {
+      throw new IllegalArgumentException("Image is too large to be stored in a single raster.");
+    }
+    return (int) size;
+  }
+}
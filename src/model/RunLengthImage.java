@@ -0,0 +1,273 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class represents an image made of a few colors in large uniform areas, such as the
+ * generated checkerboards, rainbows and flags. The colors are stored once in a palette. Every
+ * distinct row is stored once as a list of runs, each run being a number of consecutive pixels of
+ * the same color, and the rows of the image are grouped into bands of consecutive identical rows.
+ * The size of the image therefore depends on the number of color changes and not on the number of
+ * pixels: a checkerboard of 20000 x 20000 pixels takes a few hundred bytes.
+ *
+ * <p>The pixels of a row are only expanded into packed ARGB values when they are requested.
+ * Color transformations are applied to the palette, without expanding the image at all.
+ */
+public class RunLengthImage extends AbstractRasterImage {
+  private final int[] palette;
+  private final int[] bandEnds;
+  private final int[] bandRows;
+  private final int[][] runEnds;
+  private final int[][] runColors;
+
+  /**
+   * Private constructor that creates the image from its parts.
+   *
+   * @param width     width of the image
+   * @param height    height of the image
+   * @param palette   packed ARGB values of the colors
+   * @param bandEnds  row after the last row of every band
+   * @param bandRows  index of the distinct row of every band
+   * @param runEnds   column after the last column of every run of every distinct row
+   * @param runColors index in the palette of the color of every run of every distinct row
+   */
+  private RunLengthImage(int width, int height, int[] palette, int[] bandEnds, int[] bandRows,
+                         int[][] runEnds, int[][] runColors) {
+    super(width, height);
+    this.palette = palette;
+    this.bandEnds = bandEnds;
+    this.bandRows = bandRows;
+    this.runEnds = runEnds;
+    this.runColors = runColors;
+  }
+
+  /**
+   * Returns the colors of the image.
+   *
+   * @return packed ARGB values of the colors of the palette
+   */
+  public int[] getPalette() {
+    return palette.clone();
+  }
+
+  /**
+   * Returns the image in which every color of the palette is replaced by the color at the same
+   * index of the passed palette. The rows are shared with this image.
+   *
+   * @param newPalette packed ARGB values of the new colors
+   * @return the recolored image
+   * @throws IllegalArgumentException when the size of the new palette differs
+   */
+  public RunLengthImage withPalette(int[] newPalette) throws IllegalArgumentException {
+    if (newPalette == null || newPalette.length != palette.length) {
+      throw new IllegalArgumentException("The new palette must have as many colors as the old"
+              + " palette.");
+    }
+    return new RunLengthImage(width, height, newPalette.clone(), bandEnds, bandRows, runEnds,
+            runColors);
+  }
+
+  /**
+   * Returns the image as an indexed image of one byte per pixel, if it has at most 256 colors. Like
+   * every palette, the palette of the indexed image is opaque, so the transparency of the colors
+   * is not kept.
+   *
+   * @return the indexed image, null when the image has more than 256 colors
+   */
+  public IndexedImage toIndexedImage() {
+    if (palette.length > 256) {
+      return null;
+    }
+    byte[] indices = new byte[width * height];
+    for (int y = 0; y < height; y++) {
+      copyIndices(0, y, width, indices, y * width);
+    }
+    return new IndexedImage(width, height, indices, new Palette(palette));
+  }
+
+  /**
+   * Copies the indices in the palette of the colors of a part of a row of the image into the
+   * destination array. Only images of at most 256 colors have indices that fit in a byte.
+   *
+   * @param x           column of the first pixel
+   * @param y           row of the pixels
+   * @param length      number of pixels
+   * @param destination array receiving the indices
+   * @param offset      index in the destination array of the first pixel
+   * @throws IndexOutOfBoundsException when the part lies outside the image
+   */
+  public void copyIndices(int x, int y, int length, byte[] destination, int offset)
+          throws IndexOutOfBoundsException {
+    checkRegion(x, y, length, 1);
+    int row = findRow(y);
+    int run = findRun(row, x);
+    int end = x + length;
+    while (x < end) {
+      int runEnd = Math.min(end, runEnds[row][run]);
+      Arrays.fill(destination, offset, offset + runEnd - x, (byte) runColors[row][run]);
+      offset += runEnd - x;
+      x = runEnd;
+      run++;
+    }
+  }
+
+  @Override
+  public long getRetainedBytes() {
+    long ints = palette.length + bandEnds.length + bandRows.length;
+    for (int row = 0; row < runEnds.length; row++) {
+      ints += runEnds[row].length + runColors[row].length;
+    }
+    return 4 * ints;
+  }
+
+  @Override
+  protected void copyRow(int x, int y, int length, int[] destination, int offset) {
+    int row = findRow(y);
+    int run = findRun(row, x);
+    int end = x + length;
+    while (x < end) {
+      int runEnd = Math.min(end, runEnds[row][run]);
+      Arrays.fill(destination, offset, offset + runEnd - x, palette[runColors[row][run]]);
+      offset += runEnd - x;
+      x = runEnd;
+      run++;
+    }
+  }
+
+  /**
+   * Private helper that returns the index of the distinct row stored for a row of the image.
+   *
+   * @param y row of the image
+   * @return index of the distinct row
+   */
+  private int findRow(int y) {
+    int band = Arrays.binarySearch(bandEnds, y);
+    return bandRows[band < 0 ? -band - 1 : band + 1];
+  }
+
+  /**
+   * Private helper that returns the index of the run of a distinct row that holds a column.
+   *
+   * @param row index of the distinct row
+   * @param x   column of the image
+   * @return index of the run
+   */
+  private int findRun(int row, int x) {
+    int run = Arrays.binarySearch(runEnds[row], x);
+    return run < 0 ? -run - 1 : run + 1;
+  }
+
+  /**
+   * This class builds a run-length image from the bottom up, one band of identical rows at a
+   * time. Consecutive bands with the same row are merged and every distinct row is stored once.
+   */
+  public static class Builder {
+    private final int width;
+    private final int height;
+    private final Map<Integer, Integer> colorIndices = new HashMap<>();
+    private final List<Integer> palette = new ArrayList<>();
+    private final Map<List<Integer>, Integer> rowIndices = new HashMap<>();
+    private final List<int[]> runEnds = new ArrayList<>();
+    private final List<int[]> runColors = new ArrayList<>();
+    private final List<Integer> bandEnds = new ArrayList<>();
+    private final List<Integer> bandRows = new ArrayList<>();
+    private int rows;
+
+    /**
+     * Constructs the builder of an image of the specified dimensions.
+     *
+     * @param width  width of the image
+     * @param height height of the image
+     * @throws IllegalArgumentException when the dimensions are not positive values
+     */
+    public Builder(int width, int height) throws IllegalArgumentException {
+      if (width < 1 || height < 1) {
+        throw new IllegalArgumentException("Dimensions must be positive values.");
+      }
+      this.width = width;
+      this.height = height;
+    }
+
+    /**
+     * Appends the specified number of rows, all equal to the passed row, below the rows added so
+     * far.
+     *
+     * @param count number of rows to be added
+     * @param row   packed ARGB values of the pixels of the rows
+     * @return this builder
+     * @throws IllegalArgumentException when the row does not match the width of the image or the
+     *                                  image would have more rows than its height
+     */
+    public Builder addRows(int count, int[] row) throws IllegalArgumentException {
+      if (row == null || row.length != width) {
+        throw new IllegalArgumentException("Row does not match the width of the image.");
+      }
+      if (count < 0 || rows + count > height) {
+        throw new IllegalArgumentException("Rows do not match the height of the image.");
+      }
+      if (count == 0) {
+        return this;
+      }
+      List<Integer> runs = new ArrayList<>();
+      for (int x = 0; x < width; ) {
+        int color = row[x];
+        int end = x + 1;
+        while (end < width && row[end] == color) {
+          end++;
+        }
+        Integer index = colorIndices.get(color);
+        if (index == null) {
+          index = palette.size();
+          colorIndices.put(color, index);
+          palette.add(color);
+        }
+        runs.add(end);
+        runs.add(index);
+        x = end;
+      }
+      Integer rowIndex = rowIndices.get(runs);
+      if (rowIndex == null) {
+        rowIndex = runEnds.size();
+        rowIndices.put(runs, rowIndex);
+        int[] ends = new int[runs.size() / 2];
+        int[] colors = new int[runs.size() / 2];
+        for (int i = 0; i < ends.length; i++) {
+          ends[i] = runs.get(2 * i);
+          colors[i] = runs.get(2 * i + 1);
+        }
+        runEnds.add(ends);
+        runColors.add(colors);
+      }
+      rows += count;
+      int last = bandRows.size() - 1;
+      if (last >= 0 && bandRows.get(last).equals(rowIndex)) {
+        bandEnds.set(last, rows);
+      } else {
+        bandEnds.add(rows);
+        bandRows.add(rowIndex);
+      }
+      return this;
+    }
+
+    /**
+     * Returns the image consisting of the rows added so far.
+     *
+     * @return the image
+     * @throws IllegalStateException when fewer rows than the height of the image were added
+     */
+    public RunLengthImage build() throws IllegalStateException {
+      if (rows != height) {
+        throw new IllegalStateException("All rows of the image must be added before building it.");
+      }
+      return new RunLengthImage(width, height,
+              palette.stream().mapToInt(Integer::intValue).toArray(),
+              bandEnds.stream().mapToInt(Integer::intValue).toArray(),
+              bandRows.stream().mapToInt(Integer::intValue).toArray(),
+              runEnds.toArray(new int[0][]), runColors.toArray(new int[0][]));
+    }
+  }
+}
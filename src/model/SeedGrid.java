@@ -0,0 +1,116 @@
+package model;
+
+/**
+ * This class represents a spatial index over the seeds of a mosaic that finds the seed closest to
+ * a pixel. The image is divided into a uniform grid of square cells, sized such that every cell
+ * holds about two seeds on average, and the seeds of each cell are stored contiguously. The closest
+ * seed is found by examining the rings of cells around the cell of the pixel, moving outwards until
+ * no cell of the next ring can hold a closer seed. For seeds spread over the image this takes a
+ * constant number of distance computations per pixel, independent of the number of seeds.
+ *
+ * <p>Distances are compared as squared integers. When several seeds are equally close, the seed
+ * with the lowest index is returned, which is the seed a scan over all seeds in order would find.
+ */
+class SeedGrid {
+  private final int[] seedColumns;
+  private final int[] seedRows;
+  private final int cellSize;
+  private final int gridColumns;
+  private final int gridRows;
+  private final int[] cellStart;
+  private final int[] cellSeeds;
+
+  /**
+   * Constructs the index over the specified seeds of an image of the specified dimensions.
+   *
+   * @param width       width of the image
+   * @param height      height of the image
+   * @param seedColumns columns of the seeds
+   * @param seedRows    rows of the seeds
+   */
+  SeedGrid(int width, int height, int[] seedColumns, int[] seedRows) {
+    this.seedColumns = seedColumns;
+    this.seedRows = seedRows;
+    int seeds = seedColumns.length;
+    this.cellSize = Math.max(1, (int) Math.ceil(Math.sqrt(2.0 * width * height
+            / Math.max(1, seeds))));
+    this.gridColumns = (width + cellSize - 1) / cellSize;
+    this.gridRows = (height + cellSize - 1) / cellSize;
+
+    // counting sort of the seeds by cell, keeping the seeds of a cell in ascending order
+    this.cellStart = new int[gridColumns * gridRows + 1];
+    for (int k = 0; k < seeds; k++) {
+      cellStart[cellOf(seedColumns[k], seedRows[k]) + 1]++;
+    }
+    for (int c = 0; c < gridColumns * gridRows; c++) {
+      cellStart[c + 1] += cellStart[c];
+    }
+    this.cellSeeds = new int[seeds];
+    int[] next = new int[gridColumns * gridRows];
+    System.arraycopy(cellStart, 0, next, 0, next.length);
+    for (int k = 0; k < seeds; k++) {
+      cellSeeds[next[cellOf(seedColumns[k], seedRows[k])]++] = k;
+    }
+  }
+
+  /**
+   * Returns the index of the seed closest to the specified pixel.
+   *
+   * @param x column of the pixel
+   * @param y row of the pixel
+   * @return index of the closest seed, -1 if there are no seeds
+   */
+  int nearest(int x, int y) {
+    int cellX = x / cellSize;
+    int cellY = y / cellSize;
+    long bestDistance = Long.MAX_VALUE;
+    int bestIndex = -1;
+    int maximumRing = Math.max(Math.max(cellX, gridColumns - 1 - cellX),
+            Math.max(cellY, gridRows - 1 - cellY));
+    for (int ring = 0; ring <= maximumRing; ring++) {
+      if (ring > 0) {
+        // every pixel of a cell in this ring is at least this far away along one axis
+        long bound = (long) (ring - 1) * cellSize + 1;
+        if (bestDistance < bound * bound) {
+          break;
+        }
+      }
+      for (int dy = -ring; dy <= ring; dy++) {
+        int row = cellY + dy;
+        if (row < 0 || row >= gridRows) {
+          continue;
+        }
+        int step = (dy == -ring || dy == ring) ? 1 : 2 * ring;
+        for (int dx = -ring; dx <= ring; dx += step) {
+          int column = cellX + dx;
+          if (column < 0 || column >= gridColumns) {
+            continue;
+          }
+          int cell = row * gridColumns + column;
+          for (int s = cellStart[cell]; s < cellStart[cell + 1]; s++) {
+            int k = cellSeeds[s];
+            long columnDistance = x - seedColumns[k];
+            long rowDistance = y - seedRows[k];
+            long distance = columnDistance * columnDistance + rowDistance * rowDistance;
+            if (distance < bestDistance || (distance == bestDistance && k < bestIndex)) {
+              bestDistance = distance;
+              bestIndex = k;
+            }
+          }
+        }
+      }
+    }
+    return bestIndex;
+  }
+
+  /**
+   * Private helper that returns the cell containing the specified pixel.
+   *
+   * @param x column of the pixel
+   * @param y row of the pixel
+   * @return index of the cell in row-major order
+   */
+  private int cellOf(int x, int y) {
+    return (y / cellSize) * gridColumns + x / cellSize;
+  }
+}
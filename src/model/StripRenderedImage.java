@@ -0,0 +1,191 @@
+package model;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.ColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.DirectColorModel;
+import java.awt.image.IndexColorModel;
+import java.awt.image.Raster;
+import java.awt.image.RenderedImage;
+import java.awt.image.SampleModel;
+import java.awt.image.WritableRaster;
+import java.util.Vector;
+
+/**
+ * This class presents an image to ImageIO as a RenderedImage made of horizontal strips, whose
+ * pixels are only produced when a strip or a region is requested. Encoders such as the PNG and BMP
+ * writers of ImageIO request the image a row at a time, so an image whose rows are computed on
+ * demand (e.g. a generated {@link RunLengthImage}) is written with memory proportional to its
+ * width instead of its number of pixels.
+ *
+ * <p>Run-length images of at most 256 colors are presented as palette indices, packed as tightly as
+ * the number of colors allows, any other image as RGB values. As with the BufferedImage views of
+ * the images, the transparency is not presented.
+ */
+class StripRenderedImage implements RenderedImage {
+  private static final int[] RGB_MASKS = {0xff0000, 0xff00, 0xff};
+  private static final int PIXELS_PER_STRIP = 1 << 20;
+
+  private final RasterImage image;
+  private final RunLengthImage indexedImage;
+  private final ColorModel colorModel;
+  private final SampleModel sampleModel;
+  private final int stripHeight;
+
+  /**
+   * Constructs the view of the specified image.
+   *
+   * @param image   image to be presented
+   * @param indexed true to present a run-length image of at most 256 colors as palette indices,
+   *                false to present the RGB values of the image
+   */
+  StripRenderedImage(RasterImage image, boolean indexed) {
+    this.image = image;
+    this.stripHeight = Math.max(1, Math.min(image.getHeight(),
+            PIXELS_PER_STRIP / image.getWidth()));
+    int[] palette = image instanceof RunLengthImage ? ((RunLengthImage) image).getPalette()
+            : null;
+    if (indexed && palette != null && palette.length <= 256) {
+      this.indexedImage = (RunLengthImage) image;
+      this.colorModel = new IndexColorModel(BufferedImageAdapter.bitsPerIndex(palette.length),
+              palette.length, palette, 0, false, -1, DataBuffer.TYPE_BYTE);
+    } else {
+      this.indexedImage = null;
+      this.colorModel = new DirectColorModel(24, RGB_MASKS[0], RGB_MASKS[1], RGB_MASKS[2]);
+    }
+    this.sampleModel = colorModel.createCompatibleSampleModel(image.getWidth(), stripHeight);
+  }
+
+  @Override
+  public Vector<RenderedImage> getSources() {
+    return null;
+  }
+
+  @Override
+  public Object getProperty(String name) {
+    return java.awt.Image.UndefinedProperty;
+  }
+
+  @Override
+  public String[] getPropertyNames() {
+    return null;
+  }
+
+  @Override
+  public ColorModel getColorModel() {
+    return colorModel;
+  }
+
+  @Override
+  public SampleModel getSampleModel() {
+    return sampleModel;
+  }
+
+  @Override
+  public int getWidth() {
+    return image.getWidth();
+  }
+
+  @Override
+  public int getHeight() {
+    return image.getHeight();
+  }
+
+  @Override
+  public int getMinX() {
+    return 0;
+  }
+
+  @Override
+  public int getMinY() {
+    return 0;
+  }
+
+  @Override
+  public int getNumXTiles() {
+    return 1;
+  }
+
+  @Override
+  public int getNumYTiles() {
+    return (image.getHeight() + stripHeight - 1) / stripHeight;
+  }
+
+  @Override
+  public int getMinTileX() {
+    return 0;
+  }
+
+  @Override
+  public int getMinTileY() {
+    return 0;
+  }
+
+  @Override
+  public int getTileWidth() {
+    return image.getWidth();
+  }
+
+  @Override
+  public int getTileHeight() {
+    return stripHeight;
+  }
+
+  @Override
+  public int getTileGridXOffset() {
+    return 0;
+  }
+
+  @Override
+  public int getTileGridYOffset() {
+    return 0;
+  }
+
+  @Override
+  public Raster getTile(int tileX, int tileY) {
+    int y = tileY * stripHeight;
+    return getData(new Rectangle(0, y, image.getWidth(),
+            Math.min(stripHeight, image.getHeight() - y)));
+  }
+
+  @Override
+  public Raster getData() {
+    return getData(new Rectangle(0, 0, image.getWidth(), image.getHeight()));
+  }
+
+  @Override
+  public Raster getData(Rectangle rect) {
+    WritableRaster raster = Raster.createWritableRaster(
+            sampleModel.createCompatibleSampleModel(rect.width, rect.height),
+            new Point(rect.x, rect.y));
+    return copyData(raster);
+  }
+
+  @Override
+  public WritableRaster copyData(WritableRaster raster) {
+    if (raster == null) {
+      raster = Raster.createWritableRaster(sampleModel.createCompatibleSampleModel(
+              image.getWidth(), image.getHeight()), null);
+    }
+    Rectangle region = raster.getBounds()
+            .intersection(new Rectangle(0, 0, image.getWidth(), image.getHeight()));
+    if (region.isEmpty()) {
+      return raster;
+    }
+    if (indexedImage != null) {
+      byte[] row = new byte[region.width];
+      for (int y = region.y; y < region.y + region.height; y++) {
+        indexedImage.copyIndices(region.x, y, region.width, row, 0);
+        raster.setDataElements(region.x, y, region.width, 1, row);
+      }
+    } else {
+      int[] row = new int[region.width];
+      for (int y = region.y; y < region.y + region.height; y++) {
+        image.getRGB(region.x, y, region.width, 1, row, 0, region.width);
+        raster.setDataElements(region.x, y, region.width, 1, row);
+      }
+    }
+    return raster;
+  }
+}
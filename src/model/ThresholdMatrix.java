@@ -0,0 +1,181 @@
+package model;
+
+import java.util.Random;
+
+/**
+ * This class consists of methods that create the threshold matrices used for ordered dithering. A
+ * threshold matrix holds the rank of every pixel of a tile, that is the order in which the pixels
+ * of the tile turn white as the intensity increases. Both kinds of matrices hold every rank from 0
+ * to the number of pixels of the tile minus one exactly once.
+ *
+ * <p>Bayer matrices spread the ranks as evenly as possible over a regular pattern, which produces
+ * the characteristic cross-hatched look. The blue noise matrix is created by the void-and-cluster
+ * method: the pixels are ranked such that the white pixels of every level are spread out without
+ * a regular structure, which looks like fine grain. Creating it takes a few milliseconds, so it is
+ * created once, the first time it is needed, and shared afterwards.
+ */
+class ThresholdMatrix {
+  private static final int BLUE_NOISE_SIZE = 32;
+  private static final double BLUE_NOISE_SIGMA = 1.5;
+  private static final long BLUE_NOISE_RANDOM_SEED = 0x5eed;
+
+  /**
+   * Returns the Bayer matrix of the specified size. The matrix of size 2n is made of four copies
+   * of the matrix of size n, scaled by four and offset by 0, 2, 3 and 1.
+   *
+   * @param size number of rows and columns of the matrix, a power of two
+   * @return the Bayer matrix
+   */
+  static int[][] bayer(int size) {
+    int[][] matrix = {{0}};
+    for (int n = 1; n < size; n *= 2) {
+      int[][] next = new int[2 * n][2 * n];
+      for (int i = 0; i < n; i++) {
+        for (int j = 0; j < n; j++) {
+          int rank = 4 * matrix[i][j];
+          next[i][j] = rank;
+          next[i][j + n] = rank + 2;
+          next[i + n][j] = rank + 3;
+          next[i + n][j + n] = rank + 1;
+        }
+      }
+      matrix = next;
+    }
+    return matrix;
+  }
+
+  /**
+   * Returns the blue noise matrix. The returned matrix is shared and must not be modified.
+   *
+   * @return the blue noise matrix
+   */
+  static int[][] blueNoise() {
+    return BlueNoiseHolder.MATRIX;
+  }
+
+  /**
+   * This class holds the blue noise matrix, which is created when the class is first accessed.
+   */
+  private static class BlueNoiseHolder {
+    private static final int[][] MATRIX = voidAndCluster(BLUE_NOISE_SIZE, BLUE_NOISE_SIGMA,
+            BLUE_NOISE_RANDOM_SEED);
+  }
+
+  /**
+   * Private helper that creates a blue noise matrix by the void-and-cluster method. A sparse
+   * random pattern of white pixels is first relaxed by repeatedly moving the white pixel in the
+   * tightest cluster into the largest void, until that would not move it anymore (or at most as
+   * many times as there are pixels). The white pixels of the relaxed pattern are ranked by
+   * repeatedly removing the pixel in the tightest cluster, and the remaining pixels by repeatedly
+   * filling the largest void. Clusters and voids are measured by the sum of a Gaussian of the
+   * distance to every white pixel, wrapping around the edges of the tile so that tiles can be
+   * repeated without seams.
+   *
+   * @param size       number of rows and columns of the matrix
+   * @param sigma      standard deviation of the Gaussian
+   * @param randomSeed initial value of the random generator that creates the initial pattern
+   * @return the blue noise matrix
+   */
+  private static int[][] voidAndCluster(int size, double sigma, long randomSeed) {
+    int count = size * size;
+    double[] weights = new double[count];
+    for (int dy = 0; dy < size; dy++) {
+      for (int dx = 0; dx < size; dx++) {
+        int y = Math.min(dy, size - dy);
+        int x = Math.min(dx, size - dx);
+        weights[dy * size + dx] = Math.exp(-(x * x + y * y) / (2 * sigma * sigma));
+      }
+    }
+
+    boolean[] pattern = new boolean[count];
+    double[] energy = new double[count];
+    Random random = new Random(randomSeed);
+    for (int placed = 0; placed < count / 10; ) {
+      int pixel = random.nextInt(count);
+      if (!pattern[pixel]) {
+        pattern[pixel] = true;
+        updateEnergy(energy, weights, size, pixel, 1);
+        placed++;
+      }
+    }
+    for (int moves = 0; moves < count; moves++) {
+      int cluster = extremePixel(pattern, energy, true);
+      pattern[cluster] = false;
+      updateEnergy(energy, weights, size, cluster, -1);
+      int hole = extremePixel(pattern, energy, false);
+      pattern[hole] = true;
+      updateEnergy(energy, weights, size, hole, 1);
+      if (hole == cluster) {
+        break;
+      }
+    }
+
+    int[] ranks = new int[count];
+    int ones = 0;
+    for (boolean white : pattern) {
+      ones += white ? 1 : 0;
+    }
+    boolean[] removed = pattern.clone();
+    double[] removedEnergy = energy.clone();
+    for (int rank = ones - 1; rank >= 0; rank--) {
+      int cluster = extremePixel(removed, removedEnergy, true);
+      removed[cluster] = false;
+      updateEnergy(removedEnergy, weights, size, cluster, -1);
+      ranks[cluster] = rank;
+    }
+    for (int rank = ones; rank < count; rank++) {
+      int hole = extremePixel(pattern, energy, false);
+      pattern[hole] = true;
+      updateEnergy(energy, weights, size, hole, 1);
+      ranks[hole] = rank;
+    }
+
+    int[][] matrix = new int[size][size];
+    for (int i = 0; i < size; i++) {
+      System.arraycopy(ranks, i * size, matrix[i], 0, size);
+    }
+    return matrix;
+  }
+
+  /**
+   * Private helper that adds the Gaussian around a pixel to the energy of every pixel of the tile,
+   * or subtracts it.
+   *
+   * @param energy  energy of the pixels, which is updated
+   * @param weights Gaussian of the distance by offset between two pixels
+   * @param size    number of rows and columns of the tile
+   * @param pixel   pixel that turned white or black
+   * @param sign    1 if the pixel turned white, -1 if it turned black
+   */
+  private static void updateEnergy(double[] energy, double[] weights, int size, int pixel,
+                                   int sign) {
+    int pixelRow = pixel / size;
+    int pixelColumn = pixel % size;
+    for (int y = 0; y < size; y++) {
+      int rowOffset = ((y - pixelRow + size) % size) * size;
+      for (int x = 0; x < size; x++) {
+        energy[y * size + x] += sign * weights[rowOffset + (x - pixelColumn + size) % size];
+      }
+    }
+  }
+
+  /**
+   * Private helper that returns the white pixel of highest energy (the tightest cluster) or the
+   * black pixel of lowest energy (the largest void). Ties are broken by the lowest index.
+   *
+   * @param pattern colors of the pixels, true for white
+   * @param energy  energy of the pixels
+   * @param cluster true to find the tightest cluster, false to find the largest void
+   * @return index of the pixel
+   */
+  private static int extremePixel(boolean[] pattern, double[] energy, boolean cluster) {
+    int best = -1;
+    for (int i = 0; i < pattern.length; i++) {
+      if (pattern[i] == cluster && (best < 0
+              || (cluster ? energy[i] > energy[best] : energy[i] < energy[best]))) {
+        best = i;
+      }
+    }
+    return best;
+  }
+}
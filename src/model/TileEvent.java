@@ -0,0 +1,93 @@
+package model;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * This class represents the Java Flight Recorder event emitted for every chunk of rows (or other
+ * indices) processed by a task of the parallel engines. The engine is the class that submitted the
+ * work, and the tile is linked to the command it belongs to through the id of its
+ * {@link OperationContext}, so the tiles of commands running at the same time can be told apart.
+ * The event costs nothing when no recording is running.
+ */
+@Name("imageprocessing.Tile")
+@Label("Image Tile")
+@Category({"Image Processing", "Parallel Engines"})
+@Description("A chunk of rows or indices processed by a task of a parallel engine")
+class TileEvent extends jdk.jfr.Event {
+  private static final String LAMBDA_SUFFIX = "$$Lambda";
+
+  @Label("Engine")
+  @Description("Class of the engine that processed the tile")
+  String engine;
+
+  @Label("Command Id")
+  @Description("Id of the command the tile belongs to, 0 when it was not submitted by a command")
+  long commandId;
+
+  @Label("Transformer")
+  @Description("Type of the transformer of the command the tile belongs to")
+  String transformer;
+
+  @Label("Width")
+  @Description("Width of the image processed by the command, 0 when there is none")
+  int width;
+
+  @Label("Height")
+  @Description("Height of the image processed by the command, 0 when there is none")
+  int height;
+
+  @Label("Start")
+  @Description("First row or index of the tile")
+  int start;
+
+  @Label("End")
+  @Description("Row or index after the last one of the tile")
+  int end;
+
+  /**
+   * Processes a chunk with the specified action and records it when a recording asks for it.
+   *
+   * @param action  action that processes the chunk
+   * @param start   first index of the chunk
+   * @param end     index after the last index of the chunk
+   * @param context operation the chunk belongs to, may be null
+   */
+  static void apply(Parallelism.RangeAction action, int start, int end,
+                    OperationContext context) {
+    TileEvent event = new TileEvent();
+    event.begin();
+    action.apply(start, end);
+    event.end();
+    if (event.shouldCommit()) {
+      event.engine = engineOf(action);
+      if (context != null) {
+        event.commandId = context.getId();
+        event.transformer = context.getTransformer();
+        event.width = context.getWidth();
+        event.height = context.getHeight();
+      }
+      event.start = start;
+      event.end = end;
+      event.commit();
+    }
+  }
+
+  /**
+   * Private helper that returns the name of the class that created an action. The actions of the
+   * engines are lambdas, whose classes are named after the class that defines them.
+   *
+   * @param action action that processes a chunk
+   * @return simple name of the class that created the action
+   */
+  private static String engineOf(Parallelism.RangeAction action) {
+    String name = action.getClass().getName();
+    int lambda = name.indexOf(LAMBDA_SUFFIX);
+    if (lambda >= 0) {
+      name = name.substring(0, lambda);
+    }
+    return name.substring(name.lastIndexOf('.') + 1);
+  }
+}
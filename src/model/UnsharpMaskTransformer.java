@@ -0,0 +1,79 @@
+package model;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * This class represents a transformer that sharpens the image by unsharp masking. The image is
+ * blurred with a Gaussian and the difference between the image and its blurred version (the
+ * details of the image) is amplified and added back to the image:
+ * result = image + amount * (image - blurred). Since the Gaussian is computed with running sums,
+ * the cost per pixel does not depend on the standard deviation.
+ */
+public class UnsharpMaskTransformer implements ImageTransformer {
+
+  private static final int MIN_PIXELS_PER_TASK = 1 << 14;
+
+  private final GaussianBlurTransformer blur;
+  private final double amount;
+
+  /**
+   * Construct the transformer with the specified standard deviation of the Gaussian and the
+   * amount by which the details are amplified.
+   *
+   * @param sigma  standard deviation of the Gaussian in pixels
+   * @param amount factor by which the details are amplified
+   * @throws IllegalArgumentException when the standard deviation is not a positive value or the
+   *                                  amount is negative
+   */
+  public UnsharpMaskTransformer(double sigma, double amount) throws IllegalArgumentException {
+    if (!(amount >= 0) || Double.isInfinite(amount)) {
+      throw new IllegalArgumentException("Amount cannot be negative.");
+    }
+    this.blur = new GaussianBlurTransformer(sigma);
+    this.amount = amount;
+  }
+
+  @Override
+  public Image applyOn(Image image) {
+    RasterImageImpl source = RasterImageImpl.of(image);
+    int[] pixels = source.getRaster();
+    int[] blurred = RasterImageImpl.of(blur.applyOn(source)).getRaster();
+    int[] result = new int[pixels.length];
+    // the amount as a 16.16 fixed point number
+    long fixedAmount = Math.round(amount * 65536);
+
+    ForkJoinPool pool = Parallelism.getPool();
+    int grain = Parallelism.grainSize(pool, pixels.length, 1, MIN_PIXELS_PER_TASK);
+    Parallelism.forEachRange(pool, 0, pixels.length, grain, (start, end) -> {
+      for (int i = start; i < end; i++) {
+        int rgb = pixels[i];
+        int blurredRgb = blurred[i];
+        result[i] = (rgb & 0xff000000)
+                | (sharpenChannel((rgb >> 16) & 0xff, (blurredRgb >> 16) & 0xff, fixedAmount)
+                << 16)
+                | (sharpenChannel((rgb >> 8) & 0xff, (blurredRgb >> 8) & 0xff, fixedAmount) << 8)
+                | sharpenChannel(rgb & 0xff, blurredRgb & 0xff, fixedAmount);
+      }
+    });
+    return new RasterImageImpl(source.getWidth(), source.getHeight(), result);
+  }
+
+  /**
+   * Private helper that computes the sharpened value of a single channel, clamped to the range
+   * 0-255.
+   *
+   * @param value        value of the channel in the image
+   * @param blurredValue value of the channel in the blurred image
+   * @param fixedAmount  amount as a 16.16 fixed point number
+   * @return sharpened value of the channel
+   */
+  private static int sharpenChannel(int value, int blurredValue, long fixedAmount) {
+    long sharpened = value + (((value - blurredValue) * fixedAmount + 32768) >> 16);
+    return (int) Math.max(0, Math.min(sharpened, 255));
+  }
+
+  @Override
+  public String toString() {
+    return "unsharp mask " + blur.getSigma() + " " + amount;
+  }
+}
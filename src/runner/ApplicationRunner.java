@@ -3,8 +3,8 @@ package runner;
 import java.io.IOException;
 
 import controller.ImageProcessingController;
-import controller.ImageProcessingControllerImpl;
 import controller.InteractiveAppControllerImpl;
+import controller.PipelineStatistics;
 import view.ApplicationFrame;
 
 /**
@@ -12,7 +12,8 @@ import view.ApplicationFrame;
  * mode", pass the first argument as "-script" followed by a second argument representing the name
  * of the script file that would need to be run. To run the application in "interactive mode", pass
  * the first argument as "-interactive", which opens the Application frame for the user to interact
- * with.
+ * with. In both modes the statistics of the pipeline are registered with the platform MBean server,
+ * so that they can be monitored over JMX.
  */
 
 public class ApplicationRunner {
@@ -21,7 +22,8 @@ public class ApplicationRunner {
    * on the user input in the command line.
    *
    * @param args command line arguments (args[0] specifies the mode to run the application in and
-   *             args[1] specifies the path of of the command script file)
+   *             args[1] specifies the path of of the command script file, optionally followed
+   *             by --metrics, --metrics-report &lt;path&gt; and -threads &lt;n&gt;)
    * @throws IOException              when a problem is encountered while creating the readable
    *                                  object associated with the command script file
    * @throws IllegalArgumentException when no run mode or no script file or one that does not exist
@@ -33,13 +35,9 @@ public class ApplicationRunner {
       throw new IllegalArgumentException("Need to specify the the mode to run the application in."
               + " The supported modes are: 1) script 2) interactive");
     }
+    PipelineStatistics.register();
     if (args[0].equals("-script")) {
-      if (args.length == 1) {
-        throw new IllegalArgumentException("Need to specify the path of script file to be run.");
-      } else {
-        controller = new ImageProcessingControllerImpl(args[1]);
-        controller.execute();
-      }
+      new ScriptOptions(args, 1).run();
     } else if (args[0].equals("-interactive")) {
       ApplicationFrame view = new ApplicationFrame();
       controller = new InteractiveAppControllerImpl(view);
@@ -0,0 +1,127 @@
+package runner;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+import controller.CommandMetrics;
+import controller.ImageProcessingController;
+import controller.ImageProcessingControllerImpl;
+
+/**
+ * This class holds the options that can follow the path of the script in script mode, and runs
+ * the script accordingly. The supported options are:
+ * <ul>
+ *   <li>--metrics: the metrics of every command are written to the standard error as a JSON
+ *   object per line as soon as the command completes, followed by the JSON report of the run</li>
+ *   <li>--metrics-report &lt;path&gt;: the report of the metrics of all commands is written to the
+ *   file once the script has run, as CSV if the path ends with .csv, else as JSON</li>
+ *   <li>-threads &lt;n&gt;: up to n segments of the script (a load or generator command and the
+ *   commands that follow it) are run at the same time, one by default</li>
+ * </ul>
+ */
+class ScriptOptions {
+  private final String script;
+  private boolean metrics;
+  private String reportPath;
+  private int threads = 1;
+
+  /**
+   * Parses the path of the script and the options that follow it.
+   *
+   * @param args  command line arguments
+   * @param start index of the path of the script in the arguments
+   * @throws IllegalArgumentException when the path of the script is missing or an option is
+   *                                  unknown or incomplete
+   */
+  ScriptOptions(String[] args, int start) throws IllegalArgumentException {
+    if (args.length <= start) {
+      throw new IllegalArgumentException("Need to specify the path of script file to be run.");
+    }
+    this.script = args[start];
+    for (int i = start + 1; i < args.length; i++) {
+      if (args[i].equals("--metrics")) {
+        metrics = true;
+      } else if (args[i].equals("--metrics-report") && i + 1 < args.length) {
+        reportPath = args[++i];
+      } else if (args[i].equals("-threads") && i + 1 < args.length) {
+        threads = parseThreads(args[++i]);
+      } else {
+        throw new IllegalArgumentException("Unknown option " + args[i] + ". The supported options"
+                + " are --metrics, --metrics-report <path> and -threads <n>.");
+      }
+    }
+  }
+
+  /**
+   * Runs the script and writes the report of the metrics if it was requested. The report is also
+   * written when the script fails, covering the commands that were run.
+   *
+   * @throws IOException when a problem is encountered while running the script or writing the
+   *                     report
+   */
+  void run() throws IOException {
+    CommandMetrics recorder = null;
+    if (metrics || reportPath != null) {
+      recorder = new CommandMetrics(metrics ? System.err : null);
+    }
+    ImageProcessingController controller = new ImageProcessingControllerImpl(script, System.out,
+            recorder, threads);
+    try {
+      controller.execute();
+    } catch (IOException | RuntimeException e) {
+      if (recorder != null) {
+        try {
+          writeReport(recorder);
+        } catch (IOException reportFailure) {
+          e.addSuppressed(reportFailure);
+        }
+      }
+      throw e;
+    }
+    if (recorder != null) {
+      writeReport(recorder);
+    }
+  }
+
+  /**
+   * Private helper that writes the report of the metrics to the requested file, or to the
+   * standard error when no file was requested.
+   *
+   * @param recorder metrics of the commands of the script
+   * @throws IOException when the report cannot be written
+   */
+  private void writeReport(CommandMetrics recorder) throws IOException {
+    if (reportPath == null) {
+      recorder.writeJson(System.err);
+      return;
+    }
+    try (Writer writer = new FileWriter(reportPath)) {
+      if (reportPath.toLowerCase().endsWith(".csv")) {
+        recorder.writeCsv(writer);
+      } else {
+        recorder.writeJson(writer);
+      }
+    }
+  }
+
+  /**
+   * Private helper that parses the number of segments that are run at the same time.
+   *
+   * @param value value of the option
+   * @return number of threads
+   * @throws IllegalArgumentException when the value is not a positive integer
+   */
+  private static int parseThreads(String value) throws IllegalArgumentException {
+    try {
+      int threads = Integer.parseInt(value);
+      if (threads >= 1) {
+        return threads;
+      }
+    } catch (NumberFormatException e) {
+      // reported below
+    }
+    throw new IllegalArgumentException("Number of threads must be a positive integer, but found "
+            + value + ".");
+  }
+}
@@ -32,6 +32,7 @@ public class ApplicationFrame extends JFrame implements IView {
   private JMenuItem checkerboardGenerateItem;
   private JMenuItem mosaicImageItem;
   private JMenuItem ditherImageItem;
+  private JMenuItem orderedDitherImageItem;
   private JMenuItem greyscaleImageItem;
   private JMenuItem sepiaImageItem;
   private JMenuItem blurImageItem;
@@ -81,6 +82,7 @@ public class ApplicationFrame extends JFrame implements IView {
     greyscaleImageItem = new JMenuItem("Greyscale");
     sepiaImageItem = new JMenuItem("Sepia");
     ditherImageItem = new JMenuItem("Dither");
+    orderedDitherImageItem = new JMenuItem("Ordered Dither");
     mosaicImageItem = new JMenuItem("Mosaic");
     checkerboardGenerateItem = new JMenuItem("Checkerboard");
     undoItem = new JMenuItem("Undo");
@@ -93,6 +95,7 @@ public class ApplicationFrame extends JFrame implements IView {
     greyscaleImageItem.setEnabled(false);
     blurImageItem.setEnabled(false);
     ditherImageItem.setEnabled(false);
+    orderedDitherImageItem.setEnabled(false);
     mosaicImageItem.setEnabled(false);
     undoItem.setEnabled(false);
     redoItem.setEnabled(false);
@@ -120,6 +123,7 @@ public class ApplicationFrame extends JFrame implements IView {
     greyscaleImageItem.setActionCommand("greyscale");
     blurImageItem.setActionCommand("blur");
     ditherImageItem.setActionCommand("dither");
+    orderedDitherImageItem.setActionCommand("ordered dither");
     mosaicImageItem.setActionCommand("mosaic");
     rainbowMenu.setActionCommand("rainbow");
     undoItem.setActionCommand("undo");
@@ -133,6 +137,7 @@ public class ApplicationFrame extends JFrame implements IView {
     transformerMenu.add(greyscaleImageItem);
     transformerMenu.add(sepiaImageItem);
     transformerMenu.add(ditherImageItem);
+    transformerMenu.add(orderedDitherImageItem);
     transformerMenu.add(mosaicImageItem);
 
 
@@ -174,6 +179,7 @@ public class ApplicationFrame extends JFrame implements IView {
     greyscaleImageItem.setEnabled(true);
     blurImageItem.setEnabled(true);
     ditherImageItem.setEnabled(true);
+    orderedDitherImageItem.setEnabled(true);
     mosaicImageItem.setEnabled(true);
   }
 
@@ -199,6 +205,7 @@ public class ApplicationFrame extends JFrame implements IView {
     checkerboardGenerateItem.addActionListener(listener);
     mosaicImageItem.addActionListener(listener);
     ditherImageItem.addActionListener(listener);
+    orderedDitherImageItem.addActionListener(listener);
     greyscaleImageItem.addActionListener(listener);
     sepiaImageItem.addActionListener(listener);
     blurImageItem.addActionListener(listener);
@@ -0,0 +1,136 @@
+import org.junit.Test;
+
+import java.util.Random;
+
+import model.ColorTransformer;
+import model.Image;
+import model.ImageTransformerFactory;
+import model.RasterImageImpl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * This class contains tests for the ColorTransformer class.
+ */
+public class ColorTransformerTest {
+
+  private static final float[][] SEPIA = {
+          {0.393f, 0.769f, 0.189f},
+          {0.349f, 0.686f, 0.168f},
+          {0.272f, 0.534f, 0.131f}};
+
+  /**
+   * Tests that the table based sepia filter produces the same colors as multiplying the kernel
+   * with every color, and that the transparency of the pixels is kept.
+   */
+  @Test
+  public void testSepiaMatchesMatrixProduct() {
+    Random random = new Random(7);
+    int[] pixels = new int[64 * 64];
+    for (int i = 0; i < pixels.length; i++) {
+      pixels[i] = random.nextInt();
+    }
+    RasterImageImpl result = (RasterImageImpl) ImageTransformerFactory.createSepiaFilter()
+            .applyOn(new RasterImageImpl(64, 64, pixels.clone()));
+    assertArrayEquals(multiply(SEPIA, pixels), result.getRaster());
+  }
+
+  /**
+   * Tests that a kernel mixing positive and negative weights, for which truncating every product
+   * on its own would give different colors, produces the same colors as multiplying the kernel
+   * with every color and truncating after every addition.
+   */
+  @Test
+  public void testMixedWeightsMatchMatrixProduct() {
+    float[][] kernel = {
+            {1.2f, -0.1f, -0.1f},
+            {-0.1f, 1.2f, -0.1f},
+            {-0.1f, -0.1f, 1.2f}};
+    Random random = new Random(13);
+    int[] pixels = new int[128 * 128];
+    for (int i = 0; i < pixels.length; i++) {
+      pixels[i] = random.nextInt();
+    }
+    RasterImageImpl result = (RasterImageImpl) new ColorTransformer(kernel)
+            .applyOn(new RasterImageImpl(128, 128, pixels.clone()));
+    assertArrayEquals(multiply(kernel, pixels), result.getRaster());
+  }
+
+  /**
+   * Tests that negative channels are clamped to 0.
+   */
+  @Test
+  public void testNegativeWeights() {
+    ColorTransformer invert = new ColorTransformer(new float[][]{
+            {-1, 0, 0},
+            {0, 1, 0},
+            {0, 0, 0.5f}});
+    RasterImageImpl result = (RasterImageImpl) invert.applyOn(new RasterImageImpl(1, 1,
+            new int[]{0xff40c0ff}));
+    assertArrayEquals(new int[]{0xff00c07f}, result.getRaster());
+  }
+
+  /**
+   * Tests that chained transformers give the same result as applying them one after the other.
+   */
+  @Test
+  public void testChainMatchesSequentialApplication() {
+    Random random = new Random(11);
+    int[] pixels = new int[64 * 64];
+    for (int i = 0; i < pixels.length; i++) {
+      pixels[i] = random.nextInt();
+    }
+    ColorTransformer sepia = ImageTransformerFactory.createSepiaFilter();
+    ColorTransformer greyscale = ImageTransformerFactory.createGreyScaleFilter();
+    RasterImageImpl image = new RasterImageImpl(64, 64, pixels);
+    Image expected = greyscale.applyOn(sepia.applyOn(sepia.applyOn(image)));
+    ColorTransformer chain = sepia.andThen(sepia).andThen(greyscale);
+    assertEquals(3, chain.getStageCount());
+    assertArrayEquals(expected.getPixelArray(), chain.applyOn(image).getPixelArray());
+  }
+
+  /**
+   * Tests that matrices are only multiplied when the first stage cannot clamp its output.
+   */
+  @Test
+  public void testFuseRespectsClamping() {
+    ColorTransformer sepia = ImageTransformerFactory.createSepiaFilter();
+    ColorTransformer greyscale = ImageTransformerFactory.createGreyScaleFilter();
+    assertEquals(1, greyscale.fuse(sepia).getStageCount());
+    assertEquals(2, sepia.fuse(greyscale).getStageCount());
+    assertEquals(2, greyscale.fuse(sepia).fuse(greyscale).getStageCount());
+  }
+
+  /**
+   * Tests that kernels other than 3x3 matrices are rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidKernel() {
+    new ColorTransformer(new float[][]{{1}});
+  }
+
+  /**
+   * Private helper that multiplies a kernel with the color of every pixel, truncating every channel
+   * after each addition and clamping it, while keeping the transparency of the pixels.
+   *
+   * @param kernel kernel to be applied
+   * @param pixels packed ARGB values of the pixels
+   * @return packed ARGB values of the transformed pixels
+   */
+  private static int[] multiply(float[][] kernel, int[] pixels) {
+    int[] expected = new int[pixels.length];
+    for (int i = 0; i < pixels.length; i++) {
+      int argb = pixels[i];
+      expected[i] = argb & 0xff000000;
+      for (int k = 0; k < 3; k++) {
+        int sum = 0;
+        sum += kernel[k][0] * ((argb >> 16) & 0xff);
+        sum += kernel[k][1] * ((argb >> 8) & 0xff);
+        sum += kernel[k][2] * (argb & 0xff);
+        expected[i] |= Math.max(Math.min(sum, 255), 0) << (16 - 8 * k);
+      }
+    }
+    return expected;
+  }
+}
@@ -0,0 +1,66 @@
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+import controller.CommandMetrics;
+import controller.ImageProcessingControllerImpl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This class contains tests for the metrics recorded by the script controller.
+ */
+public class CommandMetricsTest {
+
+  /**
+   * Tests that every step of a script is recorded once with its line and the size of its image,
+   * combined transformations being a single step, and that the reports hold every record.
+   */
+  @Test
+  public void testScriptIsMeasured() throws IOException {
+    File script = File.createTempFile("metrics", ".txt");
+    script.deleteOnExit();
+    try (Writer writer = new FileWriter(script)) {
+      writer.write("load res/manhattan-small.png\ncheckerboard 25\nsepia\ngreyscale\n\ndither\n"
+              + "flag 36 switzerland\n");
+    }
+    StringBuilder lines = new StringBuilder();
+    CommandMetrics metrics = new CommandMetrics(lines);
+    new ImageProcessingControllerImpl(script.getPath(), new StringBuilder(), metrics).execute();
+
+    List<CommandMetrics.Record> records = metrics.getRecords();
+    assertEquals(5, records.size());
+    assertEquals("load res/manhattan-small.png", records.get(0).getCommand());
+    assertEquals("checkerboard", records.get(1).getCommand());
+    assertEquals(2, records.get(1).getLine());
+    assertEquals("[sepia, greyscale]", records.get(2).getCommand());
+    assertEquals(3, records.get(2).getLine());
+    assertEquals("dither", records.get(3).getCommand());
+    assertEquals(6, records.get(3).getLine());
+    assertEquals("flag", records.get(4).getCommand());
+    assertEquals(0.04, records.get(1).getMegapixels(), 1e-9);
+    assertEquals(0.04, records.get(3).getMegapixels(), 1e-9);
+    assertEquals(32 * 32 / 1e6, records.get(4).getMegapixels(), 1e-9);
+    for (CommandMetrics.Record record : records) {
+      assertTrue(record.getWallNanos() > 0);
+    }
+    assertEquals(5, lines.toString().split(System.lineSeparator()).length);
+
+    StringBuilder csv = new StringBuilder();
+    metrics.writeCsv(csv);
+    String[] rows = csv.toString().split(System.lineSeparator());
+    assertEquals(7, rows.length);
+    assertTrue(rows[3].startsWith("\"[sepia, greyscale]\",3,"));
+    assertTrue(rows[6].startsWith("\"total\","));
+
+    StringBuilder json = new StringBuilder();
+    metrics.writeJson(json);
+    assertTrue(json.toString().contains("\"command\": \"dither\", \"line\": 6"));
+    assertTrue(json.toString().contains("\"total\": {\"command\": \"total\""));
+  }
+}
@@ -0,0 +1,113 @@
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import model.BinaryImage;
+import model.BufferedImageAdapter;
+import model.Image;
+import model.ImageGeneratorImpl;
+import model.ImageTransformerFactory;
+import model.LuminanceImage;
+import model.RasterImageImpl;
+import model.RunLengthImage;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This class contains tests for the compact image representations LuminanceImage and BinaryImage.
+ */
+public class CompactImageTest {
+
+  /**
+   * Tests that the greyscale transformation of an opaque image is a luminance image holding the
+   * same pixels as the transformation of a translucent image, apart from the transparency.
+   */
+  @Test
+  public void testGreyscaleProducesLuminance() {
+    Random random = new Random(11);
+    int[] opaque = new int[37 * 23];
+    int[] translucent = new int[opaque.length];
+    for (int i = 0; i < opaque.length; i++) {
+      opaque[i] = 0xff000000 | random.nextInt();
+      translucent[i] = opaque[i] & 0x7fffffff;
+    }
+    Image grey = ImageTransformerFactory.createGreyScaleFilter()
+            .applyOn(new RasterImageImpl(37, 23, opaque));
+    Image translucentGrey = ImageTransformerFactory.createGreyScaleFilter()
+            .applyOn(new RasterImageImpl(37, 23, translucent));
+    assertTrue(grey instanceof LuminanceImage);
+    assertTrue(translucentGrey instanceof RasterImageImpl);
+    int[] expected = translucentGrey.getPixelArray();
+    for (int i = 0; i < expected.length; i++) {
+      expected[i] |= 0xff000000;
+    }
+    assertArrayEquals(expected, grey.getPixelArray());
+
+    int[] sepia = ImageTransformerFactory.createSepiaFilter().applyOn(grey).getPixelArray();
+    assertArrayEquals(ImageTransformerFactory.createSepiaFilter()
+            .applyOn(RasterImageImpl.of(grey)).getPixelArray(), sepia);
+  }
+
+  /**
+   * Tests the layout of the bits of a binary image and its conversion to and from a BufferedImage.
+   */
+  @Test
+  public void testBinaryImage() {
+    int width = 70;
+    int height = 3;
+    Random random = new Random(12);
+    int[] pixels = new int[width * height];
+    for (int i = 0; i < pixels.length; i++) {
+      pixels[i] = random.nextBoolean() ? 0xffffffff : 0xff000000;
+    }
+    BinaryImage image = (BinaryImage) ImageTransformerFactory.createBayerDitherTransformer(2)
+            .applyOn(new RasterImageImpl(width, height, pixels));
+    assertArrayEquals(pixels, image.getPixelArray());
+    assertEquals(2 * height, image.getWords().length);
+    assertEquals(pixels[69] == 0xffffffff, image.getWords()[1] << 5 < 0);
+    assertEquals(pixels[width + 3] == 0xffffffff, image.isWhite(3, 1));
+
+    BufferedImage bufferedImage = BufferedImageAdapter.toBufferedImage(image);
+    assertEquals(BufferedImage.TYPE_BYTE_BINARY, bufferedImage.getType());
+    assertArrayEquals(pixels, bufferedImage.getRGB(0, 0, width, height, null, 0, width));
+    Image converted = BufferedImageAdapter.toImage(bufferedImage);
+    assertTrue(converted instanceof BinaryImage);
+    assertArrayEquals(image.getWords(), ((BinaryImage) converted).getWords());
+  }
+
+  /**
+   * Tests that a luminance image is shown with its greys unchanged and converted back without
+   * copying.
+   */
+  @Test
+  public void testLuminanceBufferedImage() {
+    byte[] luminance = {0, 64, (byte) 128, (byte) 255, 17, 33};
+    LuminanceImage image = new LuminanceImage(3, 2, luminance);
+    assertEquals(0xff808080, image.getRGB(2, 0));
+    BufferedImage bufferedImage = BufferedImageAdapter.toBufferedImage(image);
+    assertArrayEquals(image.getPixelArray(), bufferedImage.getRGB(0, 0, 3, 2, null, 0, 3));
+
+    BufferedImage grey = new BufferedImage(3, 2, BufferedImage.TYPE_BYTE_GRAY);
+    grey.getRaster().setDataElements(0, 0, 3, 2, luminance);
+    Image converted = BufferedImageAdapter.toImage(grey);
+    assertTrue(converted instanceof LuminanceImage);
+    assertArrayEquals(image.getPixelArray(), converted.getPixelArray());
+  }
+
+  /**
+   * Tests that the memory retained by an image depends on how its pixels are stored.
+   */
+  @Test
+  public void testRetainedBytes() {
+    assertEquals(4 * 100 * 100, new RasterImageImpl(100, 100).getRetainedBytes());
+    assertEquals(100 * 100,
+            new LuminanceImage(100, 100, new byte[100 * 100]).getRetainedBytes());
+    assertEquals(8 * 2 * 100, new BinaryImage(100, 100).getRetainedBytes());
+    Image board = new ImageGeneratorImpl().generateCheckerboard(800);
+    assertTrue(board instanceof RunLengthImage);
+    assertTrue(board.getRetainedBytes() < 1000);
+  }
+}
@@ -0,0 +1,83 @@
+import org.junit.Test;
+
+import model.ConvolutionFilter;
+import model.Image;
+import model.ImageTransformerFactory;
+import model.RasterImageImpl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This class contains tests for the ConvolutionFilter class.
+ */
+public class ConvolutionFilterTest {
+
+  private static final int BLACK = 0xff000000;
+
+  /**
+   * Tests that separable kernels are detected.
+   */
+  @Test
+  public void testSeparableDetection() {
+    assertTrue(((ConvolutionFilter) ImageTransformerFactory.createBlurFilter()).isSeparable());
+    assertFalse(((ConvolutionFilter) ImageTransformerFactory.createSharpenFilter())
+            .isSeparable());
+    assertTrue(new ConvolutionFilter(new float[][]{
+            {1, 2, 1},
+            {2, 4, 2},
+            {1, 2, 1}}).isSeparable());
+    assertFalse(new ConvolutionFilter(new float[][]{
+            {1, 2, 1},
+            {2, 4, 2},
+            {1, 2, 2}}).isSeparable());
+  }
+
+  /**
+   * Tests the blur filter on an image with a single white pixel, including the pixels along the
+   * edges of the image.
+   */
+  @Test
+  public void testBlurImpulse() {
+    int[] pixels = new int[25];
+    for (int i = 0; i < pixels.length; i++) {
+      pixels[i] = BLACK;
+    }
+    pixels[12] = 0xffffffff;
+    pixels[0] = 0xff505050;
+    Image blurred = new RasterImageImpl(5, 5, pixels)
+            .transform(ImageTransformerFactory.createBlurFilter());
+
+    int[] expected = {45, 15, 0, 0, 0,
+                      15, 20, 31, 15, 0,
+                      0, 31, 63, 31, 0,
+                      0, 15, 31, 15, 0,
+                      0, 0, 0, 0, 0};
+    int[] result = blurred.getPixelArray();
+    assertEquals(expected.length, result.length);
+    for (int i = 0; i < expected.length; i++) {
+      expected[i] = BLACK | (expected[i] << 16) | (expected[i] << 8) | expected[i];
+    }
+    assertArrayEquals(expected, result);
+  }
+
+  /**
+   * Tests the sharpen filter on an image with a single grey pixel.
+   */
+  @Test
+  public void testSharpenImpulse() {
+    int[] pixels = new int[25];
+    for (int i = 0; i < pixels.length; i++) {
+      pixels[i] = BLACK;
+    }
+    pixels[12] = 0xff646464;
+    Image sharpened = new RasterImageImpl(5, 5, pixels)
+            .transform(ImageTransformerFactory.createSharpenFilter());
+
+    assertEquals(0xff646464, sharpened.getPixelArray()[12]);
+    assertEquals(0xff191919, sharpened.getPixelArray()[6]);
+    assertEquals(BLACK, sharpened.getPixelArray()[0]);
+  }
+}
@@ -0,0 +1,78 @@
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import model.ConvolutionFilter;
+import model.ConvolutionPipeline;
+import model.ImageTransformerFactory;
+import model.RasterImageImpl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This class contains tests for the ConvolutionPipeline class.
+ */
+public class ConvolutionPipelineTest {
+
+  /**
+   * Tests that streaming the sharpen filter three times gives the same result as applying it three
+   * times, also when composition is allowed since the sharpen filter clamps its output.
+   */
+  @Test
+  public void testStreamedSharpen() {
+    RasterImageImpl image = createImage(150, 97);
+    ConvolutionFilter sharpen = ImageTransformerFactory.createSharpenFilter();
+    RasterImageImpl expected = sharpen.applyOn(sharpen.applyOn(sharpen.applyOn(image)));
+    for (boolean compose : new boolean[]{false, true}) {
+      ConvolutionPipeline pipeline = new ConvolutionPipeline(
+              Arrays.asList(sharpen, sharpen, sharpen), compose);
+      assertEquals(ConvolutionPipeline.Strategy.STREAMED, pipeline.getStrategy());
+      assertArrayEquals(expected.getRaster(), pipeline.applyOn(image).getRaster());
+    }
+  }
+
+  /**
+   * Tests that the blur filter applied three times is composed into a single kernel when this is
+   * allowed, and that the result differs from applying it three times only by rounding.
+   */
+  @Test
+  public void testComposedBlur() {
+    RasterImageImpl image = createImage(150, 97);
+    ConvolutionFilter blur = ImageTransformerFactory.createBlurFilter();
+    int[] expected = blur.applyOn(blur.applyOn(blur.applyOn(image))).getRaster();
+
+    ConvolutionPipeline streamed = new ConvolutionPipeline(Arrays.asList(blur, blur, blur), false);
+    assertEquals(ConvolutionPipeline.Strategy.STREAMED, streamed.getStrategy());
+    assertArrayEquals(expected, streamed.applyOn(image).getRaster());
+
+    ConvolutionPipeline composed = new ConvolutionPipeline(Arrays.asList(blur, blur, blur), true);
+    assertEquals(ConvolutionPipeline.Strategy.COMPOSED, composed.getStrategy());
+    int[] result = composed.applyOn(image).getRaster();
+    for (int i = 0; i < expected.length; i++) {
+      assertEquals(expected[i] >>> 24, result[i] >>> 24);
+      for (int shift = 0; shift < 24; shift += 8) {
+        int difference = ((expected[i] >> shift) & 0xff) - ((result[i] >> shift) & 0xff);
+        assertTrue(Math.abs(difference) <= 3);
+      }
+    }
+  }
+
+  /**
+   * Creates an image of random colors.
+   *
+   * @param width  width of the image
+   * @param height height of the image
+   * @return the image
+   */
+  private RasterImageImpl createImage(int width, int height) {
+    Random random = new Random(5);
+    int[] pixels = new int[width * height];
+    for (int i = 0; i < pixels.length; i++) {
+      pixels[i] = random.nextInt();
+    }
+    return new RasterImageImpl(width, height, pixels);
+  }
+}
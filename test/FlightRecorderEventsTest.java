@@ -0,0 +1,149 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import controller.ImageProcessingControllerImpl;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This class contains tests for the flight recorder events emitted by the application.
+ */
+public class FlightRecorderEventsTest {
+
+  /**
+   * Temporary folder holding the files of a test, deleted once the test has run.
+   */
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * Tests that a recording of a script holds an event for every decode, encode and command with
+   * the dimensions of its images, the type of its transformer and the size of its kernel, and an
+   * event for the tiles processed by the parallel engines. The segments of the script run at the
+   * same time, and every tile is linked to the command it belongs to.
+   */
+  @Test
+  public void testScriptIsRecorded() throws IOException {
+    Path directory = folder.newFolder("events").toPath();
+    File script = directory.resolve("script.txt").toFile();
+    try (Writer writer = new FileWriter(script)) {
+      writer.write("load res/manhattan-small.png\nsharpen\nsepia\ncheckerboard 10\n"
+              + "save " + directory + " board png\n"
+              + "load res/manhattan-small.png\nblur\ngreyscale\n");
+    }
+    Path file = directory.resolve("recording.jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable("imageprocessing.Command");
+      recording.enable("imageprocessing.ImageIO");
+      recording.enable("imageprocessing.Tile");
+      recording.start();
+      new ImageProcessingControllerImpl(script.getPath(), new StringBuilder(), null, 2).execute();
+      recording.stop();
+      recording.dump(file);
+    }
+
+    List<RecordedEvent> commands = events(file, "imageprocessing.Command");
+    List<RecordedEvent> io = events(file, "imageprocessing.ImageIO");
+    List<RecordedEvent> tiles = events(file, "imageprocessing.Tile");
+
+    assertEquals(5, commands.size());
+    RecordedEvent sharpen = find(commands, "command", "sharpen");
+    assertEquals("ConvolutionFilter", sharpen.getString("transformer"));
+    assertEquals(5, sharpen.getInt("kernelSize"));
+    assertEquals(500, sharpen.getInt("inputWidth"));
+    assertEquals(200, sharpen.getInt("height"));
+    RecordedEvent sepia = find(commands, "command", "sepia");
+    assertEquals("ColorTransformer", sepia.getString("transformer"));
+    assertEquals(0, sepia.getInt("kernelSize"));
+    RecordedEvent checkerboard = find(commands, "transformer", "Checkerboard");
+    assertEquals(0, checkerboard.getInt("inputWidth"));
+    assertEquals(80, checkerboard.getInt("width"));
+
+    assertEquals(3, io.size());
+    RecordedEvent encode = find(io, "operation", "encode");
+    assertEquals("png", encode.getString("format"));
+    assertTrue(encode.getLong("fileSize") > 0);
+    for (RecordedEvent event : io) {
+      if (event != encode) {
+        assertEquals("decode", event.getString("operation"));
+        assertEquals(500, event.getInt("width"));
+      }
+    }
+
+    Map<Long, RecordedEvent> commandsById = new HashMap<>();
+    for (RecordedEvent command : commands) {
+      commandsById.put(command.getLong("commandId"), command);
+    }
+    assertEquals(commands.size(), commandsById.size());
+    Set<Long> commandsWithTiles = new HashSet<>();
+    for (RecordedEvent tile : tiles) {
+      assertTrue(tile.getInt("start") < tile.getInt("end"));
+      RecordedEvent command = commandsById.get(tile.getLong("commandId"));
+      assertNotNull(command);
+      assertEquals(command.getString("transformer"), tile.getString("transformer"));
+      assertEquals(command.getInt("inputWidth"), tile.getInt("width"));
+      assertEquals(command.getInt("inputHeight"), tile.getInt("height"));
+      commandsWithTiles.add(command.getLong("commandId"));
+    }
+    assertEquals(4, commandsWithTiles.size());
+    assertFalse(commandsWithTiles.contains(checkerboard.getLong("commandId")));
+  }
+
+  /**
+   * Private helper that reads the events of a type from a recording.
+   *
+   * @param file recording
+   * @param name name of the type of the events
+   * @return the events of the type
+   * @throws IOException when the recording cannot be read
+   */
+  private static List<RecordedEvent> events(Path file, String name) throws IOException {
+    List<RecordedEvent> events = new ArrayList<>();
+    for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+      if (event.getEventType().getName().equals(name)) {
+        events.add(event);
+      }
+    }
+    return events;
+  }
+
+  /**
+   * Private helper that returns the only event whose field has the specified value.
+   *
+   * @param events events of a recording
+   * @param field  name of the field
+   * @param value  value of the field
+   * @return the event
+   */
+  private static RecordedEvent find(List<RecordedEvent> events, String field, String value) {
+    RecordedEvent found = null;
+    for (RecordedEvent event : events) {
+      if (value.equals(event.getString(field))) {
+        assertNull(found);
+        found = event;
+      }
+    }
+    assertNotNull(found);
+    return found;
+  }
+}
@@ -0,0 +1,53 @@
+import org.junit.Test;
+
+import model.Country;
+import model.ImageGenerator;
+import model.ImageGeneratorImpl;
+import model.RasterImage;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * This class contains tests for the flags generated from their shapes by ImageGeneratorImpl.
+ */
+public class ImageGeneratorTest {
+  private final ImageGenerator generator = new ImageGeneratorImpl();
+
+  /**
+   * Tests that a flag is generated at the closest height at which its cells are whole pixels, with
+   * the proportions of the country.
+   */
+  @Test
+  public void testFlagProportions() {
+    RasterImage greece = (RasterImage) generator.generateFlag(100, Country.GREECE);
+    assertEquals(108, greece.getHeight());
+    assertEquals(162, greece.getWidth());
+    RasterImage germany = (RasterImage) generator.generateFlag(100, Country.GERMANY);
+    assertEquals(99, germany.getHeight());
+    assertEquals(165, germany.getWidth());
+    RasterImage switzerland = (RasterImage) generator.generateFlag(1, Country.SWITZERLAND);
+    assertEquals(32, switzerland.getHeight());
+    assertEquals(32, switzerland.getWidth());
+  }
+
+  /**
+   * Tests that the shapes of a flag are painted in order, later shapes covering earlier ones.
+   */
+  @Test
+  public void testFlagShapes() {
+    RasterImage sweden = (RasterImage) generator.generateFlag(100, Country.SWEDEN);
+    int blue = 0xff006aa7;
+    int yellow = 0xfffecc00;
+    assertEquals(blue, sweden.getRGB(0, 0));
+    assertEquals(blue, sweden.getRGB(49, 39));
+    assertEquals(yellow, sweden.getRGB(50, 0));
+    assertEquals(yellow, sweden.getRGB(0, 40));
+    assertEquals(yellow, sweden.getRGB(159, 59));
+    assertEquals(blue, sweden.getRGB(159, 60));
+
+    RasterImage italy = (RasterImage) generator.generateFlag(50, Country.ITALY);
+    assertEquals(0xff008c45, italy.getRGB(24, 49));
+    assertEquals(0xfff4f5f0, italy.getRGB(25, 0));
+    assertEquals(0xffcd212a, italy.getRGB(74, 0));
+  }
+}
@@ -1,9 +1,12 @@
 import org.junit.Test;
 
 import model.ImageTransformer;
+import model.BoxBlurTransformer;
 import model.ImageTransformerFactory;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 
 /**
  * This class contains tests associated with the ImageTransformerFactory class.
@@ -60,4 +63,37 @@ public class ImageTransformerFactoryTest {
             + "-0.125 0.25 0.25 0.25 -0.125 \n"
             + "-0.125 -0.125 -0.125 -0.125 -0.125 \n", transformer.toString());
   }
-}
\ No newline at end of file
+
+  /**
+   * Tests the creation of the Gaussian blur and unsharp mask transformers, including invalid
+   * parameters.
+   */
+  @Test
+  public void testCreateGaussianBlurFilter() {
+    transformer = ImageTransformerFactory.createGaussianBlurFilter(2);
+    assertEquals("gaussian blur 2.0", transformer.toString());
+    assertArrayEquals(new int[]{1, 1, 2}, ((BoxBlurTransformer) transformer).getRadii());
+
+    transformer = ImageTransformerFactory.createUnsharpMaskFilter(20, 1.5);
+    assertEquals("unsharp mask 20.0 1.5", transformer.toString());
+
+    try {
+      ImageTransformerFactory.createGaussianBlurFilter(0);
+      fail("Should have thrown an exception");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Sigma must be a positive value.", e.getMessage());
+    }
+    try {
+      ImageTransformerFactory.createUnsharpMaskFilter(2, -1);
+      fail("Should have thrown an exception");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Amount cannot be negative.", e.getMessage());
+    }
+    try {
+      ImageTransformerFactory.createBoxBlurFilter(-1);
+      fail("Should have thrown an exception");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Radius cannot be negative.", e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,63 @@
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import model.BinaryImage;
+import model.IndexedColorTransformer;
+import model.RasterImageImpl;
+
+import static org.junit.Assert.assertArrayEquals;
+
+/**
+ * This class contains tests for the IndexedColorTransformer class.
+ */
+public class IndexedColorTransformerTest {
+
+  private static final int BLACK = 0xff000000;
+  private static final int WHITE = 0xffffffff;
+
+  /**
+   * Tests the error diffusion on a small image of a uniform grey.
+   */
+  @Test
+  public void testUniformGrey() {
+    int[] pixels = new int[8];
+    for (int i = 0; i < pixels.length; i++) {
+      pixels[i] = 0xff646464;
+    }
+    BinaryImage result = new IndexedColorTransformer()
+            .applyOn(new RasterImageImpl(4, 2, pixels));
+    assertArrayEquals(new int[]{BLACK, WHITE, BLACK, BLACK, BLACK, BLACK, WHITE, BLACK},
+            result.getPixelArray());
+  }
+
+  /**
+   * Tests that dithering the rows in a wavefront gives the same result as dithering them one
+   * after the other.
+   */
+  @Test
+  public void testWavefrontMatchesSerial() {
+    Random random = new Random(9);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      for (int t = 0; t < 10; t++) {
+        int width = 1 + random.nextInt(300);
+        int height = 1 + random.nextInt(200);
+        int[] pixels = new int[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+          pixels[i] = random.nextInt();
+        }
+        RasterImageImpl image = new RasterImageImpl(width, height, pixels);
+        long[] expected = new IndexedColorTransformer(1).applyOn(image).getWords();
+        for (int workers = 2; workers <= 4; workers++) {
+          IndexedColorTransformer transformer = new IndexedColorTransformer(workers);
+          assertArrayEquals(expected, pool.submit(() ->
+                  transformer.applyOn(image).getWords()).join());
+        }
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+}
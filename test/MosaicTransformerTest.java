@@ -0,0 +1,95 @@
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import model.ImageTransformer;
+import model.ImageTransformerFactory;
+import model.MosaicMode;
+import model.RasterImageImpl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * This class contains tests for the MosaicTransformer class.
+ */
+public class MosaicTransformerTest {
+
+  /**
+   * Tests that a mosaic with one seed per pixel reproduces the image with opaque pixels.
+   */
+  @Test
+  public void testSeedOnEveryPixel() {
+    int[] pixels = {0x10203040, 0x80506070, 0xff8090a0, 0x00b0c0d0, 0xffe0f000, 0x7f010203};
+    for (MosaicMode mode : MosaicMode.values()) {
+      ImageTransformer mosaic = ImageTransformerFactory.createMosaicTransformer(6, mode);
+      RasterImageImpl result = (RasterImageImpl) mosaic.applyOn(new RasterImageImpl(3, 2,
+              pixels.clone()));
+      int[] expected = new int[pixels.length];
+      for (int i = 0; i < pixels.length; i++) {
+        expected[i] = pixels[i] | 0xff000000;
+      }
+      assertArrayEquals(expected, result.getRaster());
+    }
+  }
+
+  /**
+   * Tests that a seeded mosaic gives the same result every time, also when one instance is shared
+   * between threads, and that the result depends on the seed.
+   */
+  @Test
+  public void testSeededMosaicIsReproducible() throws Exception {
+    Random random = new Random(3);
+    int[] pixels = new int[120 * 80];
+    for (int i = 0; i < pixels.length; i++) {
+      pixels[i] = random.nextInt();
+    }
+    RasterImageImpl image = new RasterImageImpl(120, 80, pixels);
+    for (MosaicMode mode : MosaicMode.values()) {
+      ImageTransformer mosaic = ImageTransformerFactory.createMosaicTransformer(50, mode, 42);
+      int[] expected = ((RasterImageImpl) mosaic.applyOn(image)).getRaster();
+      ExecutorService executor = Executors.newFixedThreadPool(4);
+      try {
+        Future<?>[] results = new Future<?>[8];
+        for (int i = 0; i < results.length; i++) {
+          results[i] = executor.submit(() -> mosaic.applyOn(image));
+        }
+        for (Future<?> result : results) {
+          assertArrayEquals(expected, ((RasterImageImpl) result.get()).getRaster());
+        }
+      } finally {
+        executor.shutdown();
+      }
+      int[] other = ((RasterImageImpl) ImageTransformerFactory
+              .createMosaicTransformer(50, mode, 43).applyOn(image)).getRaster();
+      assertFalse(Arrays.equals(expected, other));
+    }
+  }
+
+  /**
+   * Tests that selecting as many seeds as there are pixels places a seed on every pixel.
+   */
+  @Test
+  public void testAllPixelsSelected() {
+    int[] pixels = new int[50 * 40];
+    for (int i = 0; i < pixels.length; i++) {
+      pixels[i] = 0xff000000 | i;
+    }
+    RasterImageImpl result = (RasterImageImpl) ImageTransformerFactory
+            .createMosaicTransformer(pixels.length, MosaicMode.NEAREST, 7)
+            .applyOn(new RasterImageImpl(50, 40, pixels.clone()));
+    assertArrayEquals(pixels, result.getRaster());
+  }
+
+  /**
+   * Tests that a mosaic with more seeds than pixels cannot be applied.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testTooManySeeds() {
+    ImageTransformerFactory.createMosaicTransformer(7).applyOn(new RasterImageImpl(3, 2));
+  }
+}
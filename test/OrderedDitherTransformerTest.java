@@ -0,0 +1,120 @@
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import model.BinaryImage;
+import model.ImageTransformerFactory;
+import model.OrderedDitherTransformer;
+import model.RasterImageImpl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * This class contains tests for the OrderedDitherTransformer class.
+ */
+public class OrderedDitherTransformerTest {
+
+  private static final int BLACK = 0xff000000;
+  private static final int WHITE = 0xffffffff;
+
+  /**
+   * Tests ordered dithering of a uniform grey with the 2x2 Bayer matrix, which turns on the
+   * pixels of the two lowest ranks in every tile.
+   */
+  @Test
+  public void testBayerUniformGrey() {
+    int[] pixels = new int[8];
+    for (int i = 0; i < pixels.length; i++) {
+      pixels[i] = 0xff808080;
+    }
+    BinaryImage result = OrderedDitherTransformer.bayer(2)
+            .applyOn(new RasterImageImpl(4, 2, pixels));
+    assertArrayEquals(new int[]{WHITE, BLACK, WHITE, BLACK, BLACK, WHITE, BLACK, WHITE},
+            result.getPixelArray());
+  }
+
+  /**
+   * Tests that every level of grey turns on the expected share of the pixels of a tile, which
+   * holds when the matrix contains every rank exactly once. Black and white are preserved.
+   */
+  @Test
+  public void testLevels() {
+    OrderedDitherTransformer[] transformers = {OrderedDitherTransformer.bayer(2),
+        OrderedDitherTransformer.bayer(4), OrderedDitherTransformer.bayer(8),
+        OrderedDitherTransformer.bayer(16), OrderedDitherTransformer.blueNoise()};
+    int[] sizes = {2, 4, 8, 16, 32};
+    for (int t = 0; t < transformers.length; t++) {
+      int size = sizes[t];
+      int levels = size * size;
+      for (int grey = 0; grey < 256; grey++) {
+        int intensity = ImageTransformerFactory.createGreyScaleFilter()
+                .applyOn(new RasterImageImpl(1, 1, new int[]{0xff000000 | grey * 0x010101}))
+                .getPixelArray()[0] & 0xff;
+        int expected = 0;
+        for (int rank = 0; rank < levels; rank++) {
+          expected += intensity >= Math.max(1, (2 * rank + 1) * 255 / (2 * levels)) ? 1 : 0;
+        }
+        assertEquals(expected, countWhite(transformers[t], size, grey));
+      }
+      assertEquals(0, countWhite(transformers[t], size, 0));
+      assertEquals(levels, countWhite(transformers[t], size, 255));
+    }
+  }
+
+  /**
+   * Tests that the result does not depend on the number of threads.
+   */
+  @Test
+  public void testParallelMatchesSerial() {
+    Random random = new Random(3);
+    int width = 517;
+    int height = 301;
+    int[] pixels = new int[width * height];
+    for (int i = 0; i < pixels.length; i++) {
+      pixels[i] = random.nextInt();
+    }
+    RasterImageImpl image = new RasterImageImpl(width, height, pixels);
+    OrderedDitherTransformer transformer = OrderedDitherTransformer.blueNoise();
+    ForkJoinPool serial = new ForkJoinPool(1);
+    ForkJoinPool parallel = new ForkJoinPool(4);
+    try {
+      long[] expected = serial.submit(() -> transformer.applyOn(image).getWords()).join();
+      assertArrayEquals(expected, parallel.submit(() ->
+              transformer.applyOn(image).getWords()).join());
+    } finally {
+      serial.shutdown();
+      parallel.shutdown();
+    }
+  }
+
+  /**
+   * Tests that a Bayer matrix of an unsupported size is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidBayerSize() {
+    OrderedDitherTransformer.bayer(3);
+  }
+
+  /**
+   * Private helper that returns the number of white pixels of a dithered tile of a uniform grey.
+   *
+   * @param transformer transformer to be applied
+   * @param size        number of rows and columns of the tile
+   * @param grey        intensity of the grey
+   * @return number of white pixels
+   */
+  private int countWhite(OrderedDitherTransformer transformer, int size, int grey) {
+    int[] pixels = new int[size * size];
+    for (int i = 0; i < pixels.length; i++) {
+      pixels[i] = 0xff000000 | grey * 0x010101;
+    }
+    int white = 0;
+    for (int pixel : transformer.applyOn(new RasterImageImpl(size, size, pixels))
+            .getPixelArray()) {
+      white += pixel == WHITE ? 1 : 0;
+    }
+    return white;
+  }
+}
@@ -0,0 +1,113 @@
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import model.BufferedImageAdapter;
+import model.IndexedImage;
+import model.Palette;
+import model.PaletteTransformer;
+import model.RasterImageImpl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * This class contains tests for the PaletteTransformer and Palette classes.
+ */
+public class PaletteTransformerTest {
+
+  /**
+   * Tests that an image with fewer colors than the palette is reproduced exactly.
+   */
+  @Test
+  public void testFewColorsAreKept() {
+    int[] colors = {0xffff0000, 0xff00ff00, 0xff0000ff, 0xffffffff};
+    int[] pixels = new int[64 * 32];
+    for (int i = 0; i < pixels.length; i++) {
+      pixels[i] = colors[(i / 7 + i / 64) % colors.length];
+    }
+    for (boolean dither : new boolean[]{false, true}) {
+      IndexedImage result = new PaletteTransformer(8, dither)
+              .applyOn(new RasterImageImpl(64, 32, pixels));
+      assertEquals(4, result.getPalette().size());
+      assertArrayEquals(pixels, result.getPixelArray());
+    }
+  }
+
+  /**
+   * Tests that the palette never holds more than the requested number of colors and that every
+   * pixel is mapped to the closest palette color of the center of its cell of the inverse
+   * colormap.
+   */
+  @Test
+  public void testNearestColor() {
+    Random random = new Random(5);
+    int[] pixels = new int[200 * 100];
+    for (int i = 0; i < pixels.length; i++) {
+      pixels[i] = random.nextInt();
+    }
+    IndexedImage result = new PaletteTransformer(16, false)
+            .applyOn(new RasterImageImpl(200, 100, pixels));
+    Palette palette = result.getPalette();
+    assertEquals(16, palette.size());
+    byte[] indices = result.getIndices();
+    for (int i = 0; i < pixels.length; i++) {
+      int center = (pixels[i] & 0xf8fcf8) | 0x040204;
+      int best = Integer.MAX_VALUE;
+      for (int k = 0; k < palette.size(); k++) {
+        best = Math.min(best, distance(center, palette.getColor(k)));
+      }
+      assertEquals(best, distance(center, palette.getColor(indices[i] & 0xff)));
+    }
+  }
+
+  /**
+   * Tests that an indexed image is converted to a BufferedImage of type TYPE_BYTE_INDEXED that
+   * shows the same colors, or of type TYPE_BYTE_BINARY when its palette has at most 16 colors.
+   */
+  @Test
+  public void testIndexedBufferedImage() {
+    Palette palette = new Palette(new int[]{0x000000, 0x808080, 0xffffff});
+    byte[] indices = {0, 1, 2, 2, 1, 0};
+    IndexedImage image = new IndexedImage(3, 2, indices, palette);
+    BufferedImage bufferedImage = BufferedImageAdapter.toBufferedImage(image);
+    assertEquals(BufferedImage.TYPE_BYTE_BINARY, bufferedImage.getType());
+    assertArrayEquals(image.getPixelArray(), bufferedImage.getRGB(0, 0, 3, 2, null, 0, 3));
+    assertEquals(0xff808080, RasterImageImpl.of(image).getRGB(1, 1));
+
+    int[] colors = new int[20];
+    byte[] moreIndices = new byte[colors.length];
+    for (int i = 0; i < colors.length; i++) {
+      colors[i] = i * 0x0c0c0c;
+      moreIndices[i] = (byte) (colors.length - 1 - i);
+    }
+    IndexedImage largerImage = new IndexedImage(5, 4, moreIndices, new Palette(colors));
+    bufferedImage = BufferedImageAdapter.toBufferedImage(largerImage);
+    assertEquals(BufferedImage.TYPE_BYTE_INDEXED, bufferedImage.getType());
+    assertArrayEquals(largerImage.getPixelArray(),
+            bufferedImage.getRGB(0, 0, 5, 4, null, 0, 5));
+  }
+
+  /**
+   * Tests that a palette of more than 256 colors is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidNumberOfColors() {
+    new PaletteTransformer(257, false);
+  }
+
+  /**
+   * Private helper that returns the squared distance between two colors.
+   *
+   * @param first  packed RGB value of the first color
+   * @param second packed RGB value of the second color
+   * @return squared distance between the colors
+   */
+  private int distance(int first, int second) {
+    int red = ((first >> 16) & 0xff) - ((second >> 16) & 0xff);
+    int green = ((first >> 8) & 0xff) - ((second >> 8) & 0xff);
+    int blue = (first & 0xff) - (second & 0xff);
+    return red * red + green * green + blue * blue;
+  }
+}
@@ -0,0 +1,144 @@
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.management.Attribute;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+
+import controller.ImageProcessingControllerImpl;
+import controller.LatencyHistogram;
+import controller.PipelineStatistics;
+import model.Image;
+import model.ImageTransformer;
+import model.ImageTransformerFactory;
+import model.Parallelism;
+import model.RasterImageImpl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This class contains tests for the pipeline statistics exposed over JMX.
+ */
+public class PipelineStatisticsTest {
+
+  /**
+   * Tests that the commands of a script are counted and their latencies recorded by type of
+   * transformer, as read through the platform MBean server, and that the parallelism of the worker
+   * pool can be changed through it.
+   */
+  @Test
+  public void testStatisticsOverJmx() throws IOException, JMException {
+    PipelineStatistics.register();
+    PipelineStatistics.register();
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName name = new ObjectName(PipelineStatistics.OBJECT_NAME);
+    server.invoke(name, "resetStatistics", null, null);
+
+    File script = File.createTempFile("statistics", ".txt");
+    script.deleteOnExit();
+    try (Writer writer = new FileWriter(script)) {
+      writer.write("load res/manhattan-small.png\nsharpen\nsepia\ngreyscale\ncheckerboard 25\n"
+              + "sharpen\n");
+    }
+    new ImageProcessingControllerImpl(script.getPath(), new StringBuilder()).execute();
+
+    assertEquals(4L, server.getAttribute(name, "ImagesProcessed"));
+    assertEquals(0.1 + 0.1 + 0.04 + 0.04,
+            (Double) server.getAttribute(name, "MegapixelsProcessed"), 1e-9);
+    assertTrue((Double) server.getAttribute(name, "MegapixelsPerSecond") > 0);
+    TabularData histograms = (TabularData) server.getAttribute(name, "LatencyHistograms");
+    assertEquals(3, histograms.size());
+    CompositeData sharpen = (CompositeData) histograms.get(new Object[]{"ConvolutionFilter"})
+            .get("value");
+    assertEquals(2L, sharpen.get("count"));
+    long total = 0;
+    for (long count : (long[]) sharpen.get("bucketCounts")) {
+      total += count;
+    }
+    assertEquals(2, total);
+    assertTrue((Double) sharpen.get("p50Millis") <= (Double) sharpen.get("maxMillis"));
+    assertNotNull(histograms.get(new Object[]{"ColorTransformer"}));
+    assertNotNull(histograms.get(new Object[]{"Checkerboard"}));
+    assertEquals(0, server.getAttribute(name, "UndoStackImages"));
+
+    try {
+      server.setAttribute(name, new Attribute("Parallelism", 3));
+      assertEquals(3, Parallelism.getParallelism());
+      assertEquals(3, server.getAttribute(name, "Parallelism"));
+    } finally {
+      Parallelism.setPool(ForkJoinPool.commonPool());
+    }
+  }
+
+  /**
+   * Tests that changing the parallelism while a transformer making several passes over the image
+   * is running does not stop the pool it is using, and that the result is not affected.
+   */
+  @Test
+  public void testParallelismChangedDuringTransform() throws InterruptedException {
+    Random random = new Random(5);
+    int[] pixels = new int[512 * 512];
+    for (int i = 0; i < pixels.length; i++) {
+      pixels[i] = random.nextInt();
+    }
+    Image image = new RasterImageImpl(512, 512, pixels);
+    ImageTransformer blur = ImageTransformerFactory.createGaussianBlurFilter(4);
+    int[] expected = blur.applyOn(image).getPixelArray();
+
+    AtomicBoolean running = new AtomicBoolean(true);
+    Thread swapper = new Thread(() -> {
+      for (int i = 0; running.get(); i++) {
+        PipelineStatistics.getInstance().setParallelism(1 + i % 3);
+      }
+    });
+    try {
+      swapper.start();
+      for (int i = 0; i < 10; i++) {
+        assertArrayEquals(expected, blur.applyOn(image).getPixelArray());
+      }
+    } finally {
+      running.set(false);
+      swapper.join();
+      Parallelism.setPool(ForkJoinPool.commonPool());
+    }
+  }
+
+  /**
+   * Tests that the percentiles of a histogram are the upper bounds of their buckets, which are
+   * within an eighth of the latencies, and that only the non empty buckets are reported.
+   */
+  @Test
+  public void testHistogramBuckets() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertEquals(0, histogram.getP99Millis(), 0);
+    assertArrayEquals(new long[0], histogram.getBucketCounts());
+
+    for (int i = 0; i < 98; i++) {
+      histogram.record(5_000);
+    }
+    histogram.record(1_000_000);
+    histogram.record(1_060_000);
+    assertEquals(100, histogram.getCount());
+    assertEquals(0.005, histogram.getP50Millis(), 0);
+    assertEquals(0.005, histogram.getP90Millis(), 0);
+    assertTrue(histogram.getP99Millis() >= 1.0 && histogram.getP99Millis() <= 1.125);
+    assertEquals(1.06, histogram.getMaxMillis(), 0);
+    assertEquals((98 * 5 + 1000 + 1060) / 1e3 / 100, histogram.getMeanMillis(), 1e-9);
+    assertArrayEquals(new long[]{5, 1023, 1151}, histogram.getBucketUpperBoundsMicros());
+    assertArrayEquals(new long[]{98, 1, 1}, histogram.getBucketCounts());
+  }
+}
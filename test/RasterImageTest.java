@@ -0,0 +1,87 @@
+import org.junit.Test;
+
+import model.Image;
+import model.ImageTransformerFactory;
+import model.Pixel;
+import model.RasterImageImpl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * This class tests the RasterImageImpl implementation of the RasterImage interface.
+ */
+public class RasterImageTest {
+
+  /**
+   * Tests the construction of the image and the methods that provide access to its raster.
+   */
+  @Test
+  public void testRasterAccess() {
+    int[] raster = {-16776961, -16121601, -16119041, 0x80ff0000, 0xff00ff00, 0xff0000ff};
+    RasterImageImpl image = new RasterImageImpl(3, 2, raster);
+
+    assertEquals(3, image.getWidth());
+    assertEquals(2, image.getHeight());
+    assertEquals(0x80ff0000, image.getRGB(0, 1));
+    assertArrayEquals(raster, image.getPixelArray());
+
+    int[] row = new int[4];
+    image.getRow(1, row, 1);
+    assertArrayEquals(new int[]{0, 0x80ff0000, 0xff00ff00, 0xff0000ff}, row);
+
+    int[] region = image.getRGB(1, 0, 2, 2, null, 0, 2);
+    assertArrayEquals(new int[]{-16121601, -16119041, 0xff00ff00, 0xff0000ff}, region);
+
+    image.setRow(0, new int[]{1, 2, 3}, 0);
+    image.setRGB(2, 1, 4);
+    assertEquals("1 2 3 \n"
+            + "-2130771968 -16711936 4 \n", image.toString());
+
+    try {
+      image.getRGB(3, 0);
+      fail("Should have thrown an exception");
+    } catch (IndexOutOfBoundsException e) {
+      assertEquals("Region lies outside the bounds of the image.", e.getMessage());
+    }
+    try {
+      new RasterImageImpl(2, 2, raster);
+      fail("Should have thrown an exception");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Raster does not match the dimensions of the image.", e.getMessage());
+    }
+  }
+
+  /**
+   * Tests that the Pixel based compatibility view matches the raster.
+   */
+  @Test
+  public void testPixelView() {
+    Image image = new RasterImageImpl(2, 1, new int[]{0x7b0a141e, 0xff000000});
+    Pixel[][] pixels = image.getPixels();
+
+    assertEquals(2, pixels.length);
+    assertEquals(1, pixels[0].length);
+    assertEquals(123, pixels[0][0].getColor().getAlpha());
+    assertEquals(10, pixels[0][0].getColor().getRed());
+    assertEquals(20, pixels[0][0].getColor().getGreen());
+    assertEquals(30, pixels[0][0].getColor().getBlue());
+    assertEquals(0, pixels[1][0].getRow());
+    assertEquals(1, pixels[1][0].getColumn());
+    assertEquals(0xff000000, pixels[1][0].getRGB());
+  }
+
+  /**
+   * Tests that transforming a raster image keeps the transparency of its pixels.
+   */
+  @Test
+  public void testTransformKeepsAlpha() {
+    Image image = new RasterImageImpl(1, 1, new int[]{0x40646464});
+    Image blurred = image.transform(ImageTransformerFactory.createBlurFilter());
+    Image greyscale = image.transform(ImageTransformerFactory.createGreyScaleFilter());
+
+    assertArrayEquals(new int[]{0x40646464}, blurred.getPixelArray());
+    assertArrayEquals(new int[]{0x40636363}, greyscale.getPixelArray());
+  }
+}
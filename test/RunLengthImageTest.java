@@ -0,0 +1,120 @@
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import model.BufferedImageAdapter;
+import model.Country;
+import model.Image;
+import model.ImageGenerator;
+import model.ImageGeneratorImpl;
+import model.ImageTransformerFactory;
+import model.RasterImage;
+import model.RasterImageImpl;
+import model.RunLengthImage;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This class contains tests for RunLengthImage and the generated images built on it.
+ */
+public class RunLengthImageTest {
+
+  /**
+   * Tests that the pixels of any region of a run-length image are the pixels of the rows it was
+   * built from.
+   */
+  @Test
+  public void testRegionsMatchRows() {
+    Random random = new Random(5);
+    int width = 29;
+    int height = 31;
+    int[] pixels = new int[width * height];
+    RunLengthImage.Builder builder = new RunLengthImage.Builder(width, height);
+    for (int y = 0; y < height; ) {
+      int count = Math.min(height - y, 1 + random.nextInt(5));
+      int[] row = new int[width];
+      for (int x = 0; x < width; x++) {
+        row[x] = x > 0 && random.nextInt(3) > 0 ? row[x - 1] : 0xff000000 | random.nextInt(4);
+      }
+      builder.addRows(count, row);
+      for (int i = 0; i < count; i++) {
+        System.arraycopy(row, 0, pixels, (y + i) * width, width);
+      }
+      y += count;
+    }
+    RunLengthImage image = builder.build();
+    assertArrayEquals(pixels, image.getPixelArray());
+    for (int i = 0; i < 200; i++) {
+      int x = random.nextInt(width);
+      int y = random.nextInt(height);
+      int w = 1 + random.nextInt(width - x);
+      int h = 1 + random.nextInt(height - y);
+      int[] region = image.getRGB(x, y, w, h, null, 0, w);
+      for (int j = 0; j < h; j++) {
+        for (int k = 0; k < w; k++) {
+          assertEquals(pixels[(y + j) * width + x + k], region[j * w + k]);
+        }
+      }
+    }
+  }
+
+  /**
+   * Tests that a color transformation of a run-length image only changes its palette and gives
+   * the same pixels as the transformation of the expanded image.
+   */
+  @Test
+  public void testColorTransformationKeepsRuns() {
+    Image flag = new ImageGeneratorImpl().generateFlag(100, Country.GREECE);
+    Image sepia = ImageTransformerFactory.createSepiaFilter().applyOn(flag);
+    Image expanded = ImageTransformerFactory.createSepiaFilter()
+            .applyOn(new RasterImageImpl(flag.getWidth(), flag.getHeight(), flag.getPixelArray()));
+    assertTrue(sepia instanceof RunLengthImage);
+    assertArrayEquals(expanded.getPixelArray(), sepia.getPixelArray());
+  }
+
+  /**
+   * Tests that very large images are generated without expanding their pixels.
+   */
+  @Test
+  public void testLargeImagesAreGeneratedLazily() {
+    ImageGenerator generator = new ImageGeneratorImpl();
+    RasterImage checkerboard = (RasterImage) generator.generateCheckerboard(2500);
+    RasterImage flag = (RasterImage) generator.generateFlag(20000, Country.SWITZERLAND);
+    assertEquals(20000, checkerboard.getWidth());
+    assertEquals(20000, checkerboard.getHeight());
+    assertEquals(0xffffffff, checkerboard.getRGB(0, 0));
+    assertEquals(0xff000000, checkerboard.getRGB(0, 19999));
+    assertEquals(0xffffffff, checkerboard.getRGB(19999, 19999));
+    assertEquals(2, ((RunLengthImage) checkerboard).getPalette().length);
+    assertEquals(0xffff0000, flag.getRGB(0, 0));
+    assertEquals(0xffffffff, flag.getRGB(flag.getWidth() / 2, flag.getHeight() / 2));
+  }
+
+  /**
+   * Tests that a generated image written from its rows produced on demand is read back with the
+   * same pixels, in a format that stores its palette and in one that does not.
+   */
+  @Test
+  public void testStreamedImagesRoundTrip() throws IOException {
+    Image flag = new ImageGeneratorImpl().generateFlag(64, Country.SWITZERLAND);
+    for (String format : new String[]{"png", "bmp"}) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      assertTrue(ImageIO.write(BufferedImageAdapter.toRenderedImage(flag), format, out));
+      Image read = BufferedImageAdapter.toImage(ImageIO.read(
+              new ByteArrayInputStream(out.toByteArray())));
+      assertArrayEquals(flag.getPixelArray(), read.getPixelArray());
+    }
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    assertTrue(ImageIO.write(BufferedImageAdapter.toRgbRenderedImage(flag), "png", out));
+    Image read = BufferedImageAdapter.toImage(ImageIO.read(
+            new ByteArrayInputStream(out.toByteArray())));
+    assertArrayEquals(flag.getPixelArray(), read.getPixelArray());
+  }
+}
@@ -0,0 +1,148 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.imageio.ImageIO;
+
+import controller.ImageProcessingControllerImpl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * This class contains tests for the segments of a script run by the script controller.
+ */
+public class ScriptSegmentsTest {
+
+  /**
+   * Temporary folder holding the files of a test, deleted once the test has run.
+   */
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * Tests that a script starting with a generator runs, and that running its segments at the same
+   * time writes the same files and the same report as running them one after the other, including
+   * a segment that loads the file saved by an earlier segment.
+   */
+  @Test
+  public void testSegmentsRunConcurrently() throws IOException {
+    Path sequential = folder.newFolder("sequential").toPath();
+    Path concurrent = folder.newFolder("concurrent").toPath();
+    StringBuilder sequentialReport = new StringBuilder();
+    StringBuilder concurrentReport = new StringBuilder();
+    new ImageProcessingControllerImpl(script(sequential), sequentialReport, null, 1).execute();
+    new ImageProcessingControllerImpl(script(concurrent), concurrentReport, null, 4).execute();
+
+    String[] files = {"board.png", "flag.png", "manhattan.png", "manhattan-blur.png"};
+    for (String file : files) {
+      assertArrayEquals(file, Files.readAllBytes(sequential.resolve(file)),
+              Files.readAllBytes(concurrent.resolve(file)));
+    }
+    assertEquals(sequentialReport.toString(), concurrentReport.toString());
+    assertTrue(sequentialReport.toString().startsWith("[sepia, greyscale]: chained"));
+  }
+
+  /**
+   * Tests that a segment that fails does not stop the other segments, that the segments that
+   * depend on it are not run, and that every failure is reported while the first one is thrown.
+   */
+  @Test
+  public void testFailuresAreReportedPerSegment() throws IOException {
+    Path directory = folder.newFolder("failures").toPath();
+    File script = directory.resolve("script.txt").toFile();
+    try (Writer writer = new FileWriter(script)) {
+      writer.write("checkerboard 10\nsave " + directory + " board png\n"
+              + "load " + directory.resolve("missing.png") + "\nsave " + directory + " copy png\n"
+              + "load " + directory.resolve("copy.png") + "\nsepia\n"
+              + "flag 20 france\nmosaic many\n"
+              + "rainbow 5 20 vertical\nsave " + directory + " rainbow png\n");
+    }
+    StringBuilder report = new StringBuilder();
+    try {
+      new ImageProcessingControllerImpl(script.getPath(), report, null, 2).execute();
+      fail("The failure of the segments was not thrown.");
+    } catch (IOException e) {
+      assertEquals(2, e.getSuppressed().length);
+      assertTrue(e.getSuppressed()[0] instanceof IllegalStateException);
+    }
+    String[] lines = report.toString().split(System.lineSeparator());
+    assertEquals(3, lines.length);
+    assertTrue(lines[0].startsWith("Segment starting at line 3 failed: "));
+    assertEquals("Segment starting at line 5 failed: The segment depends on the segment starting"
+            + " at line 3, which failed.", lines[1]);
+    assertTrue(lines[2].startsWith("Segment starting at line 7 failed: "));
+    assertTrue(Files.exists(directory.resolve("board.png")));
+    assertTrue(Files.exists(directory.resolve("rainbow.png")));
+    assertFalse(Files.exists(directory.resolve("copy.png")));
+  }
+
+  /**
+   * Tests that a segment that only has to run after a segment that failed, because it saves a
+   * file that the failed segment saves or loads, still runs, while the failure of a segment is
+   * not attributed to the segments it merely waits for.
+   */
+  @Test
+  public void testOrderingDoesNotSpreadFailures() throws IOException {
+    Path directory = folder.newFolder("ordering").toPath();
+    File script = directory.resolve("script.txt").toFile();
+    try (Writer writer = new FileWriter(script)) {
+      writer.write("load " + directory.resolve("missing.png") + "\nsave " + directory + " b png\n"
+              + "checkerboard 6\nsave " + directory + " b png\n"
+              + "load " + directory.resolve("c.png") + "\nsepia\n"
+              + "checkerboard 3\nsave " + directory + " c png\n");
+    }
+    StringBuilder report = new StringBuilder();
+    try {
+      new ImageProcessingControllerImpl(script.getPath(), report, null, 2).execute();
+      fail("The failure of the segments was not thrown.");
+    } catch (IOException e) {
+      assertEquals(1, e.getSuppressed().length);
+    }
+    String[] lines = report.toString().split(System.lineSeparator());
+    assertEquals(2, lines.length);
+    assertTrue(lines[0].startsWith("Segment starting at line 1 failed: "));
+    assertTrue(lines[1].startsWith("Segment starting at line 5 failed: "));
+    assertFalse(report.toString().contains("which failed"));
+    assertEquals(48, ImageIO.read(directory.resolve("b.png").toFile()).getWidth());
+    assertEquals(24, ImageIO.read(directory.resolve("c.png").toFile()).getWidth());
+  }
+
+  /**
+   * Tests that a number of threads that is not positive is rejected.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidNumberOfThreads() throws IOException {
+    File script = folder.newFile("threads.txt");
+    new ImageProcessingControllerImpl(script.getPath(), new StringBuilder(), null, 0);
+  }
+
+  /**
+   * Private helper that writes a script of several segments saving their images to a directory.
+   *
+   * @param directory directory of the images
+   * @return path to the script
+   * @throws IOException when the script cannot be written
+   */
+  private String script(Path directory) throws IOException {
+    File script = directory.resolve("script.txt").toFile();
+    try (Writer writer = new FileWriter(script)) {
+      writer.write("checkerboard 20\nsepia\ngreyscale\nsave " + directory + " board png\n"
+              + "load res/manhattan-small.png\nsharpen\nsave " + directory + " manhattan png\n"
+              + "flag 30 sweden\nsave " + directory + " flag png\n"
+              + "load " + directory.resolve("manhattan.png") + "\nblur\nmosaic 50 seed 7\n"
+              + "save " + directory + " manhattan-blur png\n");
+    }
+    return script.getPath();
+  }
+}
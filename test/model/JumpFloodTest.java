@@ -0,0 +1,83 @@
+package model;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * This class contains tests for the JumpFlood class, comparing its approximate labeling with the
+ * exact closest seeds found by a scan over all seeds.
+ */
+public class JumpFloodTest {
+
+  /**
+   * Tests that on random layouts of seeds every seed keeps its own pixel, that at most 0.02% of
+   * the pixels are labeled with a seed that is not the closest one, and that such a seed is less
+   * than 6 pixels farther than the closest seed.
+   */
+  @Test
+  public void testLabelsAreCloseToExact() {
+    Random random = new Random(17);
+    long pixels = 0;
+    long notNearest = 0;
+    double maximumExtra = 0;
+    for (int layout = 0; layout < 200; layout++) {
+      int width = 8 + random.nextInt(100);
+      int height = 8 + random.nextInt(100);
+      int seeds = 1 + random.nextInt(Math.min(200, width * height / 4));
+      int[] columns = new int[seeds];
+      int[] rows = new int[seeds];
+      Set<Integer> used = new HashSet<>();
+      for (int k = 0; k < seeds; ) {
+        int pixel = random.nextInt(width * height);
+        if (used.add(pixel)) {
+          columns[k] = pixel % width;
+          rows[k] = pixel / width;
+          k++;
+        }
+      }
+      int[] labels = JumpFlood.label(width, height, columns, rows, ForkJoinPool.commonPool());
+      for (int k = 0; k < seeds; k++) {
+        assertEquals(k, labels[rows[k] * width + columns[k]]);
+      }
+      for (int y = 0; y < height; y++) {
+        for (int x = 0; x < width; x++) {
+          long nearest = Long.MAX_VALUE;
+          for (int k = 0; k < seeds; k++) {
+            nearest = Math.min(nearest, distance(x, y, columns[k], rows[k]));
+          }
+          int label = labels[y * width + x];
+          long labeled = distance(x, y, columns[label], rows[label]);
+          pixels++;
+          if (labeled > nearest) {
+            notNearest++;
+            maximumExtra = Math.max(maximumExtra, Math.sqrt(labeled) - Math.sqrt(nearest));
+          }
+        }
+      }
+    }
+    assertTrue(notNearest + " of " + pixels + " pixels", notNearest * 5_000 <= pixels);
+    assertTrue(maximumExtra + " pixels farther", maximumExtra < 6);
+  }
+
+  /**
+   * Private helper that returns the squared distance between two pixels.
+   *
+   * @param x1 column of the first pixel
+   * @param y1 row of the first pixel
+   * @param x2 column of the second pixel
+   * @param y2 row of the second pixel
+   * @return squared distance between the pixels
+   */
+  private static long distance(int x1, int y1, int x2, int y2) {
+    long dx = x1 - x2;
+    long dy = y1 - y2;
+    return dx * dx + dy * dy;
+  }
+}
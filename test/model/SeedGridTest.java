@@ -0,0 +1,106 @@
+package model;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * This class contains tests for the SeedGrid class, comparing it with a scan over all seeds.
+ */
+public class SeedGridTest {
+
+  /**
+   * Tests that the closest seed of every pixel is the seed found by a scan over all seeds, for
+   * seeds spread over the image and for seeds clustered in a small part of it.
+   */
+  @Test
+  public void testMatchesExhaustiveScan() {
+    Random random = new Random(3);
+    for (int layout = 0; layout < 200; layout++) {
+      int width = 1 + random.nextInt(80);
+      int height = 1 + random.nextInt(80);
+      int seeds = 1 + random.nextInt(150);
+      boolean clustered = layout % 2 == 1;
+      int[] columns = new int[seeds];
+      int[] rows = new int[seeds];
+      for (int k = 0; k < seeds; k++) {
+        columns[k] = random.nextInt(clustered ? Math.max(1, width / 8) : width);
+        rows[k] = random.nextInt(clustered ? Math.max(1, height / 8) : height);
+      }
+      assertMatchesScan(width, height, columns, rows);
+    }
+  }
+
+  /**
+   * Tests that the seed with the lowest index is returned among seeds that are equally close,
+   * including seeds on a regular lattice and seeds on the same pixel.
+   */
+  @Test
+  public void testTiesResolveToLowestIndex() {
+    SeedGrid pair = new SeedGrid(5, 1, new int[]{4, 0}, new int[]{0, 0});
+    assertEquals(0, pair.nearest(2, 0));
+    assertEquals(1, pair.nearest(1, 0));
+
+    Random random = new Random(5);
+    for (int layout = 0; layout < 50; layout++) {
+      int spacing = 2 + 2 * random.nextInt(4);
+      int width = 20 + random.nextInt(40);
+      int height = 20 + random.nextInt(40);
+      int perRow = (width + spacing - 1) / spacing;
+      int seeds = perRow * ((height + spacing - 1) / spacing);
+      int[] columns = new int[seeds + 10];
+      int[] rows = new int[seeds + 10];
+      // lattice seeds in a shuffled order, followed by duplicates of some of them
+      int[] order = new int[seeds];
+      for (int k = 0; k < seeds; k++) {
+        order[k] = k;
+      }
+      for (int k = seeds - 1; k > 0; k--) {
+        int other = random.nextInt(k + 1);
+        int swap = order[k];
+        order[k] = order[other];
+        order[other] = swap;
+      }
+      for (int k = 0; k < seeds; k++) {
+        columns[k] = (order[k] % perRow) * spacing;
+        rows[k] = (order[k] / perRow) * spacing;
+      }
+      for (int k = seeds; k < columns.length; k++) {
+        int copy = random.nextInt(seeds);
+        columns[k] = columns[copy];
+        rows[k] = rows[copy];
+      }
+      assertMatchesScan(width, height, columns, rows);
+    }
+  }
+
+  /**
+   * Private helper that asserts that the grid finds the same seed as a scan over all seeds in
+   * order for every pixel of an image.
+   *
+   * @param width   width of the image
+   * @param height  height of the image
+   * @param columns columns of the seeds
+   * @param rows    rows of the seeds
+   */
+  private static void assertMatchesScan(int width, int height, int[] columns, int[] rows) {
+    SeedGrid grid = new SeedGrid(width, height, columns, rows);
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        long bestDistance = Long.MAX_VALUE;
+        int bestIndex = -1;
+        for (int k = 0; k < columns.length; k++) {
+          long distance = (long) (x - columns[k]) * (x - columns[k])
+                  + (long) (y - rows[k]) * (y - rows[k]);
+          if (distance < bestDistance) {
+            bestDistance = distance;
+            bestIndex = k;
+          }
+        }
+        assertEquals("pixel (" + x + ", " + y + ")", bestIndex, grid.nearest(x, y));
+      }
+    }
+  }
+}